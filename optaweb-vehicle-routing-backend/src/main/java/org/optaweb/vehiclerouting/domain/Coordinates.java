@@ -17,19 +17,26 @@
 package org.optaweb.vehiclerouting.domain;
 
 import java.math.BigDecimal;
-import java.util.Objects;
 
 /**
  * Horizontal geographical coordinates consisting of latitude and longitude.
+ * <p>
+ * Coordinates are kept in primitive doubles because they are read on hot paths (distance calculation, routing,
+ * track encoding). Exact decimal representation is only needed when persisting them.
  */
 public class Coordinates {
 
-    private final BigDecimal latitude;
-    private final BigDecimal longitude;
+    private final double latitude;
+    private final double longitude;
 
-    public Coordinates(BigDecimal latitude, BigDecimal longitude) {
-        this.latitude = Objects.requireNonNull(latitude);
-        this.longitude = Objects.requireNonNull(longitude);
+    public Coordinates(double latitude, double longitude) {
+        if (!Double.isFinite(latitude) || !Double.isFinite(longitude)) {
+            throw new IllegalArgumentException(
+                    "Latitude and longitude must be finite numbers (got [" + latitude + ", " + longitude + "])");
+        }
+        // Adding zero turns -0.0 into 0.0, so that equal coordinates have the same hash code.
+        this.latitude = latitude + 0.0;
+        this.longitude = longitude + 0.0;
     }
 
     /**
@@ -40,24 +47,24 @@ public class Coordinates {
      * @return coordinates with the given latitude and longitude
      */
     public static Coordinates valueOf(double latitude, double longitude) {
-        return new Coordinates(BigDecimal.valueOf(latitude), BigDecimal.valueOf(longitude));
+        return new Coordinates(latitude, longitude);
     }
 
     /**
      * Latitude.
      *
-     * @return latitude (never {@code null})
+     * @return latitude
      */
-    public BigDecimal latitude() {
+    public double latitude() {
         return latitude;
     }
 
     /**
      * Longitude.
      *
-     * @return longitude (never {@code null})
+     * @return longitude
      */
-    public BigDecimal longitude() {
+    public double longitude() {
         return longitude;
     }
 
@@ -70,19 +77,19 @@ public class Coordinates {
             return false;
         }
         Coordinates coordinates = (Coordinates) o;
-        return latitude.compareTo(coordinates.latitude) == 0 &&
-                longitude.compareTo(coordinates.longitude) == 0;
+        return latitude == coordinates.latitude &&
+                longitude == coordinates.longitude;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(latitude.doubleValue(), longitude.doubleValue());
+        return 31 * Double.hashCode(latitude) + Double.hashCode(longitude);
     }
 
     @Override
     public String toString() {
-        return "[" + latitude.toPlainString() +
-                ", " + longitude.toPlainString() +
+        return "[" + BigDecimal.valueOf(latitude).toPlainString() +
+                ", " + BigDecimal.valueOf(longitude).toPlainString() +
                 ']';
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import java.util.Collection;
+
+/**
+ * Batch operations on distances that are not provided by {@link org.springframework.data.repository.CrudRepository}.
+ */
+interface DistanceBatchRepository {
+
+    /**
+     * Insert new distances using JDBC batching. Unlike {@code saveAll()}, this doesn't check if the distances exist
+     * so it must only be used for distances that haven't been persisted yet. If any of them has been persisted
+     * in the meantime, a {@link org.springframework.dao.DataIntegrityViolationException} is thrown and none are
+     * inserted.
+     *
+     * @param distances new distances
+     */
+    void insertAll(Collection<DistanceEntity> distances);
+}
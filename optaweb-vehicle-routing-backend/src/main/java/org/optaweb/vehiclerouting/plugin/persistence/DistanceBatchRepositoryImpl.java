@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import java.util.Collection;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implements {@link DistanceBatchRepository}. Spring Data adds this implementation to {@link DistanceCrudRepository}.
+ */
+class DistanceBatchRepositoryImpl implements DistanceBatchRepository {
+
+    /**
+     * How many entities are persisted before the persistence context is flushed and cleared. Should be a multiple of
+     * {@code hibernate.jdbc.batch_size} to fill the JDBC batches.
+     */
+    static final int FLUSH_INTERVAL = 1000;
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    DistanceBatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(Collection<DistanceEntity> distances) {
+        int count = 0;
+        for (DistanceEntity distance : distances) {
+            // persist() doesn't issue a SELECT to find out whether the entity exists, unlike save() (merge).
+            entityManager.persist(distance);
+            if (++count % FLUSH_INTERVAL == 0) {
+                // Send the batched INSERTs and detach the entities to keep the persistence context small.
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        // Flush the rest here rather than on commit so that a constraint violation is translated by the repository.
+        entityManager.flush();
+    }
+}
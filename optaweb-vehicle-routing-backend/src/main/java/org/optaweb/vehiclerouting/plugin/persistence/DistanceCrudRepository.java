@@ -16,6 +16,9 @@
 
 package org.optaweb.vehiclerouting.plugin.persistence;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -25,10 +28,30 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Distance repository.
  */
-interface DistanceCrudRepository extends CrudRepository<DistanceEntity, DistanceKey> {
+interface DistanceCrudRepository extends CrudRepository<DistanceEntity, DistanceKey>, DistanceBatchRepository {
+
+    /**
+     * Find distances between the given origins and destinations. Only the scalar columns are selected so no managed
+     * entities are created. Callers must keep the number of IDs below the database's bind parameter limit.
+     *
+     * @param fromIds origin IDs
+     * @param toIds destination IDs
+     * @return {@code [fromId, toId, distance]} for each distance found
+     */
+    @Query("select d.key.fromId, d.key.toId, d.distance from DistanceEntity d"
+            + " where d.key.fromId in :fromIds and d.key.toId in :toIds")
+    List<Object[]> findDistances(@Param("fromIds") Collection<Long> fromIds, @Param("toIds") Collection<Long> toIds);
 
     @Modifying
     @Transactional
     @Query("delete from DistanceEntity where from_id = :deletedLocationId or to_id = :deletedLocationId")
     void deleteByFromIdOrToId(@Param("deletedLocationId") long deletedLocationId);
+
+    /**
+     * Delete all distances in a single statement without loading them.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from DistanceEntity")
+    void deleteAllInBulk();
 }
@@ -0,0 +1,451 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary, memory-mapped file that stores a dense distance matrix keyed by coordinates.
+ * <p>
+ * Each distinct pair of coordinates is a node with a number. The file consists of:
+ * <ul>
+ * <li>a header (magic number, version, capacity, number of nodes, dirty flag, profile hash),</li>
+ * <li>a node table with capacity × (latitude, longitude, check value),</li>
+ * <li>a matrix with capacity × capacity cells, each holding the distance + 1 (so 0 means unknown, which is what
+ * a sparse file reads as).</li>
+ * </ul>
+ * When the capacity is exhausted, the matrix is relaid in place with a doubled capacity. The number of nodes is limited
+ * by {@link #maxNodeCount()} so the file never grows beyond roughly {@code (2 × maxNodeCount)² × 8} bytes. No more
+ * nodes are added when the limit is reached. It's up to the caller to {@link #clear()} the file to make room.
+ * <p>
+ * Distances are only valid for the distance calculator profile (routing engine, road network, etc.) they were
+ * calculated with. The file is discarded when it's opened with a different profile.
+ * <p>
+ * The file is a cache so it's enough to never return a wrong distance after a crash of the application or the
+ * operating system:
+ * <ul>
+ * <li>A node is only counted when its check value is valid. Cells between a new node and existing nodes are cleared
+ * and forced to the storage device before the node is written, so stale cells are never attributed to a new node.</li>
+ * <li>The node table is forced to the storage device when a node is added and when the file is cleared, so
+ * a distance is never written for a node that could be replaced by a stale node after a crash.</li>
+ * <li>The dirty flag is set while the matrix is being relaid. A dirty file is discarded when opened.</li>
+ * </ul>
+ * The class is not thread-safe.
+ */
+class DistanceFile implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistanceFile.class);
+
+    static final int NO_NODE = -1;
+    static final int INITIAL_CAPACITY = 64;
+
+    private static final int MAGIC = 0x4F505644; // "OPVD"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int NODE_COUNT_OFFSET = 12;
+    private static final int DIRTY_OFFSET = 16;
+    private static final int PROFILE_HASH_OFFSET = 20;
+    private static final int NODE_SIZE = 24;
+    private static final long CHECK_SEED = 0x9E3779B97F4A7C15L;
+    private static final int CELL_SIZE = Long.BYTES;
+    // Matrix is mapped in segments because a single mapping cannot exceed 2 GB.
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final Path path;
+    private final long profileHash;
+    private final int maxNodeCount;
+    private final int maxCapacity;
+    private final Map<Coordinates, Integer> nodes = new HashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer nodeTable;
+    private MappedByteBuffer[] matrixSegments;
+    private int rowsPerSegment;
+    private int capacity;
+    private int nodeCount;
+    private long[] rowCache = new long[0];
+
+    private DistanceFile(Path path, String profile, int maxNodeCount) {
+        if (maxNodeCount < 1) {
+            throw new IllegalArgumentException("Max node count (" + maxNodeCount + ") must be positive");
+        }
+        this.path = path;
+        this.profileHash = profileHash(profile);
+        this.maxNodeCount = maxNodeCount;
+        int capacityLimit = INITIAL_CAPACITY;
+        while (capacityLimit < maxNodeCount) {
+            capacityLimit *= 2;
+        }
+        this.maxCapacity = capacityLimit;
+    }
+
+    /**
+     * Open an existing distance file or create a new one. A file that is corrupted, was being modified when
+     * the application crashed, was written with a different profile or exceeds the node limit is replaced by an empty
+     * file.
+     *
+     * @param path file path
+     * @param profile profile of the distance calculator (see
+     * {@link org.optaweb.vehiclerouting.service.distance.DistanceCalculator#profile()})
+     * @param maxNodeCount maximum number of nodes
+     * @return open distance file
+     */
+    static DistanceFile open(Path path, String profile, int maxNodeCount) {
+        DistanceFile distanceFile = new DistanceFile(path, profile, maxNodeCount);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            distanceFile.channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (!distanceFile.load()) {
+                distanceFile.reset();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open distance file " + path, e);
+        }
+        return distanceFile;
+    }
+
+    private boolean load() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            logger.warn("{} is not a distance file or has an unsupported version. It will be overwritten.", path);
+            return false;
+        }
+        if (header.getLong(PROFILE_HASH_OFFSET) != profileHash) {
+            logger.info("{} was written with a different distance profile. It will be overwritten.", path);
+            return false;
+        }
+        if (header.getInt(DIRTY_OFFSET) != 0) {
+            logger.warn("{} wasn't closed properly while being resized. It will be overwritten.", path);
+            return false;
+        }
+        int storedCapacity = header.getInt(CAPACITY_OFFSET);
+        if (storedCapacity < INITIAL_CAPACITY || Integer.bitCount(storedCapacity) != 1) {
+            logger.warn("{} has an invalid capacity ({}). It will be overwritten.", path, storedCapacity);
+            return false;
+        }
+        if (storedCapacity > maxCapacity) {
+            logger.info("{} is larger than allowed by the node limit ({}). It will be overwritten.",
+                    path, maxNodeCount);
+            return false;
+        }
+        map(storedCapacity);
+        int storedNodeCount = Math.min(header.getInt(NODE_COUNT_OFFSET), Math.min(storedCapacity, maxNodeCount));
+        nodeCount = 0;
+        for (int node = 0; node < storedNodeCount; node++) {
+            int offset = nodeOffset(node);
+            double latitude = nodeTable.getDouble(offset);
+            double longitude = nodeTable.getDouble(offset + Double.BYTES);
+            if (nodeTable.getLong(offset + 2 * Double.BYTES) != checkValue(latitude, longitude)) {
+                logger.warn("Node {} in {} is damaged. The last {} nodes will be discarded.",
+                        node, path, storedNodeCount - node);
+                break;
+            }
+            nodes.put(Coordinates.valueOf(latitude, longitude), node);
+            nodeCount++;
+        }
+        writeNodeCount();
+        logger.info("Loaded distance file {} with {} locations", path, nodeCount);
+        return true;
+    }
+
+    private void reset() throws IOException {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC_OFFSET, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putInt(CAPACITY_OFFSET, INITIAL_CAPACITY);
+        header.putInt(NODE_COUNT_OFFSET, 0);
+        header.putInt(DIRTY_OFFSET, 0);
+        header.putLong(PROFILE_HASH_OFFSET, profileHash);
+        channel.write(header, 0);
+        channel.force(true);
+        map(INITIAL_CAPACITY);
+        nodes.clear();
+        nodeCount = 0;
+    }
+
+    private void map(int newCapacity) throws IOException {
+        capacity = newCapacity;
+        // The node table mapping starts at 0 so that it includes the header.
+        nodeTable = channel.map(FileChannel.MapMode.READ_WRITE, 0, matrixOffset(capacity));
+        long rowSize = (long) capacity * CELL_SIZE;
+        rowsPerSegment = (int) Math.min(capacity, MAX_SEGMENT_SIZE / rowSize);
+        int segmentCount = (capacity + rowsPerSegment - 1) / rowsPerSegment;
+        matrixSegments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long segmentOffset = matrixOffset(capacity) + i * rowsPerSegment * rowSize;
+            matrixSegments[i] = channel.map(FileChannel.MapMode.READ_WRITE, segmentOffset, rowsPerSegment * rowSize);
+        }
+    }
+
+    /**
+     * Find a node by coordinates.
+     *
+     * @param coordinates node coordinates
+     * @return node number or {@link #NO_NODE} if there is no node at the coordinates
+     */
+    int node(Coordinates coordinates) {
+        return nodes.getOrDefault(coordinates, NO_NODE);
+    }
+
+    /**
+     * Find a node by coordinates or add a new node if there is no node at the coordinates.
+     *
+     * @param coordinates node coordinates
+     * @return node number or {@link #NO_NODE} if there is no node at the coordinates and the node limit has been
+     * reached
+     */
+    int addNode(Coordinates coordinates) {
+        Integer existingNode = nodes.get(coordinates);
+        if (existingNode != null) {
+            return existingNode;
+        }
+        if (nodeCount == maxNodeCount) {
+            return NO_NODE;
+        }
+        if (nodeCount == capacity) {
+            grow();
+        }
+        int node = nodeCount;
+        // Clear cells that may have been left by a node that had this number before the file was cleared
+        // or before a crash. Cells to and from nodes that will be added later are cleared when they are added.
+        for (int other = 0; other <= node; other++) {
+            setCell(node, other, 0);
+            setCell(other, node, 0);
+        }
+        forceMatrix(node);
+        double latitude = coordinates.latitude();
+        double longitude = coordinates.longitude();
+        int offset = nodeOffset(node);
+        nodeTable.putDouble(offset, latitude);
+        nodeTable.putDouble(offset + Double.BYTES, longitude);
+        nodeTable.putLong(offset + 2 * Double.BYTES, checkValue(latitude, longitude));
+        nodeCount++;
+        writeNodeCount();
+        nodeTable.force();
+        nodes.put(coordinates, node);
+        return node;
+    }
+
+    /**
+     * Get distance between two nodes.
+     *
+     * @param from origin node
+     * @param to destination node
+     * @return distance or a negative number if the distance is unknown
+     */
+    long getDistance(int from, int to) {
+        return getCell(from, to) - 1;
+    }
+
+    /**
+     * Get distances from a node to multiple nodes. This is faster than getting the distances one by one.
+     *
+     * @param from origin node
+     * @param toNodes destination nodes, may contain {@link #NO_NODE}
+     * @param distances output array of the same length as {@code toNodes}; unknown distances are negative
+     */
+    void getDistances(int from, int[] toNodes, long[] distances) {
+        if (rowCache.length < nodeCount) {
+            rowCache = new long[capacity];
+        }
+        ByteBuffer row = matrixSegments[from / rowsPerSegment].duplicate();
+        row.position(cellOffset(from, 0));
+        row.asLongBuffer().get(rowCache, 0, nodeCount);
+        for (int j = 0; j < toNodes.length; j++) {
+            distances[j] = toNodes[j] == NO_NODE ? -1 : rowCache[toNodes[j]] - 1;
+        }
+    }
+
+    /**
+     * Set distance between two nodes.
+     *
+     * @param from origin node
+     * @param to destination node
+     * @param distance non-negative distance
+     */
+    void setDistance(int from, int to, long distance) {
+        setCell(from, to, distance + 1);
+    }
+
+    /**
+     * Remove all nodes and distances.
+     */
+    void clear() {
+        nodes.clear();
+        nodeCount = 0;
+        // Cells will be cleared when new nodes are added.
+        writeNodeCount();
+        nodeTable.force();
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int maxNodeCount() {
+        return maxNodeCount;
+    }
+
+    private long getCell(int from, int to) {
+        return matrixSegments[from / rowsPerSegment].getLong(cellOffset(from, to));
+    }
+
+    private void setCell(int from, int to, long value) {
+        matrixSegments[from / rowsPerSegment].putLong(cellOffset(from, to), value);
+    }
+
+    private void forceMatrix(int lastRow) {
+        // Clearing the row and the column of a node touches every row up to the node.
+        for (int i = 0; i <= lastRow / rowsPerSegment; i++) {
+            matrixSegments[i].force();
+        }
+    }
+
+    private int cellOffset(int from, int to) {
+        return ((from % rowsPerSegment) * capacity + to) * CELL_SIZE;
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        try {
+            setDirty(true);
+            // Move rows to their new positions. Each row moves forward, so going from the last row to the first one
+            // never overwrites a row that hasn't been moved yet.
+            long oldMatrixOffset = matrixOffset(capacity);
+            long newMatrixOffset = matrixOffset(newCapacity);
+            ByteBuffer row = ByteBuffer.allocate(nodeCount * CELL_SIZE);
+            for (int node = nodeCount - 1; node >= 0; node--) {
+                row.clear();
+                readFully(row, oldMatrixOffset + (long) node * capacity * CELL_SIZE);
+                row.flip();
+                writeFully(row, newMatrixOffset + (long) node * newCapacity * CELL_SIZE);
+            }
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            header.putInt(0, newCapacity);
+            writeFully(header, CAPACITY_OFFSET);
+            channel.force(false);
+            map(newCapacity);
+            setDirty(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow distance file " + path, e);
+        }
+        logger.debug("Distance file {} capacity increased to {}", path, newCapacity);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long currentPosition = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, currentPosition);
+            if (read < 0) {
+                // Reading beyond the end of a sparse file. The rest reads as zeros.
+                while (buffer.hasRemaining()) {
+                    buffer.put((byte) 0);
+                }
+                return;
+            }
+            currentPosition += read;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long currentPosition = position;
+        while (buffer.hasRemaining()) {
+            currentPosition += channel.write(buffer, currentPosition);
+        }
+    }
+
+    private void setDirty(boolean dirty) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        buffer.putInt(0, dirty ? 1 : 0);
+        writeFully(buffer, DIRTY_OFFSET);
+        channel.force(false);
+    }
+
+    private void writeNodeCount() {
+        nodeTable.putInt(NODE_COUNT_OFFSET, nodeCount);
+    }
+
+    private static long checkValue(double latitude, double longitude) {
+        return Double.doubleToLongBits(latitude) * 31 + Double.doubleToLongBits(longitude) ^ CHECK_SEED;
+    }
+
+    private static long profileHash(String profile) {
+        // 64-bit FNV-1a
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : profile.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static int nodeOffset(int node) {
+        return HEADER_SIZE + node * NODE_SIZE;
+    }
+
+    private static long matrixOffset(int capacity) {
+        return HEADER_SIZE + (long) capacity * NODE_SIZE;
+    }
+
+    /**
+     * Write all changes to the storage device and close the file.
+     */
+    @Override
+    public void close() {
+        try {
+            nodeTable.force();
+            for (MappedByteBuffer segment : matrixSegments) {
+                segment.force();
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close distance file " + path, e);
+        }
+    }
+}
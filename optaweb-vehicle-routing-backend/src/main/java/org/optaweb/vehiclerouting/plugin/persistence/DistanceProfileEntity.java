@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Profile of the distance calculator that calculated the persisted distances. There is at most one.
+ */
+@Entity
+class DistanceProfileEntity {
+
+    static final int ID = 1;
+
+    @Id
+    private int id;
+
+    @Column(length = 2000)
+    private String profile;
+
+    protected DistanceProfileEntity() {
+        // for JPA
+    }
+
+    DistanceProfileEntity(String profile) {
+        this.id = ID;
+        this.profile = Objects.requireNonNull(profile);
+    }
+
+    String getProfile() {
+        return profile;
+    }
+}
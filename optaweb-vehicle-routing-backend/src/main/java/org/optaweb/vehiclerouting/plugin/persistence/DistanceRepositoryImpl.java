@@ -16,36 +16,139 @@
 
 package org.optaweb.vehiclerouting.plugin.persistence;
 
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculator;
 import org.optaweb.vehiclerouting.service.distance.DistanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
+/**
+ * Stores distances in the database. Distances are read in chunks of at most {@value #MAX_IDS_PER_QUERY} origins
+ * and as many destinations to stay well below the bind parameter limit of the database (32767 in PostgreSQL).
+ * <p>
+ * The stored distances are tied to the {@link DistanceCalculator#profile() profile} of the distance calculator.
+ * Distances calculated with a different profile (another routing engine, road network or hybrid radius) are deleted
+ * at startup.
+ */
 @Component
+@ConditionalOnProperty(
+        prefix = "app.persistence", name = "distance-store", havingValue = "database", matchIfMissing = true)
 class DistanceRepositoryImpl implements DistanceRepository {
 
+    static final int MAX_IDS_PER_QUERY = 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger(DistanceRepositoryImpl.class);
+
     private final DistanceCrudRepository distanceRepository;
 
     @Autowired
-    DistanceRepositoryImpl(DistanceCrudRepository distanceRepository) {
+    DistanceRepositoryImpl(
+            DistanceCrudRepository distanceRepository,
+            DistanceProfileCrudRepository profileRepository,
+            DistanceCalculator distanceCalculator) {
         this.distanceRepository = distanceRepository;
+        String profile = distanceCalculator.profile();
+        Optional<String> savedProfile = profileRepository.findById(DistanceProfileEntity.ID)
+                .map(DistanceProfileEntity::getProfile);
+        if (!savedProfile.equals(Optional.of(profile))) {
+            logger.info("Deleting distances calculated with a different profile ({}), the current profile is {}",
+                    savedProfile.orElse("unknown"), profile);
+            distanceRepository.deleteAllInBulk();
+            profileRepository.save(new DistanceProfileEntity(profile));
+        }
     }
 
     @Override
-    public void saveDistance(Location from, Location to, long distance) {
-        DistanceEntity distanceEntity = new DistanceEntity(new DistanceKey(from.id(), to.id()), distance);
-        distanceRepository.save(distanceEntity);
+    public void saveDistances(List<Location> from, List<Location> to, long[][] distances) {
+        if (!hasDistances(distances)) {
+            return;
+        }
+        // The same distance may have been saved since it was found missing (e.g. by another batch of locations
+        // sharing the same origins), so skip those that exist to avoid violating the primary key.
+        long[][] saved = getDistances(from, to);
+        List<DistanceEntity> distanceEntities = new ArrayList<>();
+        for (int i = 0; i < from.size(); i++) {
+            for (int j = 0; j < to.size(); j++) {
+                if (distances[i][j] >= 0 && saved[i][j] < 0) {
+                    DistanceKey key = new DistanceKey(from.get(i).id(), to.get(j).id());
+                    distanceEntities.add(new DistanceEntity(key, distances[i][j]));
+                }
+            }
+        }
+        if (distanceEntities.isEmpty()) {
+            return;
+        }
+        try {
+            distanceRepository.insertAll(distanceEntities);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent insert. Distances are only a cache of the router's results so it's fine
+            // to drop the batch. The missing ones will be calculated again.
+            logger.warn("Failed to save {} distances because some of them have been saved concurrently: {}",
+                    distanceEntities.size(), e.getMessage());
+        }
+    }
+
+    private static boolean hasDistances(long[][] distances) {
+        for (long[] row : distances) {
+            for (long distance : row) {
+                if (distance >= 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     @Override
-    public long getDistance(Location from, Location to) {
-        Optional<DistanceEntity> optional = distanceRepository.findById(new DistanceKey(from.id(), to.id()));
-        if (optional.isPresent()) {
-            return optional.get().getDistance();
+    public long[][] getDistances(List<Location> from, List<Location> to) {
+        long[][] distances = new long[from.size()][to.size()];
+        for (long[] row : distances) {
+            Arrays.fill(row, -1);
+        }
+        if (from.isEmpty() || to.isEmpty()) {
+            return distances;
+        }
+        Map<Long, Integer> fromIndexes = indexes(from);
+        Map<Long, Integer> toIndexes = indexes(to);
+        List<List<Long>> toIdsChunks = chunks(to.stream().map(Location::id).collect(toList()));
+        for (List<Long> fromIdsChunk : chunks(from.stream().map(Location::id).collect(toList()))) {
+            for (List<Long> toIdsChunk : toIdsChunks) {
+                for (Object[] distance : distanceRepository.findDistances(fromIdsChunk, toIdsChunk)) {
+                    distances[fromIndexes.get((Long) distance[0])][toIndexes.get((Long) distance[1])] =
+                            (Long) distance[2];
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+            chunks.add(ids.subList(start, Math.min(start + MAX_IDS_PER_QUERY, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static Map<Long, Integer> indexes(List<Location> locations) {
+        Map<Long, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < locations.size(); i++) {
+            indexes.put(locations.get(i).id(), i);
         }
-        return -1;
+        return indexes;
     }
 
     @Override
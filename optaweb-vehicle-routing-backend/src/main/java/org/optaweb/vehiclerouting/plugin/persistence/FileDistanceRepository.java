@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.PreDestroy;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculator;
+import org.optaweb.vehiclerouting.service.distance.DistanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores distances in a memory-mapped {@link DistanceFile} instead of the database.
+ * <p>
+ * Distances are keyed by coordinates, not by location IDs. So they remain valid after a location is removed and are
+ * reused when a location with the same coordinates is added again.
+ * <p>
+ * The file is tied to the {@link DistanceCalculator#profile() profile} of the distance calculator. Distances calculated
+ * with a different profile (another routing engine, road network or hybrid radius) are discarded when the file is
+ * opened. The file is also cleared when new coordinates don't fit in it
+ * (see {@link PersistenceProperties#getDistanceFileMaxLocations()}).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.persistence", name = "distance-store", havingValue = "file")
+class FileDistanceRepository implements DistanceRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileDistanceRepository.class);
+
+    private final DistanceFile distanceFile;
+
+    @Autowired
+    FileDistanceRepository(PersistenceProperties persistenceProperties, DistanceCalculator distanceCalculator) {
+        this(DistanceFile.open(
+                Paths.get(persistenceProperties.getDistanceFile()).toAbsolutePath(),
+                distanceCalculator.profile(),
+                persistenceProperties.getDistanceFileMaxLocations()));
+    }
+
+    FileDistanceRepository(DistanceFile distanceFile) {
+        this.distanceFile = distanceFile;
+    }
+
+    @Override
+    public synchronized void saveDistances(List<Location> from, List<Location> to, long[][] distances) {
+        makeRoom(from, to, distances);
+        int[] toNodes = null;
+        for (int i = 0; i < from.size(); i++) {
+            int fromNode = DistanceFile.NO_NODE;
+            for (int j = 0; j < to.size(); j++) {
+                if (distances[i][j] >= 0) {
+                    if (toNodes == null) {
+                        toNodes = new int[to.size()];
+                        Arrays.fill(toNodes, DistanceFile.NO_NODE);
+                    }
+                    if (fromNode == DistanceFile.NO_NODE) {
+                        fromNode = distanceFile.addNode(from.get(i).coordinates());
+                    }
+                    if (toNodes[j] == DistanceFile.NO_NODE) {
+                        toNodes[j] = distanceFile.addNode(to.get(j).coordinates());
+                    }
+                    // Nodes can only be missing if there are more distinct coordinates than the file can hold.
+                    if (fromNode != DistanceFile.NO_NODE && toNodes[j] != DistanceFile.NO_NODE) {
+                        distanceFile.setDistance(fromNode, toNodes[j], distances[i][j]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Clear the file if the coordinates that have no node yet don't fit in it.
+     */
+    private void makeRoom(List<Location> from, List<Location> to, long[][] distances) {
+        boolean[] toSaved = new boolean[to.size()];
+        Set<Coordinates> newCoordinates = new HashSet<>();
+        for (int i = 0; i < from.size(); i++) {
+            boolean fromSaved = false;
+            for (int j = 0; j < to.size(); j++) {
+                if (distances[i][j] >= 0) {
+                    fromSaved = true;
+                    toSaved[j] = true;
+                }
+            }
+            if (fromSaved) {
+                addIfNew(from.get(i).coordinates(), newCoordinates);
+            }
+        }
+        for (int j = 0; j < to.size(); j++) {
+            if (toSaved[j]) {
+                addIfNew(to.get(j).coordinates(), newCoordinates);
+            }
+        }
+        if (distanceFile.nodeCount() > 0
+                && distanceFile.nodeCount() + newCoordinates.size() > distanceFile.maxNodeCount()) {
+            logger.info("Distance file is full ({} locations). Clearing it to make room for {} new locations.",
+                    distanceFile.nodeCount(), newCoordinates.size());
+            distanceFile.clear();
+        }
+    }
+
+    private void addIfNew(Coordinates coordinates, Set<Coordinates> newCoordinates) {
+        if (distanceFile.node(coordinates) == DistanceFile.NO_NODE) {
+            newCoordinates.add(coordinates);
+        }
+    }
+
+    @Override
+    public synchronized long[][] getDistances(List<Location> from, List<Location> to) {
+        int[] toNodes = to.stream().mapToInt(location -> distanceFile.node(location.coordinates())).toArray();
+        long[][] distances = new long[from.size()][to.size()];
+        for (int i = 0; i < from.size(); i++) {
+            int fromNode = distanceFile.node(from.get(i).coordinates());
+            if (fromNode == DistanceFile.NO_NODE) {
+                Arrays.fill(distances[i], -1);
+            } else {
+                distanceFile.getDistances(fromNode, toNodes, distances[i]);
+            }
+        }
+        return distances;
+    }
+
+    @Override
+    public void deleteDistances(Location location) {
+        // Distances between coordinates don't change when a location is removed. Keep them in case a location with
+        // the same coordinates is added later.
+    }
+
+    @Override
+    public synchronized void deleteAll() {
+        distanceFile.clear();
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        distanceFile.close();
+    }
+}
@@ -18,6 +18,7 @@ package org.optaweb.vehiclerouting.plugin.persistence;
 
 import static java.util.stream.Collectors.toList;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
@@ -44,7 +45,11 @@ class LocationRepositoryImpl implements LocationRepository {
     @Override
     public Location createLocation(Coordinates coordinates, String description) {
         LocationEntity locationEntity = repository.save(
-                new LocationEntity(0, coordinates.latitude(), coordinates.longitude(), description));
+                new LocationEntity(
+                        0,
+                        BigDecimal.valueOf(coordinates.latitude()),
+                        BigDecimal.valueOf(coordinates.longitude()),
+                        description));
         Location location = toDomain(locationEntity);
         logger.info("Created location {}.", location.fullDescription());
         return location;
@@ -81,7 +86,9 @@ class LocationRepositoryImpl implements LocationRepository {
     private static Location toDomain(LocationEntity locationEntity) {
         return new Location(
                 locationEntity.getId(),
-                new Coordinates(locationEntity.getLatitude(), locationEntity.getLongitude()),
+                Coordinates.valueOf(
+                        locationEntity.getLatitude().doubleValue(),
+                        locationEntity.getLongitude().doubleValue()),
                 locationEntity.getDescription());
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("app.persistence")
+class PersistenceProperties {
+
+    /**
+     * Where distances between locations are stored.
+     */
+    private DistanceStore distanceStore;
+
+    /**
+     * Distance file used when distances are stored in a file.
+     */
+    private String distanceFile = "local/db/distances.bin";
+
+    /**
+     * Maximum number of distinct coordinates in the distance file. The file is cleared when it's full. This keeps its
+     * size below roughly (2 × max locations)² × 8 bytes.
+     */
+    private int distanceFileMaxLocations = 4096;
+
+    public DistanceStore getDistanceStore() {
+        return distanceStore;
+    }
+
+    public void setDistanceStore(DistanceStore distanceStore) {
+        this.distanceStore = distanceStore;
+    }
+
+    public String getDistanceFile() {
+        return distanceFile;
+    }
+
+    public void setDistanceFile(String distanceFile) {
+        this.distanceFile = distanceFile;
+    }
+
+    public int getDistanceFileMaxLocations() {
+        return distanceFileMaxLocations;
+    }
+
+    public void setDistanceFileMaxLocations(int distanceFileMaxLocations) {
+        this.distanceFileMaxLocations = distanceFileMaxLocations;
+    }
+
+    public enum DistanceStore {
+        DATABASE,
+        FILE
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PreDestroy;
+
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes new best solutions on a dedicated thread so that the solver thread is not blocked by converting
+ * the solution to an event and by the event's listeners.
+ * <p>
+ * Best solutions are coalesced (latest wins). At most one solution is published per
+ * {@link PlannerProperties#getPublishInterval() publish interval}. Any best solutions found in the meantime are
+ * dropped except for the latest one, which is published when the interval elapses.
+ */
+@Component
+class BestSolutionPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BestSolutionPublisher.class);
+
+    private final RouteChangedEventPublisher routeChangedEventPublisher;
+    private final long publishIntervalNanos;
+    private final ScheduledExecutorService publishingExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "best-solution-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<VehicleRoutingSolution> pendingSolution = new AtomicReference<>();
+    private final AtomicBoolean publicationScheduled = new AtomicBoolean();
+    private volatile long lastPublicationNanos;
+
+    @Autowired
+    BestSolutionPublisher(RouteChangedEventPublisher routeChangedEventPublisher, PlannerProperties plannerProperties) {
+        this.routeChangedEventPublisher = routeChangedEventPublisher;
+        this.publishIntervalNanos = plannerProperties.getPublishInterval().toNanos();
+        this.lastPublicationNanos = System.nanoTime() - publishIntervalNanos;
+    }
+
+    /**
+     * Hand over a new best solution to be published. Returns immediately. Replaces any solution that is waiting
+     * to be published.
+     *
+     * @param solution new best solution
+     */
+    void publishSolution(VehicleRoutingSolution solution) {
+        pendingSolution.set(solution);
+        if (publicationScheduled.compareAndSet(false, true)) {
+            long delayNanos = Math.max(0, lastPublicationNanos + publishIntervalNanos - System.nanoTime());
+            try {
+                publishingExecutor.schedule(this::publishPendingSolution, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Not publishing best solution because the publisher has been shut down");
+            }
+        }
+    }
+
+    /**
+     * Discard the solution that is waiting to be published, if any. When this method returns, no solution handed over
+     * before the call will be published.
+     */
+    synchronized void discardPendingSolution() {
+        pendingSolution.set(null);
+    }
+
+    private synchronized void publishPendingSolution() {
+        // Reset the flag first so that a solution arriving from now on schedules another publication.
+        publicationScheduled.set(false);
+        VehicleRoutingSolution solution = pendingSolution.getAndSet(null);
+        if (solution == null) {
+            return;
+        }
+        lastPublicationNanos = System.nanoTime();
+        try {
+            routeChangedEventPublisher.publishSolution(solution);
+        } catch (RuntimeException e) {
+            logger.error("Failed to publish best solution", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publishingExecutor.shutdownNow();
+    }
+}
@@ -24,6 +24,8 @@ import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
 
 /**
  * Provides distances to {@link PlanningLocation}s by reading from a {@link DistanceMatrixRow}.
+ * <p>
+ * Safe to use from multiple move threads because it only reads from the row.
  */
 public class DistanceMapImpl implements DistanceMap {
 
@@ -35,6 +37,11 @@ public class DistanceMapImpl implements DistanceMap {
 
     @Override
     public long distanceTo(PlanningLocation location) {
-        return distanceMatrixRow.distanceTo(location.getId()).millis();
+        int index = location.getIndex();
+        if (index == PlanningLocation.NO_INDEX) {
+            return distanceMatrixRow.distanceTo(location.getId()).millis();
+        }
+        // Fast path, doesn't allocate.
+        return distanceMatrixRow.distanceMillisTo(index);
     }
 }
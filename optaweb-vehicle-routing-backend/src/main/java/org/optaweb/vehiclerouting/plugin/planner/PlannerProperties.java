@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("app.planner")
+class PlannerProperties {
+
+    /**
+     * Minimum time between two published best solutions. Best solutions found in the meantime are coalesced and only
+     * the latest one is published. Zero publishes every best solution as soon as the previous one has been published.
+     */
+    private Duration publishInterval = Duration.ofMillis(200);
+
+    /**
+     * Minimum time between two solver status updates published while the solver is running a phase. Phase changes
+     * are published immediately.
+     */
+    private Duration statusInterval = Duration.ofSeconds(1);
+
+    public Duration getPublishInterval() {
+        return publishInterval;
+    }
+
+    public void setPublishInterval(Duration publishInterval) {
+        this.publishInterval = publishInterval;
+    }
+
+    public Duration getStatusInterval() {
+        return statusInterval;
+    }
+
+    public void setStatusInterval(Duration statusInterval) {
+        this.statusInterval = statusInterval;
+    }
+}
@@ -41,6 +41,12 @@ class RouteOptimizerConfig {
         return solverFactory.buildSolver();
     }
 
+    /**
+     * Runs the solver. There is only one solver, so one thread is enough. With multi-threaded solving, move threads
+     * are created by the solver itself (see {@code optaplanner.solver.move-thread-count}).
+     *
+     * @return solver executor
+     */
     @Bean
     AsyncListenableTaskExecutor executor() {
         SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
@@ -17,7 +17,10 @@
 package org.optaweb.vehiclerouting.plugin.planner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.optaweb.vehiclerouting.domain.Location;
 import org.optaweb.vehiclerouting.domain.Vehicle;
@@ -38,6 +41,9 @@ import org.springframework.stereotype.Component;
  * Accumulates vehicles, depots and visits until there's enough data to start the optimization.
  * Solutions are published even if solving hasn't started yet due to missing facts (e.g. no vehicles or no visits).
  * Stops solver when vehicles or visits are reduced to zero.
+ * Visits and vehicles added in bulk reach a running solver in a single problem fact change.
+ * <p>
+ * Releases the distance matrix row of a removed location as soon as the solver can't use it anymore.
  */
 @Component
 class RouteOptimizerImpl implements RouteOptimizer {
@@ -48,6 +54,10 @@ class RouteOptimizerImpl implements RouteOptimizer {
     private final List<PlanningVehicle> vehicles = new ArrayList<>();
     private final List<PlanningVisit> visits = new ArrayList<>();
     private PlanningDepot depot;
+    // Distance matrix rows of added locations by location ID.
+    private final Map<Long, DistanceMatrixRow> distanceMatrixRows = new HashMap<>();
+    // Rows of removed visits waiting for the solver to process the removal. Accessed by the solver thread.
+    private final Map<Long, DistanceMatrixRow> rowsPendingRelease = new ConcurrentHashMap<>();
 
     @Autowired
     RouteOptimizerImpl(SolverManager solverManager, RouteChangedEventPublisher routeChangedEventPublisher) {
@@ -59,7 +69,9 @@ class RouteOptimizerImpl implements RouteOptimizer {
     public void addLocation(Location domainLocation, DistanceMatrixRow distanceMatrixRow) {
         PlanningLocation location = PlanningLocationFactory.fromDomain(
                 domainLocation,
+                distanceMatrixRow.locationIndex(),
                 new DistanceMapImpl(distanceMatrixRow));
+        distanceMatrixRows.put(domainLocation.id(), distanceMatrixRow);
         // Unfortunately can't start solver with an empty solution (see https://issues.redhat.com/browse/PLANNER-776)
         if (depot == null) {
             depot = new PlanningDepot(location);
@@ -77,6 +89,41 @@ class RouteOptimizerImpl implements RouteOptimizer {
         }
     }
 
+    @Override
+    public void addLocations(List<Location> domainLocations, List<DistanceMatrixRow> distanceMatrixRows) {
+        if (domainLocations.size() != distanceMatrixRows.size()) {
+            throw new IllegalArgumentException("Got " + domainLocations.size() + " locations but "
+                    + distanceMatrixRows.size() + " distance matrix rows");
+        }
+        if (domainLocations.isEmpty()) {
+            return;
+        }
+        boolean solverRunning = !vehicles.isEmpty() && !visits.isEmpty();
+        List<PlanningVisit> newVisits = new ArrayList<>(domainLocations.size());
+        for (int i = 0; i < domainLocations.size(); i++) {
+            Location domainLocation = domainLocations.get(i);
+            DistanceMatrixRow distanceMatrixRow = distanceMatrixRows.get(i);
+            PlanningLocation location = PlanningLocationFactory.fromDomain(
+                    domainLocation,
+                    distanceMatrixRow.locationIndex(),
+                    new DistanceMapImpl(distanceMatrixRow));
+            this.distanceMatrixRows.put(domainLocation.id(), distanceMatrixRow);
+            if (depot == null) {
+                depot = new PlanningDepot(location);
+            } else {
+                newVisits.add(PlanningVisitFactory.fromLocation(location));
+            }
+        }
+        visits.addAll(newVisits);
+        if (vehicles.isEmpty() || visits.isEmpty()) {
+            publishSolution();
+        } else if (!solverRunning) {
+            solverManager.startSolver(SolutionFactory.solutionFromVisits(vehicles, depot, visits));
+        } else {
+            solverManager.addVisits(newVisits);
+        }
+    }
+
     @Override
     public void removeLocation(Location domainLocation) {
         if (visits.isEmpty()) {
@@ -88,6 +135,7 @@ class RouteOptimizerImpl implements RouteOptimizer {
                 throw new IllegalArgumentException("Cannot remove " + domainLocation + " because it doesn't exist");
             }
             depot = null;
+            releaseRow(domainLocation.id());
             publishSolution();
         } else {
             if (depot.getId() == domainLocation.id()) {
@@ -97,14 +145,22 @@ class RouteOptimizerImpl implements RouteOptimizer {
                 throw new IllegalArgumentException("Cannot remove " + domainLocation + " because it doesn't exist");
             }
             if (vehicles.isEmpty()) { // solver is not running
+                releaseRow(domainLocation.id());
                 publishSolution();
             } else if (visits.isEmpty()) { // solver is running
-                solverManager.stopSolver();
+                stopSolver();
+                releaseRow(domainLocation.id());
                 publishSolution();
             } else {
+                long locationId = domainLocation.id();
+                DistanceMatrixRow removedRow = distanceMatrixRows.remove(locationId);
+                if (removedRow != null) {
+                    rowsPendingRelease.put(locationId, removedRow);
+                }
                 // TODO maybe allow removing location by ID (only require the necessary information)
                 solverManager.removeVisit(
-                        PlanningVisitFactory.fromLocation(PlanningLocationFactory.fromDomain(domainLocation)));
+                        PlanningVisitFactory.fromLocation(PlanningLocationFactory.fromDomain(domainLocation)),
+                        () -> releasePendingRow(locationId));
             }
         }
     }
@@ -123,6 +179,28 @@ class RouteOptimizerImpl implements RouteOptimizer {
         }
     }
 
+    @Override
+    public void addVehicles(List<Vehicle> domainVehicles) {
+        if (domainVehicles.isEmpty()) {
+            return;
+        }
+        boolean solverRunning = !vehicles.isEmpty() && !visits.isEmpty();
+        List<PlanningVehicle> newVehicles = new ArrayList<>(domainVehicles.size());
+        for (Vehicle domainVehicle : domainVehicles) {
+            PlanningVehicle vehicle = PlanningVehicleFactory.fromDomain(domainVehicle);
+            vehicle.setDepot(depot);
+            newVehicles.add(vehicle);
+        }
+        vehicles.addAll(newVehicles);
+        if (visits.isEmpty()) {
+            publishSolution();
+        } else if (!solverRunning) {
+            solverManager.startSolver(SolutionFactory.solutionFromVisits(vehicles, depot, visits));
+        } else {
+            solverManager.addVehicles(newVehicles);
+        }
+    }
+
     @Override
     public void removeVehicle(Vehicle domainVehicle) {
         if (!vehicles.removeIf(vehicle -> vehicle.getId() == domainVehicle.id())) {
@@ -131,7 +209,7 @@ class RouteOptimizerImpl implements RouteOptimizer {
         if (visits.isEmpty()) { // solver is not running
             publishSolution();
         } else if (vehicles.isEmpty()) { // solver is running
-            solverManager.stopSolver();
+            stopSolver();
             publishSolution();
         } else {
             solverManager.removeVehicle(PlanningVehicleFactory.fromDomain(domainVehicle));
@@ -155,19 +233,42 @@ class RouteOptimizerImpl implements RouteOptimizer {
 
     @Override
     public void removeAllLocations() {
-        solverManager.stopSolver();
+        stopSolver();
         depot = null;
         visits.clear();
+        distanceMatrixRows.values().forEach(DistanceMatrixRow::release);
+        distanceMatrixRows.clear();
         publishSolution();
     }
 
     @Override
     public void removeAllVehicles() {
-        solverManager.stopSolver();
+        stopSolver();
         vehicles.clear();
         publishSolution();
     }
 
+    private void stopSolver() {
+        solverManager.stopSolver();
+        // The solver drops problem fact changes that it hasn't processed so the rows will never be released by them.
+        rowsPendingRelease.keySet().forEach(this::releasePendingRow);
+    }
+
+    private void releaseRow(long locationId) {
+        DistanceMatrixRow row = distanceMatrixRows.remove(locationId);
+        if (row != null) {
+            row.release();
+        }
+    }
+
+    private void releasePendingRow(long locationId) {
+        // Either called on the solver thread when the visit has been removed or after the solver has been stopped.
+        DistanceMatrixRow row = rowsPendingRelease.remove(locationId);
+        if (row != null) {
+            row.release();
+        }
+    }
+
     private void publishSolution() {
         routeChangedEventPublisher.publishSolution(SolutionFactory.solutionFromVisits(vehicles, depot, visits));
     }
@@ -16,14 +16,23 @@
 
 package org.optaweb.vehiclerouting.plugin.planner;
 
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.api.solver.ProblemFactChange;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
 import org.optaplanner.core.api.solver.event.SolverEventListener;
 import org.optaweb.vehiclerouting.plugin.planner.change.AddVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.change.AddVehicles;
 import org.optaweb.vehiclerouting.plugin.planner.change.AddVisit;
+import org.optaweb.vehiclerouting.plugin.planner.change.AddVisits;
 import org.optaweb.vehiclerouting.plugin.planner.change.ChangeVehicleCapacity;
 import org.optaweb.vehiclerouting.plugin.planner.change.RemoveVehicle;
 import org.optaweb.vehiclerouting.plugin.planner.change.RemoveVisit;
@@ -39,6 +48,11 @@ import org.springframework.core.task.AsyncListenableTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.concurrent.ListenableFuture;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * Manages a solver running in a different thread.
  * <p>
@@ -49,7 +63,9 @@ import org.springframework.util.concurrent.ListenableFuture;
  * <li>Adds problem fact changes to the solver.</li>
  * <li>Propagates any exception that happens in {@code Solver.solver()} (in a different thread) to the thread that
  * interacts with {@code SolverManager}.</li>
- * <li>Listens for best solution changes and publishes new best solutions via {@link RouteChangedEventPublisher}.</li>
+ * <li>Listens for best solution changes and hands new best solutions over to {@link BestSolutionPublisher}.</li>
+ * <li>Records solver metrics: the number of best solutions, the score of the last published best solution,
+ * the number of problem fact changes waiting for the solver and how long they wait.</li>
  * </ul>
  */
 @Component("optaweb-solver-manager")
@@ -57,23 +73,54 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
 
     private static final Logger logger = LoggerFactory.getLogger(SolverManager.class);
 
+    static final String BEST_SOLUTIONS_METRIC = "optaweb.solver.best.solutions";
+    static final String BEST_SCORE_METRIC = "optaweb.solver.best.score";
+    static final String PENDING_CHANGES_METRIC = "optaweb.solver.problem.fact.changes.pending";
+    static final String CHANGE_LATENCY_METRIC = "optaweb.solver.problem.fact.change.latency";
+
     private final Solver<VehicleRoutingSolution> solver;
     private final AsyncListenableTaskExecutor executor;
-    private final RouteChangedEventPublisher routeChangedEventPublisher;
+    private final BestSolutionPublisher bestSolutionPublisher;
     private final ApplicationEventPublisher eventPublisher;
 
+    private final Counter bestSolutions;
+    private final AtomicLong bestHardScore = new AtomicLong();
+    private final AtomicLong bestSoftScore = new AtomicLong();
+    // Problem fact changes submitted to the solver that it hasn't processed yet.
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private final Timer changeLatency;
+
     private ListenableFuture<VehicleRoutingSolution> solverFuture;
 
     @Autowired
     SolverManager(
             Solver<VehicleRoutingSolution> solver,
             AsyncListenableTaskExecutor executor,
-            RouteChangedEventPublisher routeChangedEventPublisher,
-            ApplicationEventPublisher eventPublisher) {
+            BestSolutionPublisher bestSolutionPublisher,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
         this.solver = solver;
         this.executor = executor;
-        this.routeChangedEventPublisher = routeChangedEventPublisher;
+        this.bestSolutionPublisher = bestSolutionPublisher;
         this.eventPublisher = eventPublisher;
+        this.bestSolutions = Counter.builder(BEST_SOLUTIONS_METRIC)
+                .description("New best solutions found by the solver")
+                .register(meterRegistry);
+        Gauge.builder(BEST_SCORE_METRIC, bestHardScore, AtomicLong::get)
+                .description("Score of the last published best solution")
+                .tag("level", "hard")
+                .register(meterRegistry);
+        Gauge.builder(BEST_SCORE_METRIC, bestSoftScore, AtomicLong::get)
+                .description("Score of the last published best solution")
+                .tag("level", "soft")
+                .register(meterRegistry);
+        Gauge.builder(PENDING_CHANGES_METRIC, pendingChanges, AtomicInteger::get)
+                .description("Problem fact changes waiting for the solver")
+                .register(meterRegistry);
+        this.changeLatency = Timer.builder(CHANGE_LATENCY_METRIC)
+                .description("Time from submitting a problem fact change until the solver starts processing it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
         this.solver.addEventListener(this);
     }
 
@@ -82,6 +129,7 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
         // CAUTION! This runs on the solver thread. Implications:
         // 1. The method should be as quick as possible to avoid blocking solver unnecessarily.
         // 2. This place is a potential source of race conditions.
+        bestSolutions.increment();
         if (!bestSolutionChangedEvent.isEveryProblemFactChangeProcessed()) {
             logger.info("Ignoring a new best solution that has some problem facts missing");
             return;
@@ -89,7 +137,14 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
         // TODO Race condition, if a servlet thread deletes that location in the middle of this method happening
         //      on the solver thread. Make sure that location is still in the repository.
         //      Maybe repair the solution OR ignore if it's inconsistent (log a WARNING).
-        routeChangedEventPublisher.publishSolution(bestSolutionChangedEvent.getNewBestSolution()); // TODO @Async
+        // The new best solution is a clone, so it's safe to publish it on a different thread.
+        VehicleRoutingSolution newBestSolution = bestSolutionChangedEvent.getNewBestSolution();
+        HardSoftLongScore score = newBestSolution.getScore();
+        if (score != null) {
+            bestHardScore.set(score.getHardScore());
+            bestSoftScore.set(score.getSoftScore());
+        }
+        bestSolutionPublisher.publishSolution(newBestSolution);
     }
 
     void startSolver(VehicleRoutingSolution solution) {
@@ -122,6 +177,10 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
             try {
                 solverFuture.get();
                 solverFuture = null;
+                // The terminated solver drops problem fact changes that it hasn't processed.
+                pendingChanges.set(0);
+                // Don't let a best solution of the terminated solver overwrite what's published after stopping it.
+                bestSolutionPublisher.discardPendingSolution();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 throw new RuntimeException("Failed to stop solver", e);
@@ -154,27 +213,84 @@ class SolverManager implements SolverEventListener<VehicleRoutingSolution> {
 
     void addVisit(PlanningVisit visit) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new AddVisit(visit));
+        submit(new AddVisit(visit));
     }
 
-    void removeVisit(PlanningVisit visit) {
+    /**
+     * Add multiple visits to the running solver in a single problem fact change.
+     *
+     * @param visits visits to be added
+     */
+    void addVisits(List<PlanningVisit> visits) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new RemoveVisit(visit));
+        submit(new AddVisits(visits));
+    }
+
+    /**
+     * Remove a visit from the running solver.
+     *
+     * @param visit visit to be removed
+     * @param visitRemovedCallback runs on the solver thread once the solver has removed the visit; it never runs
+     * if the solver is stopped before processing the removal
+     */
+    void removeVisit(PlanningVisit visit, Runnable visitRemovedCallback) {
+        assertSolverIsAlive();
+        submit(new RemoveVisit(visit, visitRemovedCallback));
     }
 
     void addVehicle(PlanningVehicle vehicle) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new AddVehicle(vehicle));
+        submit(new AddVehicle(vehicle));
+    }
+
+    /**
+     * Add multiple vehicles to the running solver in a single problem fact change.
+     *
+     * @param vehicles vehicles to be added
+     */
+    void addVehicles(List<PlanningVehicle> vehicles) {
+        assertSolverIsAlive();
+        submit(new AddVehicles(vehicles));
     }
 
     void removeVehicle(PlanningVehicle vehicle) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new RemoveVehicle(vehicle));
+        submit(new RemoveVehicle(vehicle));
     }
 
     void changeCapacity(PlanningVehicle vehicle) {
         assertSolverIsAlive();
-        solver.addProblemFactChange(new ChangeVehicleCapacity(vehicle));
+        submit(new ChangeVehicleCapacity(vehicle));
+    }
+
+    private void submit(ProblemFactChange<VehicleRoutingSolution> problemFactChange) {
+        pendingChanges.incrementAndGet();
+        solver.addProblemFactChange(new MeasuredProblemFactChange(problemFactChange));
+    }
+
+    /**
+     * Records the time the change waits for the solver before delegating to the actual change.
+     */
+    class MeasuredProblemFactChange implements ProblemFactChange<VehicleRoutingSolution> {
+
+        private final ProblemFactChange<VehicleRoutingSolution> delegate;
+        private final long submittedNanos = System.nanoTime();
+
+        private MeasuredProblemFactChange(ProblemFactChange<VehicleRoutingSolution> delegate) {
+            this.delegate = delegate;
+        }
+
+        ProblemFactChange<VehicleRoutingSolution> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public void doChange(ScoreDirector<VehicleRoutingSolution> scoreDirector) {
+            // Runs on the solver thread.
+            changeLatency.record(System.nanoTime() - submittedNanos, TimeUnit.NANOSECONDS);
+            pendingChanges.decrementAndGet();
+            delegate.doChange(scoreDirector);
+        }
     }
 
     /**
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.PreDestroy;
+
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.impl.constructionheuristic.scope.ConstructionHeuristicPhaseScope;
+import org.optaplanner.core.impl.localsearch.scope.LocalSearchPhaseScope;
+import org.optaplanner.core.impl.phase.event.PhaseLifecycleListenerAdapter;
+import org.optaplanner.core.impl.phase.scope.AbstractPhaseScope;
+import org.optaplanner.core.impl.phase.scope.AbstractStepScope;
+import org.optaplanner.core.impl.solver.AbstractSolver;
+import org.optaplanner.core.impl.solver.scope.SolverScope;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.service.solver.SolverStatus;
+import org.optaweb.vehiclerouting.service.solver.SolverStatusEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Samples the solver's progress and publishes it as {@link SolverStatusEvent solver status events}.
+ * <p>
+ * The status is sampled on the solver thread from phase and step events, so it costs a few field reads per step.
+ * A status is published when a phase starts, when the solver stops solving and at most once per
+ * {@link PlannerProperties#getStatusInterval() status interval} in between. Events are published on a dedicated
+ * thread so that the solver thread is not blocked by the event's listeners.
+ */
+@Component
+class SolverStatusPublisher extends PhaseLifecycleListenerAdapter<VehicleRoutingSolution> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolverStatusPublisher.class);
+
+    private final Solver<VehicleRoutingSolution> solver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long statusIntervalMillis;
+    private final ExecutorService publishingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "solver-status-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only accessed on the solver thread.
+    private long lastSampleTimeMillis;
+    private long lastSampleScoreCalculationCount;
+
+    @Autowired
+    SolverStatusPublisher(
+            Solver<VehicleRoutingSolution> solver,
+            ApplicationEventPublisher eventPublisher,
+            PlannerProperties plannerProperties) {
+        this.solver = solver;
+        this.eventPublisher = eventPublisher;
+        this.statusIntervalMillis = plannerProperties.getStatusInterval().toMillis();
+        if (solver instanceof AbstractSolver) {
+            ((AbstractSolver<VehicleRoutingSolution>) solver).addPhaseLifecycleListener(this);
+        } else {
+            logger.warn("Solver status is not available for {}", solver.getClass().getName());
+        }
+    }
+
+    @Override
+    public void solvingStarted(SolverScope<VehicleRoutingSolution> solverScope) {
+        // The solver restarts (and its time and score calculation count start from zero) after problem changes.
+        lastSampleTimeMillis = 0;
+        lastSampleScoreCalculationCount = 0;
+    }
+
+    @Override
+    public void phaseStarted(AbstractPhaseScope<VehicleRoutingSolution> phaseScope) {
+        publish(sample(phase(phaseScope), 0, phaseScope.getSolverScope()));
+    }
+
+    @Override
+    public void stepEnded(AbstractStepScope<VehicleRoutingSolution> stepScope) {
+        SolverScope<VehicleRoutingSolution> solverScope = stepScope.getPhaseScope().getSolverScope();
+        if (solverScope.calculateTimeMillisSpentUpToNow() - lastSampleTimeMillis >= statusIntervalMillis) {
+            publish(sample(phase(stepScope.getPhaseScope()), stepScope.getStepIndex() + 1L, solverScope));
+        }
+    }
+
+    @Override
+    public void solvingEnded(SolverScope<VehicleRoutingSolution> solverScope) {
+        if (solver.isTerminateEarly()) {
+            publish(SolverStatus.stopped());
+        } else {
+            // In daemon mode, the solver waits for problem changes after it has run all phases.
+            publish(sample(SolverStatus.Phase.WAITING, 0, solverScope));
+        }
+    }
+
+    private SolverStatus sample(
+            SolverStatus.Phase phase,
+            long stepCount,
+            SolverScope<VehicleRoutingSolution> solverScope) {
+        long timeMillis = solverScope.calculateTimeMillisSpentUpToNow();
+        long scoreCalculationCount = solverScope.getScoreCalculationCount();
+        long elapsedMillis = timeMillis - lastSampleTimeMillis;
+        long calculations = scoreCalculationCount - lastSampleScoreCalculationCount;
+        long scoreCalculationSpeed = elapsedMillis > 0 && calculations >= 0
+                ? calculations * 1000 / elapsedMillis
+                : solverScope.getScoreCalculationSpeed();
+        lastSampleTimeMillis = timeMillis;
+        lastSampleScoreCalculationCount = scoreCalculationCount;
+        Long bestSolutionTimeMillis = solverScope.getBestSolutionTimeMillis();
+        long millisSinceBestSolution = bestSolutionTimeMillis == null
+                ? timeMillis
+                : Math.max(0, System.currentTimeMillis() - bestSolutionTimeMillis);
+        return new SolverStatus(
+                phase,
+                stepCount,
+                Duration.ofMillis(timeMillis),
+                scoreCalculationSpeed,
+                Duration.ofMillis(millisSinceBestSolution),
+                !solver.isEveryProblemFactChangeProcessed());
+    }
+
+    private static SolverStatus.Phase phase(AbstractPhaseScope<VehicleRoutingSolution> phaseScope) {
+        if (phaseScope instanceof ConstructionHeuristicPhaseScope) {
+            return SolverStatus.Phase.CONSTRUCTION_HEURISTIC;
+        }
+        if (phaseScope instanceof LocalSearchPhaseScope) {
+            return SolverStatus.Phase.LOCAL_SEARCH;
+        }
+        return SolverStatus.Phase.OTHER;
+    }
+
+    private void publish(SolverStatus status) {
+        try {
+            publishingExecutor.execute(() -> {
+                try {
+                    eventPublisher.publishEvent(new SolverStatusEvent(this, status));
+                } catch (RuntimeException e) {
+                    logger.error("Failed to publish solver status", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Not publishing solver status because the publisher has been shut down");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publishingExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import org.optaplanner.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.Standstill;
+
+/**
+ * Measures how near a standstill is to a visit for nearby selection. Moves that put a visit next to a near standstill
+ * are selected more often than moves that put it next to a standstill on the other side of the map.
+ * <p>
+ * The solver sorts the standstills by this distance once for each visit and caches the sorted lists until the solver
+ * is restarted (for example by a problem fact change), so distances are only read from the distance matrix when
+ * a visit is selected as an origin for the first time.
+ */
+public class VisitNearbyDistanceMeter implements NearbyDistanceMeter<PlanningVisit, Standstill> {
+
+    @Override
+    public double getNearbyDistance(PlanningVisit origin, Standstill destination) {
+        // The visit would be placed right after the destination, so measure the distance in that direction.
+        return destination.getLocation().distanceTo(origin.getLocation());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.change;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.api.solver.ProblemFactChange;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+
+/**
+ * Adds multiple vehicles in a single problem fact change so that the solver is only interrupted once
+ * and variable listeners are only triggered once.
+ */
+public class AddVehicles implements ProblemFactChange<VehicleRoutingSolution> {
+
+    private final List<PlanningVehicle> vehicles;
+
+    public AddVehicles(List<PlanningVehicle> vehicles) {
+        this.vehicles = new ArrayList<>(vehicles);
+    }
+
+    @Override
+    public void doChange(ScoreDirector<VehicleRoutingSolution> scoreDirector) {
+        List<PlanningVehicle> vehicleList = scoreDirector.getWorkingSolution().getVehicleList();
+        for (PlanningVehicle vehicle : vehicles) {
+            scoreDirector.beforeProblemFactAdded(vehicle);
+            vehicleList.add(vehicle);
+            scoreDirector.afterProblemFactAdded(vehicle);
+        }
+
+        scoreDirector.triggerVariableListeners();
+    }
+}
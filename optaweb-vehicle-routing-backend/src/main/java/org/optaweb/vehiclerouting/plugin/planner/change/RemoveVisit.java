@@ -26,9 +26,22 @@ import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 public class RemoveVisit implements ProblemFactChange<VehicleRoutingSolution> {
 
     private final PlanningVisit planningVisit;
+    private final Runnable visitRemovedCallback;
 
     public RemoveVisit(PlanningVisit planningVisit) {
+        this(planningVisit, () -> {
+        });
+    }
+
+    /**
+     * Remove a visit and notify the caller when the visit has been removed from the working solution.
+     *
+     * @param planningVisit visit to be removed
+     * @param visitRemovedCallback runs on the solver thread after the visit has been removed
+     */
+    public RemoveVisit(PlanningVisit planningVisit, Runnable visitRemovedCallback) {
         this.planningVisit = Objects.requireNonNull(planningVisit);
+        this.visitRemovedCallback = Objects.requireNonNull(visitRemovedCallback);
     }
 
     @Override
@@ -66,5 +79,7 @@ public class RemoveVisit implements ProblemFactChange<VehicleRoutingSolution> {
         scoreDirector.afterEntityRemoved(workingVisit);
 
         scoreDirector.triggerVariableListeners();
+
+        visitRemovedCallback.run();
     }
 }
@@ -20,14 +20,25 @@ import java.util.Objects;
 
 public class PlanningLocation {
 
+    /**
+     * Index of a location that has no {@link #getIndex() index}.
+     */
+    public static final int NO_INDEX = -1;
+
     private final long id;
+    private final int index;
     // Only used to calculate angle.
     private final double latitude;
     private final double longitude;
     private final DistanceMap travelDistanceMap;
 
     PlanningLocation(long id, double latitude, double longitude, DistanceMap travelDistanceMap) {
+        this(id, NO_INDEX, latitude, longitude, travelDistanceMap);
+    }
+
+    PlanningLocation(long id, int index, double latitude, double longitude, DistanceMap travelDistanceMap) {
         this.id = id;
+        this.index = index;
         this.latitude = latitude;
         this.longitude = longitude;
         this.travelDistanceMap = Objects.requireNonNull(travelDistanceMap);
@@ -42,6 +53,16 @@ public class PlanningLocation {
         return id;
     }
 
+    /**
+     * Index of the corresponding domain location in the distance matrix. Distance maps can use it to look up distances
+     * without boxing the location ID.
+     *
+     * @return distance matrix index or {@link #NO_INDEX} if unknown
+     */
+    public int getIndex() {
+        return index;
+    }
+
     /**
      * Distance to the given location.
      *
@@ -75,6 +96,7 @@ public class PlanningLocation {
                 ",longitude=" + longitude +
                 ",travelDistanceMap=" + travelDistanceMap +
                 ",id=" + id +
+                ",index=" + index +
                 '}';
     }
 }
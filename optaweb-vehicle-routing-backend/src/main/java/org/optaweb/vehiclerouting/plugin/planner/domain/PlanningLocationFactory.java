@@ -46,10 +46,23 @@ public class PlanningLocationFactory {
      * @return planning location
      */
     public static PlanningLocation fromDomain(Location location, DistanceMap distanceMap) {
+        return fromDomain(location, PlanningLocation.NO_INDEX, distanceMap);
+    }
+
+    /**
+     * Create planning location from a domain location, its distance matrix index and a distance map.
+     *
+     * @param location domain location
+     * @param index index of the location in the distance matrix
+     * @param distanceMap distance map of this planning location
+     * @return planning location
+     */
+    public static PlanningLocation fromDomain(Location location, int index, DistanceMap distanceMap) {
         return new PlanningLocation(
                 location.id(),
-                location.coordinates().latitude().doubleValue(),
-                location.coordinates().longitude().doubleValue(),
+                index,
+                location.coordinates().latitude(),
+                location.coordinates().longitude(),
                 distanceMap);
     }
 
@@ -16,7 +16,6 @@
 
 package org.optaweb.vehiclerouting.plugin.routing;
 
-import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -29,22 +28,79 @@ import org.optaweb.vehiclerouting.service.route.Router;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+/**
+ * Calculates travel times from great-circle distances at a constant speed.
+ * <p>
+ * The great-circle distance is derived from the chord length between the coordinates converted to unit vectors
+ * in Earth-centered Cartesian space. That is equivalent to the haversine formula. But when a whole matrix is
+ * calculated, trigonometric functions are only evaluated once per coordinate. Then each cell costs a few
+ * multiplications, a square root and an arcsine in a tight loop over primitive arrays.
+ */
 @Component
 @ConditionalOnProperty(prefix = "app.routing", name = "engine", havingValue = "air")
 public class AirDistanceRouter implements Router, DistanceCalculator, Region {
 
     protected static final int TRAVEL_SPEED_KPH = 60;
-    // Approximate Metric Equivalents for Degrees. At the equator for longitude and for latitude anywhere,
-    // the following approximations are valid: 1° = 111 km (or 60 nautical miles) 0.1° = 11.1 km.
-    protected static final double KILOMETERS_PER_DEGREE = 111;
+    // Mean Earth radius.
+    protected static final double EARTH_RADIUS_KILOMETERS = 6371.0088;
     protected static final long MILLIS_IN_ONE_HOUR = TimeUnit.MILLISECONDS.convert(1, TimeUnit.HOURS);
+    private static final double MILLIS_PER_KILOMETER = (double) MILLIS_IN_ONE_HOUR / TRAVEL_SPEED_KPH;
 
     @Override
     public long travelTimeMillis(Coordinates from, Coordinates to) {
-        BigDecimal latDiff = to.latitude().subtract(from.latitude());
-        BigDecimal lngDiff = to.longitude().subtract(from.longitude());
-        double distanceKilometers = Math.sqrt(latDiff.pow(2).add(lngDiff.pow(2)).doubleValue()) * KILOMETERS_PER_DEGREE;
-        return (long) Math.floor(distanceKilometers / TRAVEL_SPEED_KPH * MILLIS_IN_ONE_HOUR);
+        double fromLatitude = Math.toRadians(from.latitude());
+        double fromLongitude = Math.toRadians(from.longitude());
+        double toLatitude = Math.toRadians(to.latitude());
+        double toLongitude = Math.toRadians(to.longitude());
+        double fromCosLatitude = Math.cos(fromLatitude);
+        double toCosLatitude = Math.cos(toLatitude);
+        return travelTimeMillis(
+                toCosLatitude * Math.cos(toLongitude) - fromCosLatitude * Math.cos(fromLongitude),
+                toCosLatitude * Math.sin(toLongitude) - fromCosLatitude * Math.sin(fromLongitude),
+                Math.sin(toLatitude) - Math.sin(fromLatitude));
+    }
+
+    @Override
+    public long[][] travelTimeMillis(List<Coordinates> from, List<Coordinates> to) {
+        UnitVectors origins = new UnitVectors(from);
+        UnitVectors destinations = new UnitVectors(to);
+        long[][] travelTimes = new long[from.size()][to.size()];
+        for (int i = 0; i < from.size(); i++) {
+            calculateRow(origins, i, destinations, travelTimes[i]);
+        }
+        return travelTimes;
+    }
+
+    private static void calculateRow(UnitVectors origins, int originIndex, UnitVectors destinations, long[] row) {
+        double x = origins.x[originIndex];
+        double y = origins.y[originIndex];
+        double z = origins.z[originIndex];
+        double[] xs = destinations.x;
+        double[] ys = destinations.y;
+        double[] zs = destinations.z;
+        for (int j = 0; j < row.length; j++) {
+            row[j] = travelTimeMillis(xs[j] - x, ys[j] - y, zs[j] - z);
+        }
+    }
+
+    /**
+     * Travel time along the great circle given the chord between two unit vectors.
+     *
+     * @param dx chord's x component
+     * @param dy chord's y component
+     * @param dz chord's z component
+     * @return travel time in milliseconds
+     */
+    private static long travelTimeMillis(double dx, double dy, double dz) {
+        double halfChord = Math.sqrt(dx * dx + dy * dy + dz * dz) / 2;
+        // Rounding errors can push the chord of antipodal points slightly above the diameter.
+        double centralAngle = 2 * Math.asin(Math.min(halfChord, 1));
+        return (long) Math.floor(centralAngle * EARTH_RADIUS_KILOMETERS * MILLIS_PER_KILOMETER);
+    }
+
+    @Override
+    public String profile() {
+        return "air:great-circle:" + TRAVEL_SPEED_KPH + "kph";
     }
 
     @Override
@@ -56,4 +112,30 @@ public class AirDistanceRouter implements Router, DistanceCalculator, Region {
     public BoundingBox getBounds() {
         return new BoundingBox(Coordinates.valueOf(-90, -180), Coordinates.valueOf(90, 180));
     }
+
+    /**
+     * Coordinates converted to unit vectors and stored in a structure of arrays.
+     */
+    private static class UnitVectors {
+
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+
+        private UnitVectors(List<Coordinates> coordinatesList) {
+            int size = coordinatesList.size();
+            x = new double[size];
+            y = new double[size];
+            z = new double[size];
+            for (int i = 0; i < size; i++) {
+                Coordinates coordinates = coordinatesList.get(i);
+                double latitude = Math.toRadians(coordinates.latitude());
+                double longitude = Math.toRadians(coordinates.longitude());
+                double cosLatitude = Math.cos(latitude);
+                x[i] = cosLatitude * Math.cos(longitude);
+                y[i] = cosLatitude * Math.sin(longitude);
+                z[i] = Math.sin(latitude);
+            }
+        }
+    }
 }
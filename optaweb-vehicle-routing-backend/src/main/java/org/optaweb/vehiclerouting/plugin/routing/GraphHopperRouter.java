@@ -18,6 +18,7 @@ package org.optaweb.vehiclerouting.plugin.routing;
 
 import static java.util.stream.Collectors.toList;
 
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.stream.StreamSupport;
 
@@ -34,31 +35,63 @@ import org.springframework.stereotype.Component;
 import com.graphhopper.GHRequest;
 import com.graphhopper.GHResponse;
 import com.graphhopper.reader.osm.GraphHopperOSM;
+import com.graphhopper.util.Parameters;
 import com.graphhopper.util.PointList;
 import com.graphhopper.util.shapes.BBox;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * Provides geographical information needed for route optimization.
+ * <p>
+ * The latency of GraphHopper queries is recorded in the {@value #LATENCY_METRIC} timer, tagged by query type.
  */
 @Component
 @ConditionalOnProperty(prefix = "app.routing", name = "engine", havingValue = "graphhopper", matchIfMissing = true)
 class GraphHopperRouter implements Router, DistanceCalculator, Region {
 
+    static final String LATENCY_METRIC = "optaweb.routing.latency";
+
     private final GraphHopperOSM graphHopper;
+    private final ManyToManyTravelTimes manyToManyTravelTimes;
+    private final double trackTolerance;
+    private final Timer pathTimer;
+    private final Timer travelTimeTimer;
+    private final Timer travelTimeMatrixTimer;
 
     @Autowired
-    GraphHopperRouter(GraphHopperOSM graphHopper) {
+    GraphHopperRouter(GraphHopperOSM graphHopper, RoutingProperties routingProperties, MeterRegistry meterRegistry) {
+        this(graphHopper, routingProperties.getTrackTolerance(), meterRegistry);
+    }
+
+    GraphHopperRouter(GraphHopperOSM graphHopper, double trackTolerance, MeterRegistry meterRegistry) {
         this.graphHopper = graphHopper;
+        this.manyToManyTravelTimes = new ManyToManyTravelTimes(graphHopper, this::travelTimeMillis);
+        this.trackTolerance = trackTolerance;
+        this.pathTimer = latencyTimer("path", meterRegistry);
+        this.travelTimeTimer = latencyTimer("travel-time", meterRegistry);
+        this.travelTimeMatrixTimer = latencyTimer("travel-time-matrix", meterRegistry);
+    }
+
+    private static Timer latencyTimer(String query, MeterRegistry meterRegistry) {
+        return Timer.builder(LATENCY_METRIC)
+                .description("Latency of GraphHopper queries")
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
     public List<Coordinates> getPath(Coordinates from, Coordinates to) {
         GHRequest ghRequest = new GHRequest(
-                from.latitude().doubleValue(),
-                from.longitude().doubleValue(),
-                to.latitude().doubleValue(),
-                to.longitude().doubleValue());
-        PointList points = graphHopper.route(ghRequest).getBest().getPoints();
+                from.latitude(),
+                from.longitude(),
+                to.latitude(),
+                to.longitude());
+        // GraphHopper simplifies the path using the Douglas-Peucker algorithm.
+        ghRequest.getHints().put(Parameters.Routing.WAY_POINT_MAX_DISTANCE, trackTolerance);
+        PointList points = pathTimer.record(() -> graphHopper.route(ghRequest)).getBest().getPoints();
         return StreamSupport.stream(points.spliterator(), false)
                 .map(ghPoint3D -> Coordinates.valueOf(ghPoint3D.lat, ghPoint3D.lon))
                 .collect(toList());
@@ -67,11 +100,11 @@ class GraphHopperRouter implements Router, DistanceCalculator, Region {
     @Override
     public long travelTimeMillis(Coordinates from, Coordinates to) {
         GHRequest ghRequest = new GHRequest(
-                from.latitude().doubleValue(),
-                from.longitude().doubleValue(),
-                to.latitude().doubleValue(),
-                to.longitude().doubleValue());
-        GHResponse ghResponse = graphHopper.route(ghRequest);
+                from.latitude(),
+                from.longitude(),
+                to.latitude(),
+                to.longitude());
+        GHResponse ghResponse = travelTimeTimer.record(() -> graphHopper.route(ghRequest));
         // TODO return wrapper that can hold both the result and error explanation instead of throwing exception
         if (ghResponse.hasErrors()) {
             throw new DistanceCalculationException("No route from " + from + " to " + to, ghResponse.getErrors().get(0));
@@ -79,6 +112,25 @@ class GraphHopperRouter implements Router, DistanceCalculator, Region {
         return ghResponse.getBest().getTime();
     }
 
+    @Override
+    public long[][] travelTimeMillis(List<Coordinates> from, List<Coordinates> to) {
+        if (!manyToManyTravelTimes.isAvailable()) {
+            // Without contraction hierarchies, fall back to point-to-point queries.
+            return DistanceCalculator.super.travelTimeMillis(from, to);
+        }
+        return travelTimeMatrixTimer.record(() -> manyToManyTravelTimes.travelTimeMillis(from, to));
+    }
+
+    @Override
+    public String profile() {
+        // Both point-to-point and many-to-many queries use the default (fastest) weighting. Travel times also depend
+        // on the road network, which is identified by the graph directory (named after the OSM file) and the time
+        // when the OSM file was imported into the graph.
+        String graph = Paths.get(graphHopper.getGraphHopperLocation()).getFileName().toString();
+        String importDate = graphHopper.getGraphHopperStorage().getProperties().get("datareader.import.date");
+        return "graphhopper:fastest|" + graphHopper.getEncodingManager() + "|" + graph + "@" + importDate;
+    }
+
     @Override
     public BoundingBox getBounds() {
         BBox bounds = graphHopper.getGraphHopperStorage().getBounds();
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculationException;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes only between coordinates that are close to each other and estimates travel times between coordinates that
+ * are far apart.
+ * <p>
+ * A pair of coordinates is close if its air distance is within the {@link RoutingProperties#getHybridRadius() hybrid
+ * radius}. Those are the pairs the solver compares when it decides the order of visits, so they are routed on the road
+ * network. A travel time between far-apart coordinates is the air distance travel time multiplied by the
+ * {@link RoutingProperties#getHybridDetourFactor() detour factor}. The factor is fixed and part of the
+ * {@link #profile() profile}, so an estimate never changes and can be cached and persisted like a routed travel time.
+ * <p>
+ * In a batch, the close pairs are routed by a single many-to-many query between all origins and all destinations that
+ * are part of at least one close pair.
+ * <p>
+ * Estimated travel times are never checked against the road network. A far-apart location that is unreachable by road
+ * still gets a finite travel time.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "app.routing", name = "hybrid-radius")
+class HybridDistanceCalculator implements DistanceCalculator {
+
+    private static final Logger logger = LoggerFactory.getLogger(HybridDistanceCalculator.class);
+
+    private final DistanceCalculator roadDistanceCalculator;
+    private final AirDistanceRouter airDistanceRouter = new AirDistanceRouter();
+    private final double radiusKilometers;
+    private final double detourFactor;
+    // Air distance travel time of a pair that is exactly the radius apart.
+    private final long radiusMillis;
+
+    @Autowired
+    HybridDistanceCalculator(
+            ObjectProvider<GraphHopperRouter> graphHopperRouterProvider,
+            RoutingProperties routingProperties) {
+        this(
+                road(graphHopperRouterProvider, routingProperties),
+                routingProperties.getHybridRadius(),
+                routingProperties.getHybridDetourFactor());
+    }
+
+    HybridDistanceCalculator(DistanceCalculator roadDistanceCalculator, double radiusKilometers, double detourFactor) {
+        this.roadDistanceCalculator = roadDistanceCalculator;
+        this.radiusKilometers = radiusKilometers;
+        this.detourFactor = detourFactor;
+        this.radiusMillis = (long) Math.floor(
+                radiusKilometers / AirDistanceRouter.TRAVEL_SPEED_KPH * AirDistanceRouter.MILLIS_IN_ONE_HOUR);
+    }
+
+    private static DistanceCalculator road(
+            ObjectProvider<GraphHopperRouter> graphHopperRouterProvider,
+            RoutingProperties routingProperties) {
+        GraphHopperRouter graphHopperRouter = graphHopperRouterProvider.getIfAvailable();
+        if (graphHopperRouter == null) {
+            throw new IllegalStateException("The hybrid radius (app.routing.hybrid-radius) is only supported by the "
+                    + "graphhopper routing engine but the engine is " + routingProperties.getEngine()
+                    + ". Either remove app.routing.hybrid-radius or set app.routing.engine=graphhopper.");
+        }
+        return graphHopperRouter;
+    }
+
+    @Override
+    public long travelTimeMillis(Coordinates from, Coordinates to) {
+        long airMillis = airDistanceRouter.travelTimeMillis(from, to);
+        if (airMillis > radiusMillis) {
+            return estimate(airMillis);
+        }
+        return roadDistanceCalculator.travelTimeMillis(from, to);
+    }
+
+    @Override
+    public long[][] travelTimeMillis(List<Coordinates> from, List<Coordinates> to) {
+        long[][] airMillis = airDistanceRouter.travelTimeMillis(from, to);
+        long[][] travelTimes = new long[from.size()][to.size()];
+        boolean[] closeTo = new boolean[to.size()];
+        List<Integer> closeFromIndexes = new ArrayList<>();
+        for (int i = 0; i < from.size(); i++) {
+            boolean closeFrom = false;
+            for (int j = 0; j < to.size(); j++) {
+                if (airMillis[i][j] > radiusMillis) {
+                    travelTimes[i][j] = estimate(airMillis[i][j]);
+                } else {
+                    closeFrom = true;
+                    closeTo[j] = true;
+                }
+            }
+            if (closeFrom) {
+                closeFromIndexes.add(i);
+            }
+        }
+        List<Integer> closeToIndexes = new ArrayList<>();
+        for (int j = 0; j < to.size(); j++) {
+            if (closeTo[j]) {
+                closeToIndexes.add(j);
+            }
+        }
+        if (!closeFromIndexes.isEmpty()) {
+            route(from, to, closeFromIndexes, closeToIndexes, airMillis, travelTimes);
+        }
+        return travelTimes;
+    }
+
+    private void route(
+            List<Coordinates> from,
+            List<Coordinates> to,
+            List<Integer> closeFromIndexes,
+            List<Integer> closeToIndexes,
+            long[][] airMillis,
+            long[][] travelTimes) {
+        List<Coordinates> closeFrom = new ArrayList<>(closeFromIndexes.size());
+        closeFromIndexes.forEach(i -> closeFrom.add(from.get(i)));
+        List<Coordinates> closeTo = new ArrayList<>(closeToIndexes.size());
+        closeToIndexes.forEach(j -> closeTo.add(to.get(j)));
+        long[][] roadMillis;
+        try {
+            roadMillis = roadDistanceCalculator.travelTimeMillis(closeFrom, closeTo);
+        } catch (DistanceCalculationException e) {
+            // The query also covers far-apart pairs between close origins and destinations. One of them may be
+            // unreachable by road, which doesn't matter because it's estimated. Route the close pairs one by one.
+            logger.debug("Falling back to routing close pairs one by one: {}", e.toString());
+            roadMillis = null;
+        }
+        for (int k = 0; k < closeFromIndexes.size(); k++) {
+            int i = closeFromIndexes.get(k);
+            for (int l = 0; l < closeToIndexes.size(); l++) {
+                int j = closeToIndexes.get(l);
+                if (airMillis[i][j] <= radiusMillis) {
+                    travelTimes[i][j] = roadMillis != null
+                            ? roadMillis[k][l]
+                            : roadDistanceCalculator.travelTimeMillis(from.get(i), to.get(j));
+                }
+            }
+        }
+    }
+
+    private long estimate(long airMillis) {
+        return Math.round(airMillis * detourFactor);
+    }
+
+    @Override
+    public String profile() {
+        // Estimates depend on the radius and the detour factor, so they must not be mixed with travel times calculated
+        // with other settings.
+        return "hybrid:" + radiusKilometers + "km*" + detourFactor + "|" + roadDistanceCalculator.profile();
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToLongBiFunction;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculationException;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.coll.GHIntHashSet;
+import com.graphhopper.coll.GHIntObjectHashMap;
+import com.graphhopper.coll.GHLongLongHashMap;
+import com.graphhopper.routing.QueryGraph;
+import com.graphhopper.routing.ch.PreparationWeighting;
+import com.graphhopper.routing.ch.PrepareContractionHierarchies;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.util.LevelEdgeFilter;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.index.QueryResult;
+import com.graphhopper.util.CHEdgeIteratorState;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+
+/**
+ * Calculates travel times between many origins and many destinations using GraphHopper's contraction hierarchy.
+ * <p>
+ * This is the bucket-based many-to-many algorithm. An upward backward search is run once from each destination and
+ * every node it settles gets a bucket entry with the weight to that destination. Then an upward forward search is run
+ * once from each origin and the weight to each destination is the minimum of (weight from the origin to a node) +
+ * (weight from the node to the destination) over all nodes settled by the forward search. Each coordinate is snapped
+ * to the road network only once. So instead of |origins| × |destinations| point-to-point queries, the matrix costs
+ * |origins| + |destinations| one-directional searches.
+ * <p>
+ * Travel times are sums of edge travel times along the shortest path, so they are equal to travel times of
+ * point-to-point queries, which follow the same path.
+ */
+class ManyToManyTravelTimes {
+
+    private final GraphHopper graphHopper;
+    private final ToLongBiFunction<Coordinates, Coordinates> pointToPoint;
+
+    /**
+     * Create the calculator.
+     *
+     * @param graphHopper GraphHopper with contraction hierarchy
+     * @param pointToPoint point-to-point travel time query used for pairs of points on the same edge
+     */
+    ManyToManyTravelTimes(GraphHopper graphHopper, ToLongBiFunction<Coordinates, Coordinates> pointToPoint) {
+        this.graphHopper = graphHopper;
+        this.pointToPoint = pointToPoint;
+    }
+
+    /**
+     * Whether the contraction hierarchy, that this calculator depends on, is available.
+     *
+     * @return true if the matrix can be calculated
+     */
+    boolean isAvailable() {
+        return graphHopper.getCHFactoryDecorator().isEnabled()
+                && !graphHopper.getCHFactoryDecorator().getPreparations().isEmpty();
+    }
+
+    /**
+     * Calculate travel times from each origin to each destination.
+     *
+     * @param from origins
+     * @param to destinations
+     * @return travel times in milliseconds where {@code [i][j]} is the travel time from {@code from[i]}
+     * to {@code to[j]}
+     * @throws DistanceCalculationException if any of the coordinates cannot be snapped to the road network or if there
+     * is no route between any of the origins and destinations
+     */
+    long[][] travelTimeMillis(List<Coordinates> from, List<Coordinates> to) {
+        PrepareContractionHierarchies preparation = graphHopper.getCHFactoryDecorator().getPreparations().get(0);
+        Weighting weighting = preparation.getWeighting();
+        FlagEncoder encoder = weighting.getFlagEncoder();
+        CHGraph chGraph = graphHopper.getGraphHopperStorage().getGraph(CHGraph.class, weighting);
+
+        List<QueryResult> origins = snap(from, encoder);
+        List<QueryResult> destinations = snap(to, encoder);
+        int[] destinationEdges = destinations.stream().mapToInt(ManyToManyTravelTimes::closestEdge).toArray();
+        UpwardSearch search = new UpwardSearch(weighting, chGraph);
+        int towerNodes = chGraph.getNodes();
+
+        // Backward searches from destinations fill the buckets.
+        GHIntObjectHashMap<List<BucketEntry>> buckets = new GHIntObjectHashMap<>();
+        for (int j = 0; j < destinations.size(); j++) {
+            SearchSpace searchSpace = search.run(destinations.get(j), true);
+            for (int k = 0; k < searchSpace.size; k++) {
+                int node = searchSpace.nodes[k];
+                if (node >= towerNodes) {
+                    // Virtual nodes are private to each search so searches can only meet at tower nodes.
+                    continue;
+                }
+                List<BucketEntry> bucket = buckets.get(node);
+                if (bucket == null) {
+                    bucket = new ArrayList<>();
+                    buckets.put(node, bucket);
+                }
+                bucket.add(new BucketEntry(j, searchSpace.weights[k], searchSpace.millis[k]));
+            }
+        }
+
+        // Forward searches from origins meet the backward searches in the buckets.
+        long[][] travelTimes = new long[from.size()][to.size()];
+        double[] bestWeights = new double[to.size()];
+        for (int i = 0; i < origins.size(); i++) {
+            Arrays.fill(bestWeights, Double.POSITIVE_INFINITY);
+            long[] bestMillis = travelTimes[i];
+            int originEdge = closestEdge(origins.get(i));
+            SearchSpace searchSpace = search.run(origins.get(i), false);
+            for (int k = 0; k < searchSpace.size; k++) {
+                List<BucketEntry> bucket = searchSpace.nodes[k] < towerNodes ? buckets.get(searchSpace.nodes[k]) : null;
+                if (bucket == null) {
+                    continue;
+                }
+                for (BucketEntry entry : bucket) {
+                    double weight = searchSpace.weights[k] + entry.weight;
+                    if (weight < bestWeights[entry.destinationIndex]) {
+                        bestWeights[entry.destinationIndex] = weight;
+                        bestMillis[entry.destinationIndex] = searchSpace.millis[k] + entry.millis;
+                    }
+                }
+            }
+            for (int j = 0; j < to.size(); j++) {
+                if (originEdge == destinationEdges[j]) {
+                    // The shortest path may go directly along the common edge without visiting any tower node.
+                    bestMillis[j] = pointToPoint.applyAsLong(from.get(i), to.get(j));
+                } else if (Double.isInfinite(bestWeights[j])) {
+                    throw new DistanceCalculationException("No route from " + from.get(i) + " to " + to.get(j));
+                }
+            }
+        }
+        return travelTimes;
+    }
+
+    private static int closestEdge(QueryResult queryResult) {
+        return queryResult.getClosestEdge().getEdge();
+    }
+
+    private List<QueryResult> snap(List<Coordinates> coordinatesList, FlagEncoder encoder) {
+        List<QueryResult> queryResults = new ArrayList<>(coordinatesList.size());
+        for (Coordinates coordinates : coordinatesList) {
+            QueryResult queryResult = graphHopper.getLocationIndex().findClosest(
+                    coordinates.latitude(),
+                    coordinates.longitude(),
+                    DefaultEdgeFilter.allEdges(encoder));
+            if (!queryResult.isValid()) {
+                throw new DistanceCalculationException("Cannot find a road near " + coordinates);
+            }
+            queryResults.add(queryResult);
+        }
+        return queryResults;
+    }
+
+    private static class BucketEntry {
+
+        private final int destinationIndex;
+        private final double weight;
+        private final long millis;
+
+        private BucketEntry(int destinationIndex, double weight, long millis) {
+            this.destinationIndex = destinationIndex;
+            this.weight = weight;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * Nodes settled by a search with their weights and travel times from (or to) the search's start node.
+     */
+    private static class SearchSpace {
+
+        private int size;
+        private int[] nodes = new int[64];
+        private double[] weights = new double[64];
+        private long[] millis = new long[64];
+
+        private void add(int node, double weight, long travelMillis) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                millis = Arrays.copyOf(millis, size * 2);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            millis[size] = travelMillis;
+            size++;
+        }
+    }
+
+    /**
+     * Dijkstra search that only goes up the contraction hierarchy and explores the whole upward search space.
+     * <p>
+     * The search is guided by the CH weight but it also sums the travel times of the edges it follows, exactly like
+     * GraphHopper does when it calculates the time of a point-to-point path. Shortcuts don't store travel time, so it
+     * is calculated by unpacking the shortcut into original edges. Shortcut travel times are memoized because
+     * the same shortcuts are followed by many searches.
+     */
+    private static class UpwardSearch {
+
+        private final Weighting userWeighting;
+        private final Weighting chWeighting;
+        private final FlagEncoder encoder;
+        private final CHGraph chGraph;
+        private final LevelEdgeFilter levelEdgeFilter;
+        // Key is shortcut edge ID (upper 32 bits) and the node at which it is entered (lower 32 bits).
+        private final GHLongLongHashMap shortcutMillis = new GHLongLongHashMap();
+
+        private UpwardSearch(Weighting userWeighting, CHGraph chGraph) {
+            this.userWeighting = userWeighting;
+            this.chWeighting = new PreparationWeighting(userWeighting);
+            this.encoder = userWeighting.getFlagEncoder();
+            this.chGraph = chGraph;
+            this.levelEdgeFilter = new LevelEdgeFilter(chGraph);
+        }
+
+        /**
+         * Run the search. Each search has its own query graph with a virtual node for the start point only.
+         * A query graph shared by all searches would split edges at other points, which would change travel times
+         * because travel times of edges are truncated to milliseconds.
+         *
+         * @param start snapped point to start from
+         * @param reverse true for a backward search
+         * @return all settled nodes
+         */
+        private SearchSpace run(QueryResult start, boolean reverse) {
+            QueryGraph queryGraph = new QueryGraph(chGraph);
+            // Adds a virtual node for the snapped point and updates the query result's closest node.
+            queryGraph.lookup(Collections.singletonList(start));
+            EdgeExplorer explorer = queryGraph.createEdgeExplorer(
+                    reverse ? DefaultEdgeFilter.inEdges(encoder) : DefaultEdgeFilter.outEdges(encoder));
+            int startNode = start.getClosestNode();
+            SearchSpace searchSpace = new SearchSpace();
+            GHIntHashSet settled = new GHIntHashSet();
+            GHIntObjectHashMap<Entry> tentative = new GHIntObjectHashMap<>();
+            PriorityQueue<Entry> queue = new PriorityQueue<>();
+            Entry startEntry = new Entry(startNode, EdgeIterator.NO_EDGE, 0.0, 0);
+            tentative.put(startNode, startEntry);
+            queue.add(startEntry);
+            while (!queue.isEmpty()) {
+                Entry current = queue.poll();
+                if (!settled.add(current.node)) {
+                    continue;
+                }
+                searchSpace.add(current.node, current.weight, current.millis);
+                EdgeIterator iterator = explorer.setBaseNode(current.node);
+                while (iterator.next()) {
+                    if (iterator.getEdge() == current.edge || !levelEdgeFilter.accept(iterator)) {
+                        continue;
+                    }
+                    int adjNode = iterator.getAdjNode();
+                    if (settled.contains(adjNode)) {
+                        continue;
+                    }
+                    double weight = current.weight + chWeighting.calcWeight(iterator, reverse, current.edge);
+                    if (Double.isInfinite(weight)) {
+                        continue;
+                    }
+                    Entry tentativeEntry = tentative.get(adjNode);
+                    if (tentativeEntry == null || weight < tentativeEntry.weight) {
+                        long millis = current.millis + travelMillis(iterator, reverse, current.edge);
+                        Entry entry = new Entry(adjNode, iterator.getEdge(), weight, millis);
+                        tentative.put(adjNode, entry);
+                        queue.add(entry);
+                    }
+                }
+            }
+            return searchSpace;
+        }
+
+        private long travelMillis(EdgeIterator iterator, boolean reverse, int prevEdge) {
+            if (iterator instanceof CHEdgeIteratorState && ((CHEdgeIteratorState) iterator).isShortcut()) {
+                // A backward search follows the edge from its adjacent node to its base node.
+                return reverse
+                        ? shortcutMillis(iterator.getEdge(), iterator.getAdjNode(), iterator.getBaseNode())
+                        : shortcutMillis(iterator.getEdge(), iterator.getBaseNode(), iterator.getAdjNode());
+            }
+            return userWeighting.calcMillis(iterator, reverse, prevEdge);
+        }
+
+        private long edgeMillis(int edge, int fromNode, int toNode) {
+            if (chGraph.isShortcut(edge)) {
+                return shortcutMillis(edge, fromNode, toNode);
+            }
+            return userWeighting.calcMillis(chGraph.getEdgeIteratorState(edge, toNode), false, EdgeIterator.NO_EDGE);
+        }
+
+        private long shortcutMillis(int shortcut, int fromNode, int toNode) {
+            long key = ((long) shortcut << 32) | (fromNode & 0xFFFFFFFFL);
+            long memoized = shortcutMillis.getOrDefault(key, -1);
+            if (memoized >= 0) {
+                return memoized;
+            }
+            // A shortcut skips two edges that meet in a middle node. The one that ends in toNode is the second one.
+            CHEdgeIteratorState shortcutState = chGraph.getEdgeIteratorState(shortcut, toNode);
+            int firstEdge = shortcutState.getSkippedEdge2();
+            CHEdgeIteratorState secondEdge = chGraph.getEdgeIteratorState(shortcutState.getSkippedEdge1(), toNode);
+            if (secondEdge == null) {
+                firstEdge = shortcutState.getSkippedEdge1();
+                secondEdge = chGraph.getEdgeIteratorState(shortcutState.getSkippedEdge2(), toNode);
+            }
+            int middleNode = secondEdge.getBaseNode();
+            long millis = edgeMillis(firstEdge, fromNode, middleNode)
+                    + edgeMillis(secondEdge.getEdge(), middleNode, toNode);
+            shortcutMillis.put(key, millis);
+            return millis;
+        }
+    }
+
+    private static class Entry implements Comparable<Entry> {
+
+        private final int node;
+        private final int edge;
+        private final double weight;
+        private final long millis;
+
+        private Entry(int node, int edge, double weight, long millis) {
+            this.node = node;
+            this.edge = edge;
+            this.weight = weight;
+            this.millis = millis;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Double.compare(weight, other.weight);
+        }
+    }
+}
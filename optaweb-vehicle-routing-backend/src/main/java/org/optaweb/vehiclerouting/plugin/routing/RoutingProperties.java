@@ -16,7 +16,9 @@
 
 package org.optaweb.vehiclerouting.plugin.routing;
 
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -37,6 +39,26 @@ class RoutingProperties {
      */
     private String ghDir = "local/graphhopper";
 
+    /**
+     * Maximum distance (in meters) between a track simplified by the Douglas-Peucker algorithm and the original path.
+     * Zero disables the simplification.
+     */
+    private double trackTolerance = 5;
+
+    /**
+     * Air distance (in kilometers) up to which travel times are routed on the road network. Travel times between
+     * locations that are farther apart are estimated. When not set, all travel times are routed.
+     */
+    @Positive
+    private Double hybridRadius;
+
+    /**
+     * Ratio of the road travel time to the air distance travel time used to estimate travel times between locations
+     * that are farther apart than the hybrid radius.
+     */
+    @DecimalMin("1.0")
+    private double hybridDetourFactor = 1.4;
+
     /**
      * OpenStreetMap file name.
      */
@@ -69,6 +91,30 @@ class RoutingProperties {
         this.ghDir = ghDir;
     }
 
+    public double getTrackTolerance() {
+        return trackTolerance;
+    }
+
+    public void setTrackTolerance(double trackTolerance) {
+        this.trackTolerance = trackTolerance;
+    }
+
+    public Double getHybridRadius() {
+        return hybridRadius;
+    }
+
+    public void setHybridRadius(Double hybridRadius) {
+        this.hybridRadius = hybridRadius;
+    }
+
+    public double getHybridDetourFactor() {
+        return hybridDetourFactor;
+    }
+
+    public void setHybridDetourFactor(double hybridDetourFactor) {
+        this.hybridDetourFactor = hybridDetourFactor;
+    }
+
     public String getOsmFile() {
         return osmFile;
     }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.websocket;
+
+import java.util.List;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+
+/**
+ * Encodes tracks using the
+ * <a href="https://developers.google.com/maps/documentation/utilities/polylinealgorithm">Encoded Polyline
+ * Algorithm</a>.
+ * <p>
+ * Coordinates are rounded to 5 decimal places (the same precision as {@link PortableCoordinates}) and each point is
+ * stored as a difference from the previous point. Small differences take only a few characters, so a track encoded
+ * this way is many times smaller than a JSON array of coordinate objects.
+ */
+class PolylineEncoder {
+
+    private static final double SCALE = 1e5;
+
+    private PolylineEncoder() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Encode a path.
+     *
+     * @param path path
+     * @return encoded polyline
+     */
+    static String encode(List<Coordinates> path) {
+        StringBuilder encoded = new StringBuilder(path.size() * 8);
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        for (Coordinates coordinates : path) {
+            long latitude = Math.round(coordinates.latitude() * SCALE);
+            long longitude = Math.round(coordinates.longitude() * SCALE);
+            encodeValue(latitude - previousLatitude, encoded);
+            encodeValue(longitude - previousLongitude, encoded);
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        return encoded.toString();
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        // Shift left and invert negative values so that the sign ends up in the lowest bit.
+        long remaining = value < 0 ? ~(value << 1) : value << 1;
+        // 5-bit chunks, starting with the lowest. 0x20 marks that another chunk follows.
+        while (remaining >= 0x20) {
+            encoded.append((char) ((0x20 | (remaining & 0x1f)) + 63));
+            remaining >>= 5;
+        }
+        encoded.append((char) (remaining + 63));
+    }
+}
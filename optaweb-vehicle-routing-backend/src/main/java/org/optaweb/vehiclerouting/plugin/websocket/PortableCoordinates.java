@@ -43,8 +43,8 @@ class PortableCoordinates {
     static PortableCoordinates fromCoordinates(Coordinates coordinates) {
         Objects.requireNonNull(coordinates, "coordinates must not be null");
         return new PortableCoordinates(
-                coordinates.latitude(),
-                coordinates.longitude());
+                BigDecimal.valueOf(coordinates.latitude()),
+                BigDecimal.valueOf(coordinates.longitude()));
     }
 
     private static BigDecimal scale(BigDecimal number) {
@@ -42,8 +42,8 @@ class PortableLocation {
         Objects.requireNonNull(location, "location must not be null");
         return new PortableLocation(
                 location.id(),
-                location.coordinates().latitude(),
-                location.coordinates().longitude(),
+                BigDecimal.valueOf(location.coordinates().latitude()),
+                BigDecimal.valueOf(location.coordinates().longitude()),
                 location.description());
     }
 
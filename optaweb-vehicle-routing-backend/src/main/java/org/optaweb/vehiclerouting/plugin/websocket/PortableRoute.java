@@ -21,8 +21,6 @@ import java.util.Objects;
 
 import org.optaweb.vehiclerouting.domain.Route;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-
 /**
  * Vehicle {@link Route route} representation convenient for marshalling.
  */
@@ -31,14 +29,13 @@ class PortableRoute {
     private final PortableVehicle vehicle;
     private final PortableLocation depot;
     private final List<PortableLocation> visits;
-    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
-    private final List<List<PortableCoordinates>> track;
+    private final List<String> track;
 
     PortableRoute(
             PortableVehicle vehicle,
             PortableLocation depot,
             List<PortableLocation> visits,
-            List<List<PortableCoordinates>> track) {
+            List<String> track) {
         this.vehicle = Objects.requireNonNull(vehicle);
         this.depot = Objects.requireNonNull(depot);
         this.visits = Objects.requireNonNull(visits);
@@ -57,7 +54,12 @@ class PortableRoute {
         return visits;
     }
 
-    public List<List<PortableCoordinates>> getTrack() {
+    /**
+     * Vehicle's track. One segment per leg, each segment is encoded by {@link PolylineEncoder}.
+     *
+     * @return encoded track segments
+     */
+    public List<String> getTrack() {
         return track;
     }
 }
@@ -22,9 +22,15 @@ import org.optaweb.vehiclerouting.domain.RoutingPlan;
 
 /**
  * {@link RoutingPlan} representation convenient for marshalling.
+ * <p>
+ * A plan is either full or a diff. A full plan contains the routes of all vehicles. A diff only contains routes that
+ * have changed since the plan with the previous sequence number. Routes of vehicles that are not in the diff's
+ * vehicles are gone. All other fields are always complete.
  */
 class PortableRoutingPlan {
 
+    private final long sequence;
+    private final boolean full;
     private final PortableDistance distance;
     private final List<PortableVehicle> vehicles;
     private final PortableLocation depot;
@@ -32,12 +38,16 @@ class PortableRoutingPlan {
     private final List<PortableRoute> routes;
 
     PortableRoutingPlan(
+            long sequence,
+            boolean full,
             PortableDistance distance,
             List<PortableVehicle> vehicles,
             PortableLocation depot,
             List<PortableLocation> visits,
             List<PortableRoute> routes) {
         // TODO require non-null
+        this.sequence = sequence;
+        this.full = full;
         this.distance = distance;
         this.vehicles = vehicles;
         this.depot = depot;
@@ -45,6 +55,14 @@ class PortableRoutingPlan {
         this.routes = routes;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
     public PortableDistance getDistance() {
         return distance;
     }
@@ -17,9 +17,11 @@
 package org.optaweb.vehiclerouting.plugin.websocket;
 
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Location;
@@ -35,7 +37,14 @@ class PortableRoutingPlanFactory {
         throw new AssertionError("Utility class");
     }
 
-    static PortableRoutingPlan fromRoutingPlan(RoutingPlan routingPlan) {
+    /**
+     * Create a full plan.
+     *
+     * @param routingPlan routing plan
+     * @param sequence sequence number of the plan
+     * @return full portable plan
+     */
+    static PortableRoutingPlan fromRoutingPlan(RoutingPlan routingPlan, long sequence) {
         PortableDistance distance = PortableDistance.fromDistance(routingPlan.distance());
         List<PortableVehicle> vehicles = portableVehicles(routingPlan.vehicles());
         PortableLocation depot = routingPlan.depot().map(PortableLocation::fromLocation).orElse(null);
@@ -47,18 +56,49 @@ class PortableRoutingPlanFactory {
                         portableVisits(routeWithTrack.visits()),
                         portableTrack(routeWithTrack.track())))
                 .collect(toList());
-        return new PortableRoutingPlan(distance, vehicles, depot, visits, routes);
+        return new PortableRoutingPlan(sequence, true, distance, vehicles, depot, visits, routes);
     }
 
-    private static List<List<PortableCoordinates>> portableTrack(List<List<Coordinates>> track) {
-        ArrayList<List<PortableCoordinates>> portableTrack = new ArrayList<>();
-        for (List<Coordinates> segment : track) {
-            List<PortableCoordinates> portableSegment = segment.stream()
-                    .map(PortableCoordinates::fromCoordinates)
-                    .collect(toList());
-            portableTrack.add(portableSegment);
+    /**
+     * Create a diff that turns the previous plan into the current one. The diff only contains routes that aren't
+     * in the previous plan. When the depot has changed, all routes are different, so the current (full) plan is
+     * returned.
+     *
+     * @param previous previous full plan
+     * @param current current full plan
+     * @return diff with the current plan's sequence number or the current plan
+     */
+    static PortableRoutingPlan diff(PortableRoutingPlan previous, PortableRoutingPlan current) {
+        if (!Objects.equals(previous.getDepot(), current.getDepot())) {
+            return current;
         }
-        return portableTrack;
+        Map<Long, PortableRoute> previousRoutes = previous.getRoutes().stream()
+                .collect(toMap(route -> route.getVehicle().getId(), route -> route));
+        List<PortableRoute> changedRoutes = current.getRoutes().stream()
+                .filter(route -> !sameRoute(previousRoutes.get(route.getVehicle().getId()), route))
+                .collect(toList());
+        return new PortableRoutingPlan(
+                current.getSequence(),
+                false,
+                current.getDistance(),
+                current.getVehicles(),
+                current.getDepot(),
+                current.getVisits(),
+                changedRoutes);
+    }
+
+    private static boolean sameRoute(PortableRoute previous, PortableRoute current) {
+        // Locations never move, so the track only changes when the depot or visits change.
+        return previous != null
+                && previous.getVehicle().equals(current.getVehicle())
+                && previous.getDepot().equals(current.getDepot())
+                && previous.getVisits().equals(current.getVisits());
+    }
+
+    private static List<String> portableTrack(List<List<Coordinates>> track) {
+        return track.stream()
+                .map(PolylineEncoder::encode)
+                .collect(toList());
     }
 
     private static List<PortableLocation> portableVisits(List<Location> visits) {
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.websocket;
+
+import java.util.Objects;
+
+import org.optaweb.vehiclerouting.service.solver.SolverStatus;
+
+/**
+ * Portable solver status.
+ */
+public class PortableSolverStatus {
+
+    private final String phase;
+    private final long stepCount;
+    private final long timeSpentMillis;
+    private final long scoreCalculationSpeed;
+    private final long millisSinceBestSolution;
+    private final boolean problemChangesPending;
+
+    static PortableSolverStatus fromSolverStatus(SolverStatus status) {
+        return new PortableSolverStatus(
+                status.phase.name(),
+                status.stepCount,
+                status.timeSpent.toMillis(),
+                status.scoreCalculationSpeed,
+                status.timeSinceBestSolution.toMillis(),
+                status.problemChangesPending);
+    }
+
+    PortableSolverStatus(
+            String phase,
+            long stepCount,
+            long timeSpentMillis,
+            long scoreCalculationSpeed,
+            long millisSinceBestSolution,
+            boolean problemChangesPending) {
+        this.phase = Objects.requireNonNull(phase);
+        this.stepCount = stepCount;
+        this.timeSpentMillis = timeSpentMillis;
+        this.scoreCalculationSpeed = scoreCalculationSpeed;
+        this.millisSinceBestSolution = millisSinceBestSolution;
+        this.problemChangesPending = problemChangesPending;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public long getTimeSpentMillis() {
+        return timeSpentMillis;
+    }
+
+    public long getScoreCalculationSpeed() {
+        return scoreCalculationSpeed;
+    }
+
+    public long getMillisSinceBestSolution() {
+        return millisSinceBestSolution;
+    }
+
+    public boolean isProblemChangesPending() {
+        return problemChangesPending;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PortableSolverStatus that = (PortableSolverStatus) o;
+        return stepCount == that.stepCount &&
+                timeSpentMillis == that.timeSpentMillis &&
+                scoreCalculationSpeed == that.scoreCalculationSpeed &&
+                millisSinceBestSolution == that.millisSinceBestSolution &&
+                problemChangesPending == that.problemChangesPending &&
+                phase.equals(that.phase);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                phase,
+                stepCount,
+                timeSpentMillis,
+                scoreCalculationSpeed,
+                millisSinceBestSolution,
+                problemChangesPending);
+    }
+
+    @Override
+    public String toString() {
+        return "PortableSolverStatus{" +
+                "phase='" + phase + '\'' +
+                ", stepCount=" + stepCount +
+                ", timeSpentMillis=" + timeSpentMillis +
+                ", scoreCalculationSpeed=" + scoreCalculationSpeed +
+                ", millisSinceBestSolution=" + millisSinceBestSolution +
+                ", problemChangesPending=" + problemChangesPending +
+                '}';
+    }
+}
@@ -16,7 +16,9 @@
 
 package org.optaweb.vehiclerouting.plugin.websocket;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -33,6 +35,13 @@ import org.springframework.web.socket.config.annotation.WebSocketTransportRegist
 @EnableWebSocketMessageBroker
 class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketPayloadMetrics webSocketPayloadMetrics;
+
+    @Autowired
+    WebSocketConfig(WebSocketPayloadMetrics webSocketPayloadMetrics) {
+        this.webSocketPayloadMetrics = webSocketPayloadMetrics;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // /vrp-websocket is the HTTP URL for the endpoint to which a WebSocket client needs to connect
@@ -55,9 +64,16 @@ class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.enableSimpleBroker("/topic");
     }
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Messages on the outbound channel are already serialized so their payload size is what clients receive.
+        registration.interceptors(webSocketPayloadMetrics);
+    }
+
     @Override
     public void configureWebSocketTransport(WebSocketTransportRegistration registry) {
         // TODO Reduce WebSocket message sizes to minimum to avoid having to increase the session buffer size.
+        //  Route updates only carry changed routes but the full plan sent on subscription can still be big.
         // Read setSendBufferSizeLimit() Javadoc to get some insight.
         // For example: "In general WebSocket servers expect that messages to a single WebSocket session are sent
         // from a single thread at a time."
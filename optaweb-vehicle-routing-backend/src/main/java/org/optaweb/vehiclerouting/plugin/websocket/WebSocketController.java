@@ -22,13 +22,11 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.optaweb.vehiclerouting.domain.Coordinates;
-import org.optaweb.vehiclerouting.domain.RoutingPlan;
 import org.optaweb.vehiclerouting.service.demo.DemoService;
 import org.optaweb.vehiclerouting.service.error.ErrorEvent;
 import org.optaweb.vehiclerouting.service.location.LocationService;
 import org.optaweb.vehiclerouting.service.region.BoundingBox;
 import org.optaweb.vehiclerouting.service.region.RegionService;
-import org.optaweb.vehiclerouting.service.route.RouteListener;
 import org.optaweb.vehiclerouting.service.vehicle.VehicleService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,7 +48,8 @@ class WebSocketController {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketController.class);
 
-    private final RouteListener routeListener;
+    private final WebSocketRoutingPlanSender routingPlanSender;
+    private final WebSocketSolverStatusSender solverStatusSender;
     private final RegionService regionService;
     private final LocationService locationService;
     private final VehicleService vehicleService;
@@ -59,13 +58,15 @@ class WebSocketController {
 
     @Autowired
     WebSocketController(
-            RouteListener routeListener,
+            WebSocketRoutingPlanSender routingPlanSender,
+            WebSocketSolverStatusSender solverStatusSender,
             RegionService regionService,
             LocationService locationService,
             VehicleService vehicleService,
             DemoService demoService,
             ApplicationEventPublisher eventPublisher) {
-        this.routeListener = routeListener;
+        this.routingPlanSender = routingPlanSender;
+        this.solverStatusSender = solverStatusSender;
         this.regionService = regionService;
         this.locationService = locationService;
         this.vehicleService = vehicleService;
@@ -101,23 +102,32 @@ class WebSocketController {
     /**
      * Subscribe for updates of the VRP route.
      *
-     * @return route message
+     * @return full route message, the following messages will be diffs
      */
     @SubscribeMapping("/route")
     PortableRoutingPlan subscribeToRouteTopic() {
-        RoutingPlan routingPlan = routeListener.getBestRoutingPlan();
-        return PortableRoutingPlanFactory.fromRoutingPlan(routingPlan);
+        return routingPlanSender.currentPlan();
     }
 
     /**
-     * Create new location.
+     * Subscribe for solver status updates.
+     *
+     * @return the latest solver status
+     */
+    @SubscribeMapping("/solverStatus")
+    PortableSolverStatus subscribeToSolverStatusTopic() {
+        return solverStatusSender.currentStatus();
+    }
+
+    /**
+     * Create new location. Doesn't wait for the location's distances to be calculated.
      *
      * @param request new location description
      */
     @MessageMapping("/location")
     void addLocation(PortableLocation request) {
-        locationService.createLocation(
-                new Coordinates(request.getLatitude(), request.getLongitude()),
+        locationService.createLocationAsync(
+                new Coordinates(request.getLatitude().doubleValue(), request.getLongitude().doubleValue()),
                 request.getDescription());
     }
 
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.websocket;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records sizes of serialized messages sent to WebSocket clients in the {@value #PAYLOAD_METRIC} distribution summary,
+ * tagged by destination. A message broadcast to a topic is recorded once per subscriber because that's how many
+ * times it is sent.
+ */
+@Component
+class WebSocketPayloadMetrics implements ChannelInterceptor {
+
+    static final String PAYLOAD_METRIC = "optaweb.websocket.payload";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    WebSocketPayloadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        // Frames without a destination (e.g. CONNECTED) don't carry any application data.
+        if (destination != null && message.getPayload() instanceof byte[]) {
+            DistributionSummary.builder(PAYLOAD_METRIC)
+                    .description("Size of messages sent to WebSocket clients")
+                    .baseUnit("bytes")
+                    .tag("destination", destination)
+                    .register(meterRegistry)
+                    .record(((byte[]) message.getPayload()).length);
+        }
+        return message;
+    }
+}
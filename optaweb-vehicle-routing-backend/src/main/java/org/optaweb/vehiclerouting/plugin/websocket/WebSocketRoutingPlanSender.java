@@ -24,6 +24,10 @@ import org.springframework.stereotype.Component;
 
 /**
  * Broadcasts updated route to interested clients over WebSocket.
+ * <p>
+ * Only the first plan a client receives (on subscription) is full. Following plans are diffs that only contain
+ * the routes that have changed. Plans are numbered so that a client can tell if it has missed a diff and needs
+ * to subscribe again.
  */
 @Component
 class WebSocketRoutingPlanSender implements RoutingPlanConsumer {
@@ -31,6 +35,8 @@ class WebSocketRoutingPlanSender implements RoutingPlanConsumer {
     static final String TOPIC_ROUTE = "/topic/route";
 
     private final SimpMessagingTemplate webSocket;
+    // The last full plan sent (as a diff) to subscribers.
+    private PortableRoutingPlan lastPlan = PortableRoutingPlanFactory.fromRoutingPlan(RoutingPlan.empty(), 0);
 
     @Autowired
     WebSocketRoutingPlanSender(SimpMessagingTemplate webSocket) {
@@ -38,7 +44,18 @@ class WebSocketRoutingPlanSender implements RoutingPlanConsumer {
     }
 
     @Override
-    public void consumePlan(RoutingPlan routingPlan) {
-        webSocket.convertAndSend(TOPIC_ROUTE, PortableRoutingPlanFactory.fromRoutingPlan(routingPlan));
+    public synchronized void consumePlan(RoutingPlan routingPlan) {
+        PortableRoutingPlan plan = PortableRoutingPlanFactory.fromRoutingPlan(routingPlan, lastPlan.getSequence() + 1);
+        webSocket.convertAndSend(TOPIC_ROUTE, PortableRoutingPlanFactory.diff(lastPlan, plan));
+        lastPlan = plan;
+    }
+
+    /**
+     * Full plan for a new subscriber. Following diffs will be relative to this plan.
+     *
+     * @return the last plan sent to subscribers
+     */
+    synchronized PortableRoutingPlan currentPlan() {
+        return lastPlan;
     }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.websocket;
+
+import org.optaweb.vehiclerouting.service.solver.SolverStatus;
+import org.optaweb.vehiclerouting.service.solver.SolverStatusConsumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Broadcasts solver status to interested clients over WebSocket.
+ */
+@Component
+class WebSocketSolverStatusSender implements SolverStatusConsumer {
+
+    static final String TOPIC_SOLVER_STATUS = "/topic/solverStatus";
+
+    private final SimpMessagingTemplate webSocket;
+    private PortableSolverStatus lastStatus = PortableSolverStatus.fromSolverStatus(SolverStatus.stopped());
+
+    @Autowired
+    WebSocketSolverStatusSender(SimpMessagingTemplate webSocket) {
+        this.webSocket = webSocket;
+    }
+
+    @Override
+    public synchronized void consumeStatus(SolverStatus status) {
+        lastStatus = PortableSolverStatus.fromSolverStatus(status);
+        webSocket.convertAndSend(TOPIC_SOLVER_STATUS, lastStatus);
+    }
+
+    /**
+     * Status for a new subscriber.
+     *
+     * @return the last status sent to subscribers
+     */
+    synchronized PortableSolverStatus currentStatus() {
+        return lastStatus;
+    }
+}
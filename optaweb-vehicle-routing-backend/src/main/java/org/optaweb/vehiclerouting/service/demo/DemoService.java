@@ -75,8 +75,10 @@ public class DemoService {
         routingProblem.depot().ifPresent(depot -> addWithRetry(depot.coordinates(), depot.description()));
 
         // TODO start randomizing only after using all available cities (=> reproducibility for small demos)
-        routingProblem.visits().forEach(visit -> addWithRetry(visit.coordinates(), visit.description()));
-        routingProblem.vehicles().forEach(vehicleService::createVehicle);
+        // Add visits in a batch and retry those that have been discarded one by one.
+        locationService.createLocations(routingProblem.visits())
+                .forEach(visit -> addWithRetry(visit.coordinates(), visit.description()));
+        vehicleService.createVehicles(routingProblem.vehicles());
     }
 
     private void addWithRetry(Coordinates coordinates, String description) {
@@ -112,8 +112,8 @@ public class DataSetMarshaller {
     static DataSetLocation toDataSet(LocationData locationData) {
         return new DataSetLocation(
                 locationData.description(),
-                locationData.coordinates().latitude().doubleValue(),
-                locationData.coordinates().longitude().doubleValue());
+                locationData.coordinates().latitude(),
+                locationData.coordinates().longitude());
     }
 
     static DataSetVehicle toDataSet(VehicleData vehicleData) {
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Size-bounded in-memory cache of travel times keyed by coordinates and routing profile.
+ * <p>
+ * Unlike the distance repository, which is keyed by location IDs, the cache is not affected by removing locations
+ * or clearing the distance matrix. When a location with the same coordinates is added again (with a new ID),
+ * its travel times are taken from the cache instead of being calculated again.
+ * <p>
+ * Coordinates are rounded to {@value #PRECISION} decimal places (about 1 m). Travel times are grouped in rows by
+ * origin. Each row is a primitive hash table keyed by the destination and has its own lock, so matrix rows are looked
+ * up and cached in bulk without allocating per travel time and without a global lock. When the cache is full,
+ * the least recently used rows are evicted until it is {@value #EVICTION_HEADROOM_PERCENT} % below its size limit.
+ * <p>
+ * By default, the size limit follows the distance matrix (see {@link #fitMatrix(int)}). It is twice the number of
+ * matrix cells (to keep travel times of removed locations) but at least {@value #MIN_AUTO_SIZE}.
+ * <p>
+ * Cache lookups are counted in the {@value #REQUESTS_METRIC} counter tagged with {@code result=hit} or
+ * {@code result=miss}, so the hit rate is {@code hit / (hit + miss)}.
+ */
+@Component
+class DistanceCache {
+
+    /**
+     * Number of decimal places coordinates are rounded to.
+     */
+    static final int PRECISION = 5;
+    private static final double SCALE = 1e5;
+    static final long MIN_AUTO_SIZE = 1_000_000;
+    static final int EVICTION_HEADROOM_PERCENT = 10;
+
+    static final String REQUESTS_METRIC = "optaweb.distance.cache.requests";
+    static final String SIZE_METRIC = "optaweb.distance.cache.size";
+
+    private final boolean autoSize;
+    private volatile long maxSize;
+    private final Map<RowKey, Row> rows = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+    // Incremented on each row access to order rows by their last use.
+    private final AtomicLong clock = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    DistanceCache(DistanceProperties distanceProperties, MeterRegistry meterRegistry) {
+        this(distanceProperties.getCacheSize(), meterRegistry);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param maxSize maximum number of cached travel times, {@code null} to {@link #fitMatrix(int) fit the matrix}
+     * @param meterRegistry meter registry
+     */
+    DistanceCache(Integer maxSize, MeterRegistry meterRegistry) {
+        this.autoSize = maxSize == null;
+        this.maxSize = autoSize ? MIN_AUTO_SIZE : maxSize;
+        this.hits = requestCounter("hit", meterRegistry);
+        this.misses = requestCounter("miss", meterRegistry);
+        Gauge.builder(SIZE_METRIC, size, AtomicLong::get)
+                .description("Number of cached travel times")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder(REQUESTS_METRIC)
+                .description("Travel time cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adjust the size limit to the distance matrix dimension unless the cache size is configured explicitly.
+     *
+     * @param dimension number of locations in the distance matrix
+     */
+    void fitMatrix(int dimension) {
+        if (autoSize) {
+            maxSize = Math.max(MIN_AUTO_SIZE, 2L * dimension * dimension);
+        }
+    }
+
+    /**
+     * Get a cached travel time.
+     *
+     * @param profile routing profile the travel time was calculated with
+     * @param from origin
+     * @param to destination
+     * @return travel time in milliseconds or {@link DistanceMatrixRowImpl#UNKNOWN} if it isn't cached
+     */
+    long get(String profile, Coordinates from, Coordinates to) {
+        long[][] millis = { { DistanceMatrixRowImpl.UNKNOWN } };
+        getAll(profile, Arrays.asList(from), Arrays.asList(to), millis);
+        return millis[0][0];
+    }
+
+    /**
+     * Fill unknown (negative) travel times with cached ones. Known travel times are not looked up.
+     *
+     * @param profile routing profile the travel times were calculated with
+     * @param from origins
+     * @param to destinations
+     * @param millis travel times where {@code [i][j]} is the travel time from {@code from[i]} to {@code to[j]}
+     */
+    void getAll(String profile, List<Coordinates> from, List<Coordinates> to, long[][] millis) {
+        long[] toKeys = keys(to);
+        int hitCount = 0;
+        int missCount = 0;
+        for (int i = 0; i < from.size(); i++) {
+            Row row = rows.get(new RowKey(profile, round(from.get(i))));
+            int rowHits = row == null ? 0 : row.getAll(toKeys, millis[i], clock.incrementAndGet());
+            hitCount += rowHits;
+            for (long cell : millis[i]) {
+                if (cell < 0) {
+                    missCount++;
+                }
+            }
+        }
+        hits.increment(hitCount);
+        misses.increment(missCount);
+    }
+
+    /**
+     * Cache travel times. Negative cells are skipped.
+     *
+     * @param profile routing profile the travel times were calculated with
+     * @param from origins
+     * @param to destinations
+     * @param millis travel times where {@code [i][j]} is the travel time from {@code from[i]} to {@code to[j]}
+     */
+    void putAll(String profile, List<Coordinates> from, List<Coordinates> to, long[][] millis) {
+        if (maxSize <= 0) {
+            return;
+        }
+        long[] toKeys = keys(to);
+        for (int i = 0; i < from.size(); i++) {
+            if (Arrays.stream(millis[i]).anyMatch(cell -> cell >= 0)) {
+                Row row = rows.computeIfAbsent(new RowKey(profile, round(from.get(i))), key -> new Row());
+                size.addAndGet(row.putAll(toKeys, millis[i], clock.incrementAndGet()));
+            }
+        }
+        if (size.get() > maxSize) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        synchronized (evictionLock) {
+            long targetSize = maxSize - maxSize * EVICTION_HEADROOM_PERCENT / 100;
+            if (size.get() <= targetSize) {
+                return;
+            }
+            List<Map.Entry<RowKey, Row>> leastRecentlyUsedFirst = new ArrayList<>(rows.entrySet());
+            leastRecentlyUsedFirst.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+            for (Map.Entry<RowKey, Row> entry : leastRecentlyUsedFirst) {
+                if (size.get() <= targetSize) {
+                    return;
+                }
+                if (rows.remove(entry.getKey(), entry.getValue())) {
+                    size.addAndGet(-entry.getValue().evict());
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of cached travel times.
+     *
+     * @return cache size
+     */
+    long size() {
+        return size.get();
+    }
+
+    private static long[] keys(List<Coordinates> coordinates) {
+        long[] keys = new long[coordinates.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = round(coordinates.get(i));
+        }
+        return keys;
+    }
+
+    private static long round(Coordinates coordinates) {
+        long latitude = Math.round(coordinates.latitude() * SCALE);
+        long longitude = Math.round(coordinates.longitude() * SCALE);
+        // Both fit in an int (|longitude| <= 18,000,000).
+        return latitude << 32 | (longitude & 0xFFFFFFFFL);
+    }
+
+    private static final class RowKey {
+
+        private final String profile;
+        private final long from;
+
+        private RowKey(String profile, long from) {
+            this.profile = profile;
+            this.from = from;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RowKey rowKey = (RowKey) o;
+            return from == rowKey.from &&
+                    Objects.equals(profile, rowKey.profile);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(profile) + Long.hashCode(from);
+        }
+    }
+
+    /**
+     * Travel times from one origin. An open-addressing hash table with linear probing keyed by rounded destination
+     * coordinates.
+     */
+    private static final class Row {
+
+        // Rounded latitude is within ±9,000,000 so it's never Integer.MIN_VALUE, which makes this an impossible key.
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = emptyKeys(16);
+        private long[] values = new long[16];
+        private int size = 0;
+        private boolean evicted = false;
+        private volatile long lastUsed;
+
+        private static long[] emptyKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        /**
+         * Fill unknown (negative) travel times with the ones found in this row.
+         *
+         * @return number of travel times found
+         */
+        synchronized int getAll(long[] destinations, long[] millis, long time) {
+            lastUsed = time;
+            int found = 0;
+            for (int j = 0; j < destinations.length; j++) {
+                if (millis[j] < 0) {
+                    int slot = slot(keys, destinations[j]);
+                    if (keys[slot] != EMPTY) {
+                        millis[j] = values[slot];
+                        found++;
+                    }
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Put travel times in the row. Negative ones are skipped.
+         *
+         * @return number of travel times added (destinations that were already in the row are not counted)
+         */
+        synchronized int putAll(long[] destinations, long[] millis, long time) {
+            if (evicted) {
+                return 0;
+            }
+            lastUsed = time;
+            int added = 0;
+            for (int j = 0; j < destinations.length; j++) {
+                if (millis[j] >= 0) {
+                    int slot = slot(keys, destinations[j]);
+                    values[slot] = millis[j];
+                    if (keys[slot] == EMPTY) {
+                        keys[slot] = destinations[j];
+                        added++;
+                        if (++size * 2 > keys.length) {
+                            rehash();
+                        }
+                    }
+                }
+            }
+            return added;
+        }
+
+        /**
+         * Mark the row as evicted so that concurrent puts don't change the cache size.
+         *
+         * @return number of travel times in the row
+         */
+        synchronized int evict() {
+            evicted = true;
+            return size;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = emptyKeys(oldKeys.length * 2);
+            values = new long[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int slot(long[] keys, long key) {
+            int mask = keys.length - 1;
+            // Mix both halves (latitude and longitude) into the low bits used for the slot.
+            long hash = key * 0xC4CEB9FE1A85EC53L;
+            int slot = (int) (hash ^ hash >>> 32) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.optaweb.vehiclerouting.service.distance;
 
+import java.util.List;
+
 import org.optaweb.vehiclerouting.domain.Coordinates;
 
 /**
@@ -32,4 +34,33 @@ public interface DistanceCalculator {
      * @throws DistanceCalculationException when the distance between given coordinates cannot be calculated
      */
     long travelTimeMillis(Coordinates from, Coordinates to);
+
+    /**
+     * Calculate travel times from each origin to each destination. The default implementation calculates the travel
+     * time for each pair separately. Implementations should override it if they can calculate a whole matrix faster.
+     *
+     * @param from origins
+     * @param to destinations
+     * @return travel times in milliseconds where {@code [i][j]} is the travel time from {@code from[i]} to {@code to[j]}
+     * @throws DistanceCalculationException when the distance between any of the given coordinates cannot be calculated
+     */
+    default long[][] travelTimeMillis(List<Coordinates> from, List<Coordinates> to) {
+        long[][] travelTimes = new long[from.size()][to.size()];
+        for (int i = 0; i < from.size(); i++) {
+            for (int j = 0; j < to.size(); j++) {
+                travelTimes[i][j] = travelTimeMillis(from.get(i), to.get(j));
+            }
+        }
+        return travelTimes;
+    }
+
+    /**
+     * Identifies how travel times are calculated (routing engine, vehicle, weighting). Travel times calculated
+     * with different profiles are never mixed up in the distance cache.
+     *
+     * @return routing profile name
+     */
+    default String profile() {
+        return getClass().getName();
+    }
 }
@@ -16,95 +16,363 @@
 
 package org.optaweb.vehiclerouting.service.distance;
 
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import org.optaweb.vehiclerouting.domain.Distance;
+import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Location;
 import org.optaweb.vehiclerouting.service.location.DistanceMatrix;
 import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Dense distance matrix. Each location is assigned a matrix index and its row holds distances to other locations
+ * in a primitive array addressed by their indexes. Rows grow by doubling their capacity as locations are added.
+ * <p>
+ * Indexes of removed locations are reused by new locations so the matrix only grows with the number of locations
+ * present at the same time, not with the number of locations ever added. An index is only reused after the removed
+ * location's row has been released by the planner (see {@link DistanceMatrixRowImpl}).
+ * <p>
+ * Distances missing in the repository are looked up in the {@link DistanceCache} before they are calculated.
+ * <p>
+ * Additions are serialized but distances are calculated without holding the matrix lock, so locations can be removed
+ * (and the matrix cleared) while new locations' distances are being calculated.
+ * <p>
+ * The number of rows is exposed as the {@value #DIMENSION_METRIC} gauge.
+ */
 @Service
 class DistanceMatrixImpl implements DistanceMatrix {
 
+    static final int INITIAL_CAPACITY = 16;
+    static final String DIMENSION_METRIC = "optaweb.distance.matrix.dimension";
+
     private final DistanceCalculator distanceCalculator;
     private final DistanceRepository distanceRepository;
-    private final Map<Location, Map<Long, Distance>> matrix = new HashMap<>();
+    private final DistanceCache distanceCache;
+    private final RoutingExecutor routingExecutor;
+    private final Map<Location, DistanceMatrixRowImpl> matrix = new HashMap<>();
+    // Read by the solver thread (through matrix rows).
+    private Map<Long, Integer> indexes = new ConcurrentHashMap<>();
+    // Filled by the solver thread (through matrix rows).
+    private Queue<Integer> freeIndexes = new ConcurrentLinkedQueue<>();
+    private int capacity = INITIAL_CAPACITY;
+    private int nextIndex = 0;
+    // Incremented when the matrix is cleared.
+    private int generation = 0;
+    // Serializes additions. The matrix state itself is guarded by this.
+    private final Object additionLock = new Object();
 
     @Autowired
-    DistanceMatrixImpl(DistanceCalculator distanceCalculator, DistanceRepository distanceRepository) {
+    DistanceMatrixImpl(
+            DistanceCalculator distanceCalculator,
+            DistanceRepository distanceRepository,
+            DistanceCache distanceCache,
+            RoutingExecutor routingExecutor,
+            MeterRegistry meterRegistry) {
         this.distanceCalculator = distanceCalculator;
         this.distanceRepository = distanceRepository;
+        this.distanceCache = distanceCache;
+        this.routingExecutor = routingExecutor;
+        Gauge.builder(DIMENSION_METRIC, this, DistanceMatrixImpl::dimension)
+                .description("Number of locations in the distance matrix")
+                .register(meterRegistry);
     }
 
     @Override
     public DistanceMatrixRow addLocation(Location newLocation) {
-        // Matrix == distance rows.
-        // We're adding a whole new row with distances from the new location to existing ones.
-        // We're also creating a new column by "appending" a new cell to each existing row.
-        // This new column contains distances from each existing location to the new one.
-
-        // The map must be thread-safe because:
-        // - we're updating it from the parallel stream below
-        // - it is accessed from solver thread!
-        Map<Long, Distance> distancesToOthers = new ConcurrentHashMap<>(); // the new row
-
-        // distance to self is 0
-        distancesToOthers.put(newLocation.id(), Distance.ZERO);
-
-        // For all entries (rows) in the matrix:
-        matrix.entrySet().stream().parallel().forEach(distanceRow -> {
-            // Entry key is the existing (other) location.
-            Location other = distanceRow.getKey();
-            // Entry value is the data (cells) in the row (distances from the entry key location to any other).
-            Map<Long, Distance> distancesFromOther = distanceRow.getValue();
-            // Add a new cell to the row with the distance from the entry key location to the new location
-            // (results in a new column at the end of the loop).
-            distancesFromOther.put(newLocation.id(), calculateOrRestoreDistance(other, newLocation));
-            // Add a cell to the new distance's row.
-            distancesToOthers.put(other.id(), calculateOrRestoreDistance(newLocation, other));
-        });
-
-        matrix.put(newLocation, distancesToOthers);
-
-        return locationId -> {
-            if (!distancesToOthers.containsKey(locationId)) {
-                throw new IllegalArgumentException(
-                        "Distance from " + newLocation
-                                + " to " + locationId
-                                + " hasn't been recorded.\n"
-                                + "We only know distances to " + distancesToOthers.keySet());
+        synchronized (additionLock) {
+            Snapshot snapshot = snapshot();
+            // Matrix == distance rows.
+            // We're adding a whole new row with distances from the new location to existing ones.
+            // We're also creating a new column by filling a new cell in each existing row.
+            // This new column contains distances from each existing location to the new one.
+            List<Location> others = snapshot.locations;
+            List<Location> newLocationList = Collections.singletonList(newLocation);
+            Calculation distancesFromOthers = calculateOrRestoreDistances(others, newLocationList, false);
+            Calculation distancesToOthers = calculateOrRestoreDistances(newLocationList, others, false);
+
+            // The new row also holds the distance to self, which is where the row of a batch addition ends.
+            long[][] newRows = { Arrays.copyOf(distancesToOthers.distances[0], others.size() + 1) };
+            List<DistanceMatrixRowImpl> rows =
+                    commit(snapshot, newLocationList, newRows, distancesFromOthers.distances);
+            save(snapshot, distancesToOthers, distancesFromOthers);
+            return rows.get(0);
+        }
+    }
+
+    @Override
+    public List<DistanceMatrixRow> addLocations(List<Location> newLocations) {
+        synchronized (additionLock) {
+            Snapshot snapshot = snapshot();
+            List<Location> existingLocations = snapshot.locations;
+            List<Location> allLocations = new ArrayList<>(existingLocations);
+            allLocations.addAll(newLocations);
+
+            // Calculate everything before touching the matrix so that it stays unchanged if any calculation fails.
+            // Distances from the new locations to all locations (new rows).
+            Calculation newRows = calculateOrRestoreDistances(newLocations, allLocations, true);
+            // Distances from the existing locations to the new locations (new columns).
+            Calculation newColumns = calculateOrRestoreDistances(existingLocations, newLocations, true);
+
+            List<DistanceMatrixRowImpl> rows = commit(snapshot, newLocations, newRows.distances, newColumns.distances);
+            save(snapshot, newRows, newColumns);
+            return new ArrayList<>(rows);
+        }
+    }
+
+    private synchronized Snapshot snapshot() {
+        return new Snapshot(new ArrayList<>(matrix.keySet()), generation);
+    }
+
+    /**
+     * Put the new locations' rows and columns into the matrix. Existing locations that have been removed since
+     * the snapshot was taken are skipped. If the matrix has been cleared since then, only distances between the new
+     * locations are recorded.
+     *
+     * @param snapshot existing locations the distances were calculated for
+     * @param newLocations new locations
+     * @param newRows distances from the new locations to the snapshot locations followed by the new locations
+     * @param newColumns distances from the snapshot locations to the new locations
+     * @return rows of the new locations
+     */
+    private synchronized List<DistanceMatrixRowImpl> commit(
+            Snapshot snapshot,
+            List<Location> newLocations,
+            long[][] newRows,
+            long[][] newColumns) {
+        boolean cleared = snapshot.generation != generation;
+        List<Location> existingLocations = snapshot.locations;
+        int[] newIndexes = new int[newLocations.size()];
+        for (int j = 0; j < newLocations.size(); j++) {
+            newIndexes[j] = takeIndex();
+        }
+        // Index of each snapshot location followed by the new locations. Locations that are gone are marked with -1.
+        int[] allIndexes = new int[existingLocations.size() + newLocations.size()];
+        for (int i = 0; i < existingLocations.size(); i++) {
+            DistanceMatrixRowImpl existingRow = cleared ? null : matrix.get(existingLocations.get(i));
+            if (existingRow == null) {
+                allIndexes[i] = -1;
+                continue;
             }
-            return distancesToOthers.get(locationId);
-        };
+            allIndexes[i] = existingRow.locationIndex();
+            for (int j = 0; j < newLocations.size(); j++) {
+                existingRow.setDistance(newIndexes[j], newColumns[i][j]);
+            }
+        }
+        System.arraycopy(newIndexes, 0, allIndexes, existingLocations.size(), newIndexes.length);
+
+        List<DistanceMatrixRowImpl> rows = new ArrayList<>(newLocations.size());
+        for (int i = 0; i < newLocations.size(); i++) {
+            DistanceMatrixRowImpl row = new DistanceMatrixRowImpl(
+                    newLocations.get(i), newIndexes[i], indexes, freeIndexes, capacity);
+            for (int j = 0; j < allIndexes.length; j++) {
+                if (allIndexes[j] >= 0) {
+                    row.setDistance(allIndexes[j], newRows[i][j]);
+                }
+            }
+            rows.add(row);
+        }
+        for (DistanceMatrixRowImpl row : rows) {
+            matrix.put(row.location(), row);
+            indexes.put(row.location().id(), row.locationIndex());
+        }
+        distanceCache.fitMatrix(matrix.size());
+        return rows;
     }
 
-    private Distance calculateOrRestoreDistance(Location from, Location to) {
-        long distance = distanceRepository.getDistance(from, to);
-        if (distance < 0) {
-            distance = distanceCalculator.travelTimeMillis(from.coordinates(), to.coordinates());
-            distanceRepository.saveDistance(from, to, distance);
+    /**
+     * Persist the distances that haven't been saved yet. Distances from and to snapshot locations that have been
+     * removed (or cleared) in the meantime are left out so that they don't outlive their locations in the repository.
+     * Must be called after {@link #commit} while holding the addition lock.
+     *
+     * @param snapshot existing locations the distances were calculated for
+     * @param newRows distances from the new locations to the snapshot locations (followed by the new locations)
+     * @param newColumns distances from the snapshot locations to the new locations
+     */
+    private synchronized void save(Snapshot snapshot, Calculation newRows, Calculation newColumns) {
+        boolean cleared = snapshot.generation != generation;
+        for (int i = 0; i < snapshot.locations.size(); i++) {
+            if (cleared || !matrix.containsKey(snapshot.locations.get(i))) {
+                Arrays.fill(newColumns.unsaved[i], DistanceMatrixRowImpl.UNKNOWN);
+                for (long[] row : newRows.unsaved) {
+                    row[i] = DistanceMatrixRowImpl.UNKNOWN;
+                }
+            }
+        }
+        newRows.save();
+        newColumns.save();
+    }
+
+    /**
+     * Restore distances from the repository, take the missing ones from the cache and calculate the rest.
+     * The repository is accessed in bulk regardless of how the missing distances are calculated. Distances that need
+     * to be saved are returned as {@link Calculation#unsaved} so that they're only persisted once it is known that
+     * their locations haven't been removed during the calculation.
+     *
+     * @param from origins
+     * @param to destinations
+     * @param inBatch whether to calculate the missing distances in a single batch or one by one (in parallel
+     * on the {@link RoutingExecutor})
+     * @return distances in milliseconds where {@code [i][j]} is the distance from {@code from[i]} to {@code to[j]}
+     */
+    private Calculation calculateOrRestoreDistances(List<Location> from, List<Location> to, boolean inBatch) {
+        if (from.isEmpty() || to.isEmpty()) {
+            return new Calculation(from, to, new long[from.size()][to.size()], new long[from.size()][to.size()]);
+        }
+        long[][] distances = distanceRepository.getDistances(from, to);
+        boolean complete = true;
+        for (int i = 0; i < from.size(); i++) {
+            for (int j = 0; j < to.size(); j++) {
+                if (from.get(i).equals(to.get(j))) {
+                    distances[i][j] = 0;
+                }
+                complete &= distances[i][j] >= 0;
+            }
+        }
+        if (complete) {
+            long[][] nothingToSave = new long[from.size()][to.size()];
+            for (long[] row : nothingToSave) {
+                Arrays.fill(row, DistanceMatrixRowImpl.UNKNOWN);
+            }
+            return new Calculation(from, to, distances, nothingToSave);
+        }
+
+        List<Coordinates> origins = from.stream().map(Location::coordinates).collect(toList());
+        List<Coordinates> destinations = to.stream().map(Location::coordinates).collect(toList());
+        String profile = distanceCalculator.profile();
+        // Distances that haven't been persisted. These are either found in the cache or calculated.
+        long[][] unsaved = new long[from.size()][to.size()];
+        // Origins with at least one distance that is neither persisted nor cached.
+        List<Integer> incompleteRows = new ArrayList<>();
+        long[][] persisted = new long[from.size()][];
+        for (int i = 0; i < from.size(); i++) {
+            persisted[i] = distances[i].clone();
+        }
+        distanceCache.getAll(profile, origins, destinations, distances);
+        for (int i = 0; i < from.size(); i++) {
+            boolean rowComplete = true;
+            for (int j = 0; j < to.size(); j++) {
+                unsaved[i][j] = persisted[i][j] < 0 ? distances[i][j] : DistanceMatrixRowImpl.UNKNOWN;
+                rowComplete &= distances[i][j] >= 0;
+            }
+            if (!rowComplete) {
+                incompleteRows.add(i);
+            }
+        }
+
+        if (!incompleteRows.isEmpty()) {
+            // Only newly calculated distances are put in the cache.
+            long[][] calculated = new long[from.size()][to.size()];
+            for (long[] row : calculated) {
+                Arrays.fill(row, DistanceMatrixRowImpl.UNKNOWN);
+            }
+            if (inBatch) {
+                List<Coordinates> incompleteOrigins = incompleteRows.stream().map(origins::get).collect(toList());
+                long[][] calculatedRows = distanceCalculator.travelTimeMillis(incompleteOrigins, destinations);
+                for (int k = 0; k < incompleteRows.size(); k++) {
+                    int i = incompleteRows.get(k);
+                    for (int j = 0; j < to.size(); j++) {
+                        if (distances[i][j] < 0) {
+                            calculated[i][j] = calculatedRows[k][j];
+                        }
+                    }
+                }
+            } else {
+                List<int[]> missingCells = new ArrayList<>();
+                List<Callable<Long>> calls = new ArrayList<>();
+                for (int i : incompleteRows) {
+                    for (int j = 0; j < to.size(); j++) {
+                        if (distances[i][j] < 0) {
+                            Coordinates origin = origins.get(i);
+                            Coordinates destination = destinations.get(j);
+                            missingCells.add(new int[] { i, j });
+                            calls.add(() -> distanceCalculator.travelTimeMillis(origin, destination));
+                        }
+                    }
+                }
+                List<Long> results = routingExecutor.invokeAll(calls);
+                for (int k = 0; k < missingCells.size(); k++) {
+                    calculated[missingCells.get(k)[0]][missingCells.get(k)[1]] = results.get(k);
+                }
+            }
+            for (int i : incompleteRows) {
+                for (int j = 0; j < to.size(); j++) {
+                    if (distances[i][j] < 0) {
+                        distances[i][j] = calculated[i][j];
+                        unsaved[i][j] = calculated[i][j];
+                    }
+                }
+            }
+            distanceCache.putAll(profile, origins, destinations, calculated);
+        }
+
+        return new Calculation(from, to, distances, unsaved);
+    }
+
+    /**
+     * Take a free index or a new one if there are no free indexes. The matrix grows if needed.
+     *
+     * @return index for a new location
+     */
+    private int takeIndex() {
+        Integer freeIndex = freeIndexes.poll();
+        if (freeIndex != null) {
+            // Cells of the previous owner are overwritten when the new location's distances are recorded.
+            return freeIndex;
+        }
+        int newIndex = nextIndex++;
+        ensureCapacity(newIndex + 1);
+        return newIndex;
+    }
+
+    private void ensureCapacity(int requiredCapacity) {
+        if (requiredCapacity > capacity) {
+            while (requiredCapacity > capacity) {
+                capacity *= 2;
+            }
+            matrix.values().forEach(row -> row.grow(capacity));
         }
-        return Distance.ofMillis(distance);
     }
 
     @Override
-    public void removeLocation(Location location) {
+    public synchronized void removeLocation(Location location) {
         // Remove the distance matrix row (distances from the removed location to others).
-        matrix.remove(location);
-        // TODO also remove the "column" of the matrix (distances from others to the removed location) to avoid memory
-        //  leak.
-        //  But this probably requires making DistanceMatrixRow immutable (otherwise there's a risk of NPEs in solver)
-        //  and update PlanningLocations' distance maps through problem fact changes.
+        DistanceMatrixRowImpl removedRow = matrix.remove(location);
+        indexes.remove(location.id());
+        // The "column" of the matrix (distances from others to the removed location) is reclaimed by reusing
+        // the removed location's index. That happens when the planner has released the row as well.
+        if (removedRow != null) {
+            removedRow.markRemoved();
+        }
+        // The distance cache is keyed by coordinates so it keeps the removed location's distances for reuse.
         distanceRepository.deleteDistances(location);
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
+        generation++;
         matrix.clear();
+        // Rows created so far keep the old index mapping so that they never resolve locations added after clearing.
+        indexes = new ConcurrentHashMap<>();
+        // Rows created so far release their indexes to the old queue.
+        freeIndexes = new ConcurrentLinkedQueue<>();
+        capacity = INITIAL_CAPACITY;
+        nextIndex = 0;
+        // The distance cache is kept so that reloading the same locations doesn't need any calculation.
         distanceRepository.deleteAll();
     }
 
@@ -113,7 +381,53 @@ class DistanceMatrixImpl implements DistanceMatrix {
      *
      * @return number of rows
      */
-    public int dimension() {
+    public synchronized int dimension() {
         return matrix.size();
     }
+
+    synchronized int capacity() {
+        return capacity;
+    }
+
+    int freeIndexCount() {
+        return freeIndexes.size();
+    }
+
+    private class Calculation {
+
+        private final List<Location> from;
+        private final List<Location> to;
+        private final long[][] distances;
+        // Distances that haven't been persisted. Negative ones are not saved.
+        private final long[][] unsaved;
+
+        private Calculation(List<Location> from, List<Location> to, long[][] distances, long[][] unsaved) {
+            this.from = from;
+            this.to = to;
+            this.distances = distances;
+            this.unsaved = unsaved;
+        }
+
+        private void save() {
+            for (long[] row : unsaved) {
+                for (long distance : row) {
+                    if (distance >= 0) {
+                        distanceRepository.saveDistances(from, to, unsaved);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Snapshot {
+
+        private final List<Location> locations;
+        private final int generation;
+
+        private Snapshot(List<Location> locations, int generation) {
+            this.locations = locations;
+            this.generation = generation;
+        }
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.optaweb.vehiclerouting.domain.Distance;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+
+/**
+ * Dense distance matrix row. Distances are stored in a primitive array where each cell is addressed by the matrix
+ * index of the target location.
+ * <p>
+ * The row's index is returned to the matrix's free indexes when the row has been both removed from the matrix
+ * and released by the planner (in any order). Until then, the index is not reused, so the planner never reads
+ * a distance to a wrong location.
+ */
+class DistanceMatrixRowImpl implements DistanceMatrixRow {
+
+    /**
+     * Marks a cell that doesn't hold a distance (yet).
+     */
+    static final long UNKNOWN = -1;
+
+    private final Location location;
+    private final int index;
+    private final Map<Long, Integer> indexes;
+    private final Queue<Integer> freeIndexes;
+    private final AtomicBoolean removed = new AtomicBoolean();
+    private final AtomicBoolean released = new AtomicBoolean();
+    // Number of parties (the matrix and the planner) still using the row's index.
+    private final AtomicInteger indexHolders = new AtomicInteger(2);
+    // Replaced by a bigger array when the matrix grows. Volatile because the row is read by the solver thread.
+    private volatile long[] cells;
+
+    /**
+     * Create an empty row.
+     *
+     * @param location location of this row
+     * @param index matrix index of this row's location
+     * @param indexes location ID to matrix index mapping shared by all rows of the matrix
+     * @param freeIndexes indexes that can be reused, shared by all rows of the matrix
+     * @param capacity initial number of cells
+     */
+    DistanceMatrixRowImpl(
+            Location location,
+            int index,
+            Map<Long, Integer> indexes,
+            Queue<Integer> freeIndexes,
+            int capacity) {
+        this.location = Objects.requireNonNull(location);
+        this.index = index;
+        this.indexes = Objects.requireNonNull(indexes);
+        this.freeIndexes = Objects.requireNonNull(freeIndexes);
+        long[] emptyCells = new long[capacity];
+        Arrays.fill(emptyCells, UNKNOWN);
+        // distance to self is 0
+        emptyCells[index] = 0;
+        this.cells = emptyCells;
+    }
+
+    Location location() {
+        return location;
+    }
+
+    @Override
+    public int locationIndex() {
+        return index;
+    }
+
+    /**
+     * Record the distance to the location at the given matrix index.
+     *
+     * @param targetIndex matrix index of the target location
+     * @param millis distance in milliseconds
+     */
+    void setDistance(int targetIndex, long millis) {
+        cells[targetIndex] = millis;
+    }
+
+    /**
+     * Grow the row to the given capacity. New cells are empty.
+     *
+     * @param capacity new number of cells
+     */
+    void grow(int capacity) {
+        long[] oldCells = cells;
+        long[] newCells = Arrays.copyOf(oldCells, capacity);
+        Arrays.fill(newCells, oldCells.length, capacity, UNKNOWN);
+        cells = newCells;
+    }
+
+    /**
+     * Mark the row as removed from the matrix.
+     */
+    void markRemoved() {
+        if (removed.compareAndSet(false, true)) {
+            releaseIndex();
+        }
+    }
+
+    /**
+     * Called by the planner, possibly on the solver thread.
+     */
+    @Override
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            releaseIndex();
+        }
+    }
+
+    private void releaseIndex() {
+        if (indexHolders.decrementAndGet() == 0) {
+            freeIndexes.add(index);
+        }
+    }
+
+    @Override
+    public Distance distanceTo(long locationId) {
+        Integer targetIndex = indexes.get(locationId);
+        long[] currentCells = cells;
+        if (targetIndex == null || targetIndex >= currentCells.length || currentCells[targetIndex] == UNKNOWN) {
+            throw new IllegalArgumentException(
+                    "Distance from " + location
+                            + " to " + locationId
+                            + " hasn't been recorded.\n"
+                            + "We only know distances to " + knownLocationIds(currentCells));
+        }
+        return Distance.ofMillis(currentCells[targetIndex]);
+    }
+
+    @Override
+    public long distanceMillisTo(int locationIndex) {
+        long[] currentCells = cells;
+        if (locationIndex >= 0 && locationIndex < currentCells.length) {
+            long millis = currentCells[locationIndex];
+            if (millis != UNKNOWN) {
+                return millis;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Distance from " + location
+                        + " to location at index " + locationIndex
+                        + " hasn't been recorded.\n"
+                        + "We only know distances to " + knownLocationIds(currentCells));
+    }
+
+    private String knownLocationIds(long[] currentCells) {
+        return indexes.entrySet().stream()
+                .filter(entry -> entry.getValue() < currentCells.length && currentCells[entry.getValue()] != UNKNOWN)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    @Override
+    public String toString() {
+        return "DistanceMatrixRowImpl{" +
+                "location=" + location +
+                ",index=" + index +
+                '}';
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("app.distance")
+class DistanceProperties {
+
+    /**
+     * Maximum number of travel times kept in the coordinate-keyed distance cache. Zero disables the cache. When not set,
+     * the size follows the distance matrix (twice the number of its cells, at least 1,000,000).
+     */
+    private Integer cacheSize;
+
+    /**
+     * Number of threads calculating distances between pairs of locations. Zero means the number of processors.
+     */
+    private int routingThreads = 0;
+
+    /**
+     * Maximum number of distance calculations waiting for a routing thread. When the queue is full, the thread
+     * requesting the distances calculates them itself.
+     */
+    private int routingQueueSize = 1000;
+
+    /**
+     * Maximum time to wait for a batch of distance calculations (for example the distances of a new location).
+     */
+    private Duration routingTimeout = Duration.ofSeconds(30);
+
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public int getRoutingThreads() {
+        return routingThreads;
+    }
+
+    public void setRoutingThreads(int routingThreads) {
+        this.routingThreads = routingThreads;
+    }
+
+    public int getRoutingQueueSize() {
+        return routingQueueSize;
+    }
+
+    public void setRoutingQueueSize(int routingQueueSize) {
+        this.routingQueueSize = routingQueueSize;
+    }
+
+    public Duration getRoutingTimeout() {
+        return routingTimeout;
+    }
+
+    public void setRoutingTimeout(Duration routingTimeout) {
+        this.routingTimeout = routingTimeout;
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.optaweb.vehiclerouting.service.distance;
 
+import java.util.List;
+
 import org.optaweb.vehiclerouting.domain.Location;
 
 /**
@@ -23,9 +25,25 @@ import org.optaweb.vehiclerouting.domain.Location;
  */
 public interface DistanceRepository {
 
-    void saveDistance(Location from, Location to, long distance);
+    /**
+     * Save distances between each origin and each destination.
+     *
+     * @param from origins
+     * @param to destinations
+     * @param distances distances where {@code [i][j]} is the distance from {@code from[i]} to {@code to[j]};
+     * negative distances are not saved
+     */
+    void saveDistances(List<Location> from, List<Location> to, long[][] distances);
 
-    long getDistance(Location from, Location to);
+    /**
+     * Get distances between each origin and each destination.
+     *
+     * @param from origins
+     * @param to destinations
+     * @return distances where {@code [i][j]} is the distance from {@code from[i]} to {@code to[j]}; distances that
+     * haven't been saved are negative
+     */
+    long[][] getDistances(List<Location> from, List<Location> to);
 
     void deleteDistances(Location location);
 
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs distance calculations on a dedicated, bounded thread pool instead of the common fork-join pool.
+ * <p>
+ * The pool has a fixed number of threads and a bounded queue. When the queue is full, the calling thread runs
+ * the calculation itself, which slows down the producer (back-pressure).
+ * <p>
+ * Each batch of calculations has a single deadline, the configured timeout from the start of the batch. When it passes,
+ * the remaining calculations are cancelled and those that haven't started never run. A calculation that runs on the
+ * calling thread (when the queue is full) cannot be interrupted, but no further calculations are submitted after it
+ * if it has used up the time.
+ * <p>
+ * The number of calculations waiting in the queue and the number of busy routing threads are exposed as
+ * the {@value #QUEUE_DEPTH_METRIC} and {@value #ACTIVE_THREADS_METRIC} gauges. The duration of each calculation
+ * is recorded in the {@value #LATENCY_METRIC} timer, tagged by the thread that ran it ({@code pool} or {@code caller}).
+ * <p>
+ * This is intentionally not a {@link java.util.concurrent.Executor} bean so that it's never picked up by
+ * {@code @Async} or injected where another executor is expected.
+ */
+@Component
+class RoutingExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingExecutor.class);
+
+    static final String QUEUE_DEPTH_METRIC = "optaweb.distance.routing.queue.depth";
+    static final String ACTIVE_THREADS_METRIC = "optaweb.distance.routing.threads.active";
+    static final String LATENCY_METRIC = "optaweb.distance.routing.latency";
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer poolLatencyTimer;
+    private final Timer callerLatencyTimer;
+
+    @Autowired
+    RoutingExecutor(DistanceProperties distanceProperties, MeterRegistry meterRegistry) {
+        this(
+                distanceProperties.getRoutingThreads() > 0
+                        ? distanceProperties.getRoutingThreads()
+                        : Runtime.getRuntime().availableProcessors(),
+                distanceProperties.getRoutingQueueSize(),
+                distanceProperties.getRoutingTimeout(),
+                meterRegistry);
+    }
+
+    RoutingExecutor(int threads, int queueSize, Duration timeout, MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new RoutingThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.timeout = timeout;
+        this.poolLatencyTimer = latencyTimer("pool", meterRegistry);
+        this.callerLatencyTimer = latencyTimer("caller", meterRegistry);
+        Gauge.builder(QUEUE_DEPTH_METRIC, this, RoutingExecutor::queueDepth)
+                .description("Number of distance calculations waiting for a routing thread")
+                .register(meterRegistry);
+        Gauge.builder(ACTIVE_THREADS_METRIC, this, RoutingExecutor::activeThreads)
+                .description("Number of routing threads calculating distances")
+                .register(meterRegistry);
+    }
+
+    private static Timer latencyTimer(String thread, MeterRegistry meterRegistry) {
+        return Timer.builder(LATENCY_METRIC)
+                .description("Duration of a distance calculation")
+                .tag("thread", thread)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the calls in parallel and wait for all results.
+     *
+     * @param calls distance calculations
+     * @param <T> result type
+     * @return results in the same order as the calls
+     * @throws DistanceCalculationException if any of the calls fails or the batch doesn't finish within the timeout;
+     * exceptions thrown by the calls are propagated
+     */
+    <T> List<T> invokeAll(List<? extends Callable<T>> calls) {
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        Thread caller = Thread.currentThread();
+        List<Future<T>> futures = new ArrayList<>(calls.size());
+        try {
+            for (Callable<T> call : calls) {
+                // With a full queue, the previous call ran on this thread, so it may have used up the time.
+                checkDeadline(deadlineNanos);
+                futures.add(executor.submit(() -> latencyTimer(caller).recordCallable(call)));
+            }
+            List<T> results = new ArrayList<>(calls.size());
+            for (Future<T> future : futures) {
+                results.add(future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            logger.debug("Finished {} distance calculations ({})", calls.size(), this);
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DistanceCalculationException("Distance calculation failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new DistanceCalculationException(
+                    calls.size() + " distance calculations timed out after " + timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DistanceCalculationException("Interrupted while waiting for distance calculation", e);
+        } finally {
+            // Don't waste routing threads on calculations nobody is waiting for. No-op for completed calls.
+            futures.forEach(future -> future.cancel(true));
+            // Free the queue slots taken by the cancelled calculations.
+            executor.purge();
+        }
+    }
+
+    private Timer latencyTimer(Thread caller) {
+        // The pool rejected the call and the caller runs it itself.
+        return Thread.currentThread() == caller ? callerLatencyTimer : poolLatencyTimer;
+    }
+
+    private static void checkDeadline(long deadlineNanos) throws TimeoutException {
+        if (System.nanoTime() - deadlineNanos >= 0) {
+            throw new TimeoutException("Deadline passed");
+        }
+    }
+
+    /**
+     * Number of calculations waiting for a routing thread.
+     *
+     * @return queue depth
+     */
+    int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Number of routing threads that are calculating distances.
+     *
+     * @return active thread count
+     */
+    int activeThreads() {
+        return executor.getActiveCount();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "RoutingExecutor{" +
+                "threads=" + executor.getMaximumPoolSize() +
+                ",activeThreads=" + activeThreads() +
+                ",queueDepth=" + queueDepth() +
+                '}';
+    }
+
+    private static class RoutingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "routing-" + threadCount.incrementAndGet());
+            // Don't prevent JVM shutdown.
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
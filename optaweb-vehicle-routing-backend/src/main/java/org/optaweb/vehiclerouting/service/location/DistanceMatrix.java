@@ -16,15 +16,36 @@
 
 package org.optaweb.vehiclerouting.service.location;
 
+import java.util.List;
+
 import org.optaweb.vehiclerouting.domain.Location;
 
 /**
  * Holds distances between every pair of locations.
+ * <p>
+ * Locations can be removed and the matrix can be cleared while other locations are being added. Locations that are
+ * removed while a new location's distances are being calculated are simply left out of the new location's row.
  */
 public interface DistanceMatrix {
 
     DistanceMatrixRow addLocation(Location location);
 
+    /**
+     * Add multiple locations at once. Distances between all the new and existing locations are calculated in a batch,
+     * which is much faster than adding the locations one by one. If any distance cannot be calculated, none
+     * of the locations is added.
+     *
+     * @param locations new locations
+     * @return distance matrix rows of the new locations in the same order as the locations
+     */
+    List<DistanceMatrixRow> addLocations(List<Location> locations);
+
+    /**
+     * Remove the location's distances from the matrix. The location's matrix index is reused by a new location after
+     * the location's row has been {@link DistanceMatrixRow#release() released} by the planner.
+     *
+     * @param location location to be removed
+     */
     void removeLocation(Location location);
 
     void clear();
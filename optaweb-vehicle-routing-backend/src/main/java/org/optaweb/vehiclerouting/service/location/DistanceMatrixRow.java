@@ -20,6 +20,9 @@ import org.optaweb.vehiclerouting.domain.Distance;
 
 /**
  * Contains {@link Distance distances} from the location associated with this row to other locations.
+ * <p>
+ * Distances are read by the solver, possibly from multiple move threads at the same time, while the matrix
+ * is being changed on other threads. Implementations must support that.
  */
 public interface DistanceMatrixRow {
 
@@ -30,4 +33,30 @@ public interface DistanceMatrixRow {
      * @return time it takes to travel to the given location
      */
     Distance distanceTo(long locationId);
+
+    /**
+     * Index of this row's location in the distance matrix. It can be used as the argument
+     * of {@link #distanceMillisTo(int)} on any row of the same matrix.
+     *
+     * @return index of this row's location (zero or positive)
+     */
+    int locationIndex();
+
+    /**
+     * Distance in milliseconds from this row's location to the location with the given index. Unlike
+     * {@link #distanceTo(long)}, this method doesn't allocate any objects so it's suitable for score calculation.
+     *
+     * @param locationIndex {@link #locationIndex() index} of the target location
+     * @return time it takes to travel to the given location in milliseconds
+     */
+    long distanceMillisTo(int locationIndex);
+
+    /**
+     * Tell the matrix that the planner will never read distances to or from this row's location again.
+     * Together with {@link DistanceMatrix#removeLocation removing} the location from
+     * the matrix, this allows the matrix to reclaim memory held by the location.
+     */
+    default void release() {
+        // nothing to reclaim
+    }
 }
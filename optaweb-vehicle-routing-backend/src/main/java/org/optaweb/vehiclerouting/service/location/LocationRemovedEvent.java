@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.location;
+
+import java.util.Optional;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when a location, or all locations, have been removed.
+ */
+public class LocationRemovedEvent extends ApplicationEvent {
+
+    private final Long locationId;
+
+    /**
+     * Create a new ApplicationEvent.
+     *
+     * @param source the object on which the event initially occurred (never {@code null})
+     * @param locationId ID of the removed location ({@code null} if all locations have been removed)
+     */
+    public LocationRemovedEvent(Object source, Long locationId) {
+        super(source);
+        this.locationId = locationId; // may be null (all locations)
+    }
+
+    /**
+     * ID of the removed location.
+     *
+     * @return the removed location's ID or empty if all locations have been removed
+     */
+    public Optional<Long> locationId() {
+        return Optional.ofNullable(locationId);
+    }
+}
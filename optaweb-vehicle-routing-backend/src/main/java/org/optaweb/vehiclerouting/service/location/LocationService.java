@@ -17,13 +17,26 @@
 package org.optaweb.vehiclerouting.service.location;
 
 import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
 
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.LocationData;
 import org.optaweb.vehiclerouting.service.error.ErrorEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +46,12 @@ import org.springframework.stereotype.Service;
 
 /**
  * Performs location-related use cases.
+ * <p>
+ * New locations are added in a pipeline. A location is persisted and queued right away. Its distances are calculated
+ * on the ingestion thread without holding the service's lock, so that locations can be removed (or all of them
+ * cleared) in the meantime. Locations queued while distances are being calculated are then added together
+ * in a batch. Finished locations are handed over to the optimizer in the order they were submitted, a whole batch
+ * at once.
  */
 @Service
 public class LocationService {
@@ -43,6 +62,16 @@ public class LocationService {
     private final RouteOptimizer optimizer; // TODO move to RoutingPlanService (SRP)
     private final DistanceMatrix distanceMatrix;
     private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService ingestionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "location-ingestion");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Locations waiting for the ingestion thread, in the order of submission.
+    private final Deque<PendingLocation> queuedLocations = new ArrayDeque<>();
+    // Locations whose distances are being calculated.
+    private final Map<Long, PendingLocation> ingestedLocations = new HashMap<>();
+    private boolean ingesting = false;
 
     @Autowired
     LocationService(
@@ -56,35 +85,231 @@ public class LocationService {
         this.eventPublisher = eventPublisher;
     }
 
-    public synchronized boolean createLocation(Coordinates coordinates, String description) {
+    /**
+     * Create a location and wait until it's been added to the optimizer.
+     *
+     * @param coordinates location's coordinates
+     * @param description location's description
+     * @return false if the location has been discarded because its distances couldn't be calculated
+     */
+    public boolean createLocation(Coordinates coordinates, String description) {
+        return createLocationAsync(coordinates, description).join();
+    }
+
+    /**
+     * Create a location and add it to the optimizer asynchronously.
+     *
+     * @param coordinates location's coordinates
+     * @param description location's description
+     * @return completes with true when the location has been added to the optimizer or with false if it has been
+     * discarded or removed before that
+     */
+    public synchronized CompletableFuture<Boolean> createLocationAsync(Coordinates coordinates, String description) {
         Objects.requireNonNull(coordinates);
         Objects.requireNonNull(description);
         // TODO if (router.isLocationAvailable(coordinates))
-        return submitToPlanner(repository.createLocation(coordinates, description));
+        return submit(Collections.singletonList(repository.createLocation(coordinates, description)), false).get(0);
+    }
+
+    public boolean addLocation(Location location) {
+        CompletableFuture<Boolean> result;
+        synchronized (this) {
+            result = submit(Collections.singletonList(Objects.requireNonNull(location)), false).get(0);
+        }
+        return result.join();
+    }
+
+    /**
+     * Create multiple locations at once. Distances between the new locations are calculated in a batch.
+     *
+     * @param locationData new locations' data
+     * @return locations that have been discarded because their distances couldn't be calculated
+     */
+    public List<Location> createLocations(List<LocationData> locationData) {
+        List<Location> locations;
+        List<CompletableFuture<Boolean>> results;
+        synchronized (this) {
+            locations = locationData.stream()
+                    .map(data -> repository.createLocation(
+                            Objects.requireNonNull(data.coordinates()),
+                            Objects.requireNonNull(data.description())))
+                    .collect(toList());
+            results = submit(locations, true);
+        }
+        return discarded(locations, results);
+    }
+
+    /**
+     * Add multiple existing locations at once. Distances between the locations are calculated in a batch.
+     *
+     * @param locations locations to be added
+     * @return locations that have been discarded because their distances couldn't be calculated
+     */
+    public List<Location> addLocations(List<Location> locations) {
+        List<Location> addedLocations = new ArrayList<>(locations);
+        List<CompletableFuture<Boolean>> results;
+        synchronized (this) {
+            results = submit(addedLocations, true);
+        }
+        return discarded(addedLocations, results);
+    }
+
+    private static List<Location> discarded(List<Location> locations, List<CompletableFuture<Boolean>> results) {
+        List<Location> discarded = new ArrayList<>();
+        for (int i = 0; i < locations.size(); i++) {
+            if (!results.get(i).join()) {
+                discarded.add(locations.get(i));
+            }
+        }
+        return discarded;
     }
 
-    public synchronized boolean addLocation(Location location) {
-        return submitToPlanner(Objects.requireNonNull(location));
+    /**
+     * Queue locations for ingestion and start the ingestion thread if it's idle. Must hold the lock.
+     *
+     * @param locations new locations
+     * @param inBatch whether the locations have been submitted as a batch
+     * @return ingestion results in the same order as the locations
+     */
+    private List<CompletableFuture<Boolean>> submit(List<Location> locations, boolean inBatch) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            PendingLocation pendingLocation = new PendingLocation(location, inBatch);
+            queuedLocations.add(pendingLocation);
+            results.add(pendingLocation.result);
+        }
+        if (!ingesting) {
+            ingesting = true;
+            ingestionExecutor.execute(this::ingest);
+        }
+        return results;
+    }
+
+    /**
+     * Runs on the ingestion thread until the queue is empty.
+     */
+    private void ingest() {
+        while (true) {
+            List<PendingLocation> batch;
+            synchronized (this) {
+                if (queuedLocations.isEmpty()) {
+                    ingesting = false;
+                    return;
+                }
+                batch = new ArrayList<>(queuedLocations);
+                queuedLocations.clear();
+                batch.forEach(pendingLocation -> ingestedLocations.put(pendingLocation.location.id(), pendingLocation));
+            }
+            try {
+                if (batch.size() == 1 && !batch.get(0).inBatch) {
+                    ingestLocation(batch.get(0));
+                } else {
+                    ingestBatch(batch);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to add {} locations", batch.size(), e);
+                synchronized (this) {
+                    batch.forEach(pendingLocation -> {
+                        ingestedLocations.remove(pendingLocation.location.id());
+                        pendingLocation.result.complete(false);
+                    });
+                }
+            }
+        }
     }
 
-    private boolean submitToPlanner(Location location) {
+    private void ingestBatch(List<PendingLocation> batch) {
+        List<Location> locations = batch.stream().map(pendingLocation -> pendingLocation.location).collect(toList());
+        List<DistanceMatrixRow> distanceMatrixRows;
         try {
-            DistanceMatrixRow distanceMatrixRow = distanceMatrix.addLocation(location);
-            optimizer.addLocation(location, distanceMatrixRow);
+            distanceMatrixRows = distanceMatrix.addLocations(locations);
         } catch (Exception e) {
-            logger.error(
-                    "Failed to calculate distances for location {}, it will be discarded",
-                    location.fullDescription(), e);
-            eventPublisher.publishEvent(new ErrorEvent(
-                    this,
-                    "Failed to calculate distances for location " + location.fullDescription()
-                            + ", it will be discarded.\n" + e.toString()));
-            repository.removeLocation(location.id());
-            return false; // do not proceed to optimizer
+            // Don't give up on all locations because of one bad location. Find it by adding them one by one.
+            logger.warn("Failed to calculate distances for {} locations in a batch, adding them one by one",
+                    locations.size(), e);
+            batch.forEach(this::ingestLocation);
+            return;
         }
+        synchronized (this) {
+            List<PendingLocation> handedOver = new ArrayList<>(batch.size());
+            List<DistanceMatrixRow> handedOverRows = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (!dropIfRemoved(batch.get(i), distanceMatrixRows.get(i))) {
+                    handedOver.add(batch.get(i));
+                    handedOverRows.add(distanceMatrixRows.get(i));
+                }
+            }
+            try {
+                // A running solver is only interrupted once for the whole batch.
+                optimizer.addLocations(
+                        handedOver.stream().map(pendingLocation -> pendingLocation.location).collect(toList()),
+                        handedOverRows);
+            } catch (Exception e) {
+                handedOver.forEach(pendingLocation -> discard(pendingLocation, e));
+                return;
+            }
+            handedOver.forEach(pendingLocation -> pendingLocation.result.complete(true));
+        }
+    }
+
+    private void ingestLocation(PendingLocation pendingLocation) {
+        DistanceMatrixRow distanceMatrixRow;
+        try {
+            distanceMatrixRow = distanceMatrix.addLocation(pendingLocation.location);
+        } catch (Exception e) {
+            synchronized (this) {
+                discard(pendingLocation, e);
+            }
+            return;
+        }
+        synchronized (this) {
+            handOverToOptimizer(pendingLocation, distanceMatrixRow);
+        }
+    }
+
+    private void handOverToOptimizer(PendingLocation pendingLocation, DistanceMatrixRow distanceMatrixRow) {
+        if (dropIfRemoved(pendingLocation, distanceMatrixRow)) {
+            return;
+        }
+        try {
+            optimizer.addLocation(pendingLocation.location, distanceMatrixRow);
+        } catch (Exception e) {
+            discard(pendingLocation, e);
+            return;
+        }
+        pendingLocation.result.complete(true);
+    }
+
+    private boolean dropIfRemoved(PendingLocation pendingLocation, DistanceMatrixRow distanceMatrixRow) {
+        ingestedLocations.remove(pendingLocation.location.id());
+        if (!pendingLocation.removed) {
+            return false;
+        }
+        // The location has been removed while its distances were being calculated.
+        distanceMatrix.removeLocation(pendingLocation.location);
+        distanceMatrixRow.release();
+        pendingLocation.result.complete(false);
         return true;
     }
 
+    private void discard(PendingLocation pendingLocation, Exception e) {
+        ingestedLocations.remove(pendingLocation.location.id());
+        if (pendingLocation.removed) {
+            pendingLocation.result.complete(false);
+            return;
+        }
+        Location location = pendingLocation.location;
+        logger.error(
+                "Failed to calculate distances for location {}, it will be discarded",
+                location.fullDescription(), e);
+        eventPublisher.publishEvent(new ErrorEvent(
+                this,
+                "Failed to calculate distances for location " + location.fullDescription()
+                        + ", it will be discarded.\n" + e.toString()));
+        repository.removeLocation(location.id());
+        pendingLocation.result.complete(false);
+    }
+
     public synchronized void removeLocation(long id) {
         Optional<Location> optionalLocation = repository.find(id);
         if (!optionalLocation.isPresent()) {
@@ -106,14 +331,58 @@ public class LocationService {
             }
         }
 
+        Optional<PendingLocation> queuedLocation = queuedLocations.stream()
+                .filter(pendingLocation -> pendingLocation.location.id() == id)
+                .findFirst();
+        if (queuedLocation.isPresent()) {
+            // Not ingested yet, so it's only in the repository.
+            queuedLocations.remove(queuedLocation.get());
+            queuedLocation.get().result.complete(false);
+            repository.removeLocation(id);
+            return;
+        }
+        PendingLocation ingestedLocation = ingestedLocations.get(id);
+        if (ingestedLocation != null) {
+            // The ingestion thread removes it from the distance matrix when its distances have been calculated.
+            ingestedLocation.removed = true;
+            repository.removeLocation(id);
+            return;
+        }
+
         optimizer.removeLocation(removedLocation);
         repository.removeLocation(id);
         distanceMatrix.removeLocation(removedLocation);
+        eventPublisher.publishEvent(new LocationRemovedEvent(this, id));
     }
 
     public synchronized void removeAll() {
+        queuedLocations.forEach(pendingLocation -> pendingLocation.result.complete(false));
+        queuedLocations.clear();
+        ingestedLocations.values().forEach(pendingLocation -> pendingLocation.removed = true);
         optimizer.removeAllLocations();
         repository.removeAll();
         distanceMatrix.clear();
+        eventPublisher.publishEvent(new LocationRemovedEvent(this, null));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ingestionExecutor.shutdownNow();
+    }
+
+    /**
+     * A location that hasn't been handed over to the optimizer yet. Guarded by the service's lock.
+     */
+    private static class PendingLocation {
+
+        private final Location location;
+        private final boolean inBatch;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private boolean removed = false;
+
+        private PendingLocation(Location location, boolean inBatch) {
+            this.location = location;
+            this.inBatch = inBatch;
+        }
     }
 }
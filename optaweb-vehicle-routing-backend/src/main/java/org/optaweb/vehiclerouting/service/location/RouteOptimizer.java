@@ -16,6 +16,8 @@
 
 package org.optaweb.vehiclerouting.service.location;
 
+import java.util.List;
+
 import org.optaweb.vehiclerouting.domain.Location;
 import org.optaweb.vehiclerouting.domain.Vehicle;
 
@@ -26,12 +28,27 @@ public interface RouteOptimizer {
 
     void addLocation(Location location, DistanceMatrixRow distanceMatrixRow);
 
+    /**
+     * Add multiple locations at once. A running solver is only interrupted once for all of them.
+     *
+     * @param locations new locations
+     * @param distanceMatrixRows distance matrix rows of the new locations in the same order as the locations
+     */
+    void addLocations(List<Location> locations, List<DistanceMatrixRow> distanceMatrixRows);
+
     void removeLocation(Location location);
 
     void removeAllLocations();
 
     void addVehicle(Vehicle vehicle);
 
+    /**
+     * Add multiple vehicles at once. A running solver is only interrupted once for all of them.
+     *
+     * @param vehicles new vehicles
+     */
+    void addVehicles(List<Vehicle> vehicles);
+
     void removeVehicle(Vehicle vehicle);
 
     void removeAllVehicles();
@@ -37,7 +37,7 @@ public class BoundingBox {
     public BoundingBox(Coordinates southWest, Coordinates northEast) {
         this.southWest = Objects.requireNonNull(southWest);
         this.northEast = Objects.requireNonNull(northEast);
-        if (southWest.latitude().compareTo(northEast.latitude()) >= 0) {
+        if (southWest.latitude() >= northEast.latitude()) {
             throw new IllegalArgumentException(
                     "South-west corner latitude ("
                             + southWest.latitude()
@@ -45,7 +45,7 @@ public class BoundingBox {
                             + northEast.latitude()
                             + "N)");
         }
-        if (southWest.longitude().compareTo(northEast.longitude()) >= 0) {
+        if (southWest.longitude() >= northEast.longitude()) {
             throw new IllegalArgumentException(
                     "South-west corner longitude ("
                             + southWest.longitude()
@@ -50,7 +50,7 @@ public class ReloadService {
 
     @EventListener
     public synchronized void reload(ApplicationStartedEvent event) {
-        vehicleRepository.vehicles().forEach(vehicleService::addVehicle);
-        locationRepository.locations().forEach(locationService::addLocation);
+        vehicleService.addVehicles(vehicleRepository.vehicles());
+        locationService.addLocations(locationRepository.locations());
     }
 }
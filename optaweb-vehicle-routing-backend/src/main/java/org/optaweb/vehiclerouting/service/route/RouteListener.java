@@ -40,8 +40,17 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * Handles route updates emitted by optimization plugin.
+ * <p>
+ * Tracks between pairs of locations are cached, so consecutive route updates only ask {@link Router} for the tracks
+ * of legs that haven't been part of any previous route.
+ * <p>
+ * The time it takes to turn an event into a routing plan, including fetching the tracks, is recorded
+ * in the {@value #CONVERSION_METRIC} timer.
  */
 @Service
 @Profile(NOT_TEST)
@@ -49,10 +58,14 @@ public class RouteListener implements ApplicationListener<RouteChangedEvent> {
 
     private static final Logger logger = LoggerFactory.getLogger(RouteListener.class);
 
+    static final String CONVERSION_METRIC = "optaweb.route.conversion";
+
     private final Router router;
     private final RoutingPlanConsumer routingPlanConsumer;
     private final VehicleRepository vehicleRepository;
     private final LocationRepository locationRepository;
+    private final TrackCache trackCache;
+    private final Timer conversionTimer;
 
     // TODO maybe remove state from the service and get best route from a repository
     private RoutingPlan bestRoutingPlan;
@@ -62,16 +75,24 @@ public class RouteListener implements ApplicationListener<RouteChangedEvent> {
             Router router,
             RoutingPlanConsumer routingPlanConsumer,
             VehicleRepository vehicleRepository,
-            LocationRepository locationRepository) {
+            LocationRepository locationRepository,
+            TrackCache trackCache,
+            MeterRegistry meterRegistry) {
         this.router = router;
         this.routingPlanConsumer = routingPlanConsumer;
         this.vehicleRepository = vehicleRepository;
         this.locationRepository = locationRepository;
+        this.trackCache = trackCache;
+        this.conversionTimer = Timer.builder(CONVERSION_METRIC)
+                .description("Time to convert a route changed event to a routing plan")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
         bestRoutingPlan = RoutingPlan.empty();
     }
 
     @Override
     public void onApplicationEvent(RouteChangedEvent event) {
+        Timer.Sample sample = Timer.start();
         // TODO persist the best solution
         Location depot = event.depotId().flatMap(locationRepository::find).orElse(null);
         try {
@@ -100,6 +121,7 @@ public class RouteListener implements ApplicationListener<RouteChangedEvent> {
                     depot,
                     new ArrayList<>(visitMap.values()),
                     routes);
+            sample.stop(conversionTimer);
             routingPlanConsumer.consumePlan(bestRoutingPlan);
         } catch (IllegalStateException e) {
             logger.warn("Discarding an outdated routing plan: {}", e.toString());
@@ -128,7 +150,11 @@ public class RouteListener implements ApplicationListener<RouteChangedEvent> {
         for (int i = 0; i < itinerary.size() - 1; i++) {
             Location fromLocation = itinerary.get(i);
             Location toLocation = itinerary.get(i + 1);
-            List<Coordinates> path = router.getPath(fromLocation.coordinates(), toLocation.coordinates());
+            List<Coordinates> path = trackCache.get(fromLocation, toLocation);
+            if (path == null) {
+                path = router.getPath(fromLocation.coordinates(), toLocation.coordinates());
+                trackCache.put(fromLocation, toLocation, path);
+            }
             paths.add(path);
         }
         return paths;
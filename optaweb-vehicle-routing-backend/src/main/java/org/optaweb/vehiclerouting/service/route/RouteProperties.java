@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.route;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("app.route")
+class RouteProperties {
+
+    /**
+     * Maximum total number of points of the tracks kept in the track cache. Zero disables the cache.
+     */
+    private int trackCacheMaxPoints = 500_000;
+
+    public int getTrackCacheMaxPoints() {
+        return trackCacheMaxPoints;
+    }
+
+    public void setTrackCacheMaxPoints(int trackCacheMaxPoints) {
+        this.trackCacheMaxPoints = trackCacheMaxPoints;
+    }
+}
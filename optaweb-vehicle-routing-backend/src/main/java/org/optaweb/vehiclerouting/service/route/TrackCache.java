@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.route;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.location.LocationRemovedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded in-memory cache of tracks (paths on the road network) between pairs of locations, keyed by location IDs.
+ * <p>
+ * The size is measured in track points, so that a few long tracks count as much as many short ones. When the cache is
+ * full, the least recently used tracks are evicted.
+ * <p>
+ * A location's coordinates never change and location IDs are not reused, so a cached track never gets outdated.
+ * Tracks of a location are evicted when the location is removed.
+ */
+@Component
+class TrackCache implements ApplicationListener<LocationRemovedEvent> {
+
+    private final int maxPoints;
+    // Access order makes the eldest entry the least recently used one.
+    private final LinkedHashMap<Key, List<Coordinates>> tracks = new LinkedHashMap<>(16, 0.75f, true);
+    // Keys of the tracks starting or ending at a location.
+    private final Map<Long, Set<Key>> keysByLocation = new HashMap<>();
+    private long points = 0;
+
+    @Autowired
+    TrackCache(RouteProperties routeProperties) {
+        this(routeProperties.getTrackCacheMaxPoints());
+    }
+
+    TrackCache(int maxPoints) {
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Get a cached track.
+     *
+     * @param from origin
+     * @param to destination
+     * @return track from origin to destination or {@code null} if it isn't cached
+     */
+    synchronized List<Coordinates> get(Location from, Location to) {
+        return tracks.get(new Key(from.id(), to.id()));
+    }
+
+    /**
+     * Cache a track. A track with more points than the cache can hold is not cached.
+     *
+     * @param from origin
+     * @param to destination
+     * @param track track from origin to destination
+     */
+    synchronized void put(Location from, Location to, List<Coordinates> track) {
+        if (maxPoints <= 0 || track.size() > maxPoints) {
+            return;
+        }
+        Key key = new Key(from.id(), to.id());
+        remove(key);
+        tracks.put(key, Collections.unmodifiableList(track));
+        keysByLocation.computeIfAbsent(key.from, id -> new HashSet<>()).add(key);
+        keysByLocation.computeIfAbsent(key.to, id -> new HashSet<>()).add(key);
+        points += track.size();
+        while (points > maxPoints) {
+            remove(tracks.keySet().iterator().next());
+        }
+    }
+
+    @Override
+    public synchronized void onApplicationEvent(LocationRemovedEvent event) {
+        if (event.locationId().isPresent()) {
+            evictLocation(event.locationId().get());
+        } else {
+            tracks.clear();
+            keysByLocation.clear();
+            points = 0;
+        }
+    }
+
+    /**
+     * Evict tracks that start or end at the given location.
+     *
+     * @param locationId ID of a removed location
+     */
+    synchronized void evictLocation(long locationId) {
+        Set<Key> keys = keysByLocation.remove(locationId);
+        if (keys != null) {
+            keys.forEach(this::remove);
+        }
+    }
+
+    private void remove(Key key) {
+        List<Coordinates> track = tracks.remove(key);
+        if (track != null) {
+            points -= track.size();
+            unindex(key.from, key);
+            unindex(key.to, key);
+        }
+    }
+
+    private void unindex(long locationId, Key key) {
+        Set<Key> keys = keysByLocation.get(locationId);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByLocation.remove(locationId);
+            }
+        }
+    }
+
+    /**
+     * Number of cached tracks.
+     *
+     * @return cache size
+     */
+    synchronized int size() {
+        return tracks.size();
+    }
+
+    /**
+     * Total number of points of the cached tracks.
+     *
+     * @return cached points
+     */
+    synchronized long points() {
+        return points;
+    }
+
+    private static final class Key {
+
+        private final long from;
+        private final long to;
+
+        private Key(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return from == key.from && to == key.to;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(from) + Long.hashCode(to);
+        }
+    }
+}
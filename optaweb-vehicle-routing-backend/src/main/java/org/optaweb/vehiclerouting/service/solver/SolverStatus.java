@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.solver;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Snapshot of what the solver is doing.
+ */
+public class SolverStatus {
+
+    /**
+     * What the solver is doing.
+     */
+    public enum Phase {
+        /**
+         * Building an initial solution.
+         */
+        CONSTRUCTION_HEURISTIC,
+        /**
+         * Improving the solution.
+         */
+        LOCAL_SEARCH,
+        /**
+         * Running a phase that is neither construction heuristic nor local search.
+         */
+        OTHER,
+        /**
+         * The solver has finished all phases and waits for a problem change.
+         */
+        WAITING,
+        /**
+         * The solver is not running, for example because there are no vehicles or no visits.
+         */
+        STOPPED
+    }
+
+    private static final SolverStatus STOPPED = new SolverStatus(
+            Phase.STOPPED, 0, Duration.ZERO, 0, Duration.ZERO, false);
+
+    /**
+     * Current phase (never {@code null}).
+     */
+    public final Phase phase;
+    /**
+     * Number of steps completed in the current phase.
+     */
+    public final long stepCount;
+    /**
+     * Time spent since the solver last (re)started. The solver restarts whenever it processes problem changes.
+     */
+    public final Duration timeSpent;
+    /**
+     * Score calculations per second since the previous status. Every move evaluated by the solver is scored once
+     * so this is also the move evaluation speed.
+     */
+    public final long scoreCalculationSpeed;
+    /**
+     * Time since the solver found the last new best solution. Grows while the solver fails to improve the solution.
+     */
+    public final Duration timeSinceBestSolution;
+    /**
+     * Whether there are problem changes that the solver hasn't processed yet.
+     */
+    public final boolean problemChangesPending;
+
+    /**
+     * Status of a solver that is not running.
+     *
+     * @return stopped status
+     */
+    public static SolverStatus stopped() {
+        return STOPPED;
+    }
+
+    /**
+     * Create a solver status.
+     *
+     * @param phase current phase
+     * @param stepCount number of steps completed in the current phase
+     * @param timeSpent time spent since the solver last (re)started
+     * @param scoreCalculationSpeed score calculations per second
+     * @param timeSinceBestSolution time since the last new best solution
+     * @param problemChangesPending whether there are unprocessed problem changes
+     */
+    public SolverStatus(
+            Phase phase,
+            long stepCount,
+            Duration timeSpent,
+            long scoreCalculationSpeed,
+            Duration timeSinceBestSolution,
+            boolean problemChangesPending) {
+        this.phase = Objects.requireNonNull(phase);
+        this.stepCount = stepCount;
+        this.timeSpent = Objects.requireNonNull(timeSpent);
+        this.scoreCalculationSpeed = scoreCalculationSpeed;
+        this.timeSinceBestSolution = Objects.requireNonNull(timeSinceBestSolution);
+        this.problemChangesPending = problemChangesPending;
+    }
+
+    @Override
+    public String toString() {
+        return "SolverStatus{" +
+                "phase=" + phase +
+                ", stepCount=" + stepCount +
+                ", timeSpent=" + timeSpent +
+                ", scoreCalculationSpeed=" + scoreCalculationSpeed +
+                ", timeSinceBestSolution=" + timeSinceBestSolution +
+                ", problemChangesPending=" + problemChangesPending +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.solver;
+
+import java.util.Objects;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when the solver status has been sampled.
+ */
+public class SolverStatusEvent extends ApplicationEvent {
+
+    public final SolverStatus status;
+
+    /**
+     * Create a new {@code ApplicationEvent}.
+     *
+     * @param source the object on which the event initially occurred or with
+     *        which the event is associated (never {@code null})
+     * @param status solver status (never {@code null})
+     */
+    public SolverStatusEvent(Object source, SolverStatus status) {
+        super(source);
+        this.status = Objects.requireNonNull(status);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.solver;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Passes solver status events to consumers.
+ */
+@Service
+public class SolverStatusListener implements ApplicationListener<SolverStatusEvent> {
+
+    private final SolverStatusConsumer solverStatusConsumer;
+
+    public SolverStatusListener(SolverStatusConsumer solverStatusConsumer) {
+        this.solverStatusConsumer = solverStatusConsumer;
+    }
+
+    @Override
+    public void onApplicationEvent(SolverStatusEvent event) {
+        solverStatusConsumer.consumeStatus(event.status);
+    }
+}
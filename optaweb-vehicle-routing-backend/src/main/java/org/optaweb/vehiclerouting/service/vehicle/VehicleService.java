@@ -17,7 +17,9 @@
 package org.optaweb.vehiclerouting.service.vehicle;
 
 import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -56,6 +58,25 @@ public class VehicleService {
         optimizer.addVehicle(Objects.requireNonNull(vehicle));
     }
 
+    /**
+     * Create multiple vehicles and add them to the optimizer at once.
+     *
+     * @param vehicleData new vehicles' data
+     */
+    public void createVehicles(List<VehicleData> vehicleData) {
+        addVehicles(vehicleData.stream().map(vehicleRepository::createVehicle).collect(toList()));
+    }
+
+    /**
+     * Add multiple existing vehicles to the optimizer at once.
+     *
+     * @param vehicles vehicles to be added
+     */
+    public void addVehicles(List<Vehicle> vehicles) {
+        vehicles.forEach(Objects::requireNonNull);
+        optimizer.addVehicles(vehicles);
+    }
+
     public void removeVehicle(long vehicleId) {
         Vehicle vehicle = vehicleRepository.removeVehicle(vehicleId);
         optimizer.removeVehicle(vehicle);
@@ -24,6 +24,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
 import com.graphhopper.reader.osm.GraphHopperOSM;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.StorableProperties;
 
 @Configuration
 @Profile(Profiles.TEST)
@@ -31,12 +34,18 @@ public class TestConfig {
 
     /**
      * Creates a GraphHopper mock that may be used when running a {@link SpringBootTest @SpringBootTest}.
+     * It describes an empty graph so that the router's profile can be resolved.
      *
      * @return mock GraphHopper
      */
     @Bean
     public GraphHopperOSM graphHopper() {
-        return Mockito.mock(GraphHopperOSM.class);
+        GraphHopperOSM graphHopper = Mockito.mock(GraphHopperOSM.class);
+        GraphHopperStorage graphHopperStorage = Mockito.mock(GraphHopperStorage.class);
+        Mockito.when(graphHopper.getGraphHopperLocation()).thenReturn("test-graph");
+        Mockito.when(graphHopper.getGraphHopperStorage()).thenReturn(graphHopperStorage);
+        Mockito.when(graphHopperStorage.getProperties()).thenReturn(new StorableProperties(new RAMDirectory()));
+        return graphHopper;
     }
 
     /**
@@ -19,8 +19,6 @@ package org.optaweb.vehiclerouting.domain;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
 
-import java.math.BigDecimal;
-
 import org.junit.jupiter.api.Test;
 
 class LocationDataTest {
@@ -33,8 +31,8 @@ class LocationDataTest {
 
     @Test
     void locations_are_equal_if_they_have_same_properties() {
-        Coordinates coordinates0 = new Coordinates(BigDecimal.ZERO, BigDecimal.ZERO);
-        Coordinates coordinates1 = new Coordinates(BigDecimal.ONE, BigDecimal.ONE);
+        Coordinates coordinates0 = Coordinates.valueOf(0, 0);
+        Coordinates coordinates1 = Coordinates.valueOf(1, 1);
         String description = "test description";
         LocationData equalLocationData = new LocationData(coordinates0, description);
 
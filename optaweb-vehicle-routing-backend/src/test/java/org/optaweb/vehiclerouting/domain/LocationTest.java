@@ -19,8 +19,6 @@ package org.optaweb.vehiclerouting.domain;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
 
-import java.math.BigDecimal;
-
 import org.junit.jupiter.api.Test;
 
 class LocationTest {
@@ -33,8 +31,8 @@ class LocationTest {
 
     @Test
     void locations_are_identified_based_on_id() {
-        final Coordinates coordinates0 = new Coordinates(BigDecimal.ZERO, BigDecimal.ZERO);
-        final Coordinates coordinates1 = new Coordinates(BigDecimal.ONE, BigDecimal.ONE);
+        final Coordinates coordinates0 = Coordinates.valueOf(0, 0);
+        final Coordinates coordinates1 = Coordinates.valueOf(1, 1);
         final String description = "test description";
         final long id = 0;
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+
+class DistanceFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String PROFILE = "test-profile";
+    private static final int MAX_NODE_COUNT = 1000;
+
+    private final Coordinates coordinates1 = Coordinates.valueOf(50.1, 4.2);
+    private final Coordinates coordinates2 = Coordinates.valueOf(51.7, 3.9);
+
+    @Test
+    void should_store_distances_between_nodes() {
+        try (DistanceFile distanceFile = open(tempDir.resolve("distances.bin"))) {
+            assertThat(distanceFile.node(coordinates1)).isEqualTo(DistanceFile.NO_NODE);
+            int node1 = distanceFile.addNode(coordinates1);
+            int node2 = distanceFile.addNode(coordinates2);
+            assertThat(node1).isNotEqualTo(node2);
+            assertThat(distanceFile.addNode(coordinates1)).isEqualTo(node1);
+            assertThat(distanceFile.node(coordinates2)).isEqualTo(node2);
+
+            assertThat(distanceFile.getDistance(node1, node2)).isNegative();
+            distanceFile.setDistance(node1, node2, 0);
+            distanceFile.setDistance(node2, node1, 21);
+            assertThat(distanceFile.getDistance(node1, node2)).isZero();
+            assertThat(distanceFile.getDistance(node2, node1)).isEqualTo(21);
+        }
+    }
+
+    @Test
+    void nodes_should_be_found_by_equal_coordinates() {
+        try (DistanceFile distanceFile = open(tempDir.resolve("distances.bin"))) {
+            int node = distanceFile.addNode(Coordinates.valueOf(50.10, 4.200));
+            assertThat(distanceFile.node(coordinates1)).isEqualTo(node);
+        }
+    }
+
+    @Test
+    void should_load_distances_when_reopened() {
+        Path path = tempDir.resolve("dir/distances.bin");
+        try (DistanceFile distanceFile = open(path)) {
+            distanceFile.setDistance(distanceFile.addNode(coordinates1), distanceFile.addNode(coordinates2), 12);
+        }
+        try (DistanceFile distanceFile = open(path)) {
+            assertThat(distanceFile.nodeCount()).isEqualTo(2);
+            assertThat(distanceFile.getDistance(distanceFile.node(coordinates1), distanceFile.node(coordinates2)))
+                    .isEqualTo(12);
+        }
+    }
+
+    @Test
+    void should_keep_distances_when_capacity_grows() {
+        Path path = tempDir.resolve("distances.bin");
+        int nodeCount = DistanceFile.INITIAL_CAPACITY * 4 + 1;
+        try (DistanceFile distanceFile = open(path)) {
+            for (int i = 0; i < nodeCount; i++) {
+                int node = distanceFile.addNode(Coordinates.valueOf(i, i));
+                for (int other = 0; other <= node; other++) {
+                    distanceFile.setDistance(node, other, 1000 * node + other);
+                    distanceFile.setDistance(other, node, 1000 * other + node);
+                }
+            }
+            assertThat(distanceFile.capacity()).isGreaterThanOrEqualTo(nodeCount);
+        }
+        try (DistanceFile distanceFile = open(path)) {
+            assertThat(distanceFile.nodeCount()).isEqualTo(nodeCount);
+            for (int from = 0; from < nodeCount; from++) {
+                for (int to = 0; to < nodeCount; to++) {
+                    assertThat(distanceFile.getDistance(from, to)).isEqualTo(1000 * from + to);
+                }
+            }
+        }
+    }
+
+    @Test
+    void cleared_file_should_not_return_old_distances() {
+        try (DistanceFile distanceFile = open(tempDir.resolve("distances.bin"))) {
+            distanceFile.setDistance(distanceFile.addNode(coordinates1), distanceFile.addNode(coordinates2), 12);
+            distanceFile.clear();
+            assertThat(distanceFile.nodeCount()).isZero();
+            assertThat(distanceFile.node(coordinates1)).isEqualTo(DistanceFile.NO_NODE);
+
+            // new nodes get the same numbers as the removed ones
+            int node1 = distanceFile.addNode(Coordinates.valueOf(1, 1));
+            int node2 = distanceFile.addNode(Coordinates.valueOf(2, 2));
+            assertThat(distanceFile.getDistance(node1, node2)).isNegative();
+        }
+    }
+
+    @Test
+    void should_discard_damaged_nodes() throws IOException {
+        Path path = tempDir.resolve("distances.bin");
+        try (DistanceFile distanceFile = open(path)) {
+            distanceFile.setDistance(distanceFile.addNode(coordinates1), distanceFile.addNode(coordinates2), 12);
+        }
+        // damage the second node's latitude
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(64 + 24);
+            file.writeDouble(0.5);
+        }
+        try (DistanceFile distanceFile = open(path)) {
+            assertThat(distanceFile.nodeCount()).isOne();
+            assertThat(distanceFile.node(coordinates1)).isZero();
+            assertThat(distanceFile.node(coordinates2)).isEqualTo(DistanceFile.NO_NODE);
+        }
+    }
+
+    @Test
+    void should_overwrite_file_that_is_not_a_distance_file() throws IOException {
+        Path path = tempDir.resolve("distances.bin");
+        Files.write(path, new byte[1000]);
+        try (DistanceFile distanceFile = open(path)) {
+            assertThat(distanceFile.nodeCount()).isZero();
+            assertThat(distanceFile.capacity()).isEqualTo(DistanceFile.INITIAL_CAPACITY);
+        }
+    }
+
+    @Test
+    void should_overwrite_file_that_was_being_resized() throws IOException {
+        Path path = tempDir.resolve("distances.bin");
+        try (DistanceFile distanceFile = open(path)) {
+            distanceFile.addNode(coordinates1);
+        }
+        // set the dirty flag
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(16);
+            file.writeInt(1);
+        }
+        try (DistanceFile distanceFile = open(path)) {
+            assertThat(distanceFile.nodeCount()).isZero();
+        }
+    }
+
+    @Test
+    void should_overwrite_file_written_with_a_different_profile() {
+        Path path = tempDir.resolve("distances.bin");
+        try (DistanceFile distanceFile = open(path)) {
+            distanceFile.setDistance(distanceFile.addNode(coordinates1), distanceFile.addNode(coordinates2), 12);
+        }
+        try (DistanceFile distanceFile = DistanceFile.open(path, "other-profile", MAX_NODE_COUNT)) {
+            assertThat(distanceFile.nodeCount()).isZero();
+            assertThat(distanceFile.node(coordinates1)).isEqualTo(DistanceFile.NO_NODE);
+        }
+    }
+
+    @Test
+    void should_not_add_nodes_beyond_the_limit() {
+        int maxNodeCount = DistanceFile.INITIAL_CAPACITY + 1;
+        try (DistanceFile distanceFile = DistanceFile.open(tempDir.resolve("distances.bin"), PROFILE, maxNodeCount)) {
+            for (int i = 0; i < maxNodeCount; i++) {
+                assertThat(distanceFile.addNode(Coordinates.valueOf(i, i))).isEqualTo(i);
+            }
+            assertThat(distanceFile.addNode(Coordinates.valueOf(-1, -1))).isEqualTo(DistanceFile.NO_NODE);
+            // existing nodes are still found
+            assertThat(distanceFile.addNode(Coordinates.valueOf(0, 0))).isZero();
+            assertThat(distanceFile.capacity()).isEqualTo(DistanceFile.INITIAL_CAPACITY * 2);
+        }
+    }
+
+    @Test
+    void should_overwrite_file_that_exceeds_the_node_limit() {
+        Path path = tempDir.resolve("distances.bin");
+        try (DistanceFile distanceFile = open(path)) {
+            for (int i = 0; i <= DistanceFile.INITIAL_CAPACITY; i++) {
+                distanceFile.addNode(Coordinates.valueOf(i, i));
+            }
+        }
+        try (DistanceFile distanceFile = DistanceFile.open(path, PROFILE, DistanceFile.INITIAL_CAPACITY)) {
+            assertThat(distanceFile.nodeCount()).isZero();
+            assertThat(distanceFile.capacity()).isEqualTo(DistanceFile.INITIAL_CAPACITY);
+        }
+    }
+
+    private static DistanceFile open(Path path) {
+        return DistanceFile.open(path, PROFILE, MAX_NODE_COUNT);
+    }
+}
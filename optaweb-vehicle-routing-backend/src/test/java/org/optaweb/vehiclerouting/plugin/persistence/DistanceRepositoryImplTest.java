@@ -18,64 +18,178 @@ package org.optaweb.vehiclerouting.plugin.persistence;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculator;
+import org.springframework.dao.DataIntegrityViolationException;
 
 @ExtendWith(MockitoExtension.class)
 class DistanceRepositoryImplTest {
 
+    private static final String PROFILE = "test-profile";
+
     @Mock
     private DistanceCrudRepository crudRepository;
-    @InjectMocks
+    @Mock
+    private DistanceProfileCrudRepository profileRepository;
+    @Mock
+    private DistanceCalculator distanceCalculator;
     private DistanceRepositoryImpl repository;
     @Captor
-    private ArgumentCaptor<DistanceEntity> distanceEntityArgumentCaptor;
+    private ArgumentCaptor<Collection<DistanceEntity>> distanceEntitiesArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<DistanceProfileEntity> profileArgumentCaptor;
 
     private final Location from = new Location(1, Coordinates.valueOf(7, -4.0));
     private final Location to = new Location(2, Coordinates.valueOf(5, 9.0));
 
+    @BeforeEach
+    void setUp() {
+        when(distanceCalculator.profile()).thenReturn(PROFILE);
+        when(profileRepository.findById(DistanceProfileEntity.ID))
+                .thenReturn(Optional.of(new DistanceProfileEntity(PROFILE)));
+        repository = new DistanceRepositoryImpl(crudRepository, profileRepository, distanceCalculator);
+    }
+
+    @Test
+    void should_keep_distances_calculated_with_the_same_profile() {
+        verify(profileRepository, never()).save(any());
+        verifyNoInteractions(crudRepository);
+    }
+
+    @Test
+    void should_delete_distances_calculated_with_a_different_profile() {
+        when(profileRepository.findById(DistanceProfileEntity.ID))
+                .thenReturn(Optional.of(new DistanceProfileEntity("other-profile")));
+
+        new DistanceRepositoryImpl(crudRepository, profileRepository, distanceCalculator);
+
+        verify(crudRepository).deleteAllInBulk();
+        verify(profileRepository).save(profileArgumentCaptor.capture());
+        assertThat(profileArgumentCaptor.getValue().getProfile()).isEqualTo(PROFILE);
+    }
+
+    @Test
+    void should_delete_distances_with_unknown_profile() {
+        when(profileRepository.findById(DistanceProfileEntity.ID)).thenReturn(Optional.empty());
+
+        new DistanceRepositoryImpl(crudRepository, profileRepository, distanceCalculator);
+
+        verify(crudRepository).deleteAllInBulk();
+        verify(profileRepository).save(profileArgumentCaptor.capture());
+        assertThat(profileArgumentCaptor.getValue().getProfile()).isEqualTo(PROFILE);
+    }
+
     @Test
-    void should_save_distance() {
+    void should_insert_distances_except_negative_ones() {
         long distance = 956766417;
-        repository.saveDistance(from, to, distance);
-        verify(crudRepository).save(distanceEntityArgumentCaptor.capture());
-        DistanceEntity distanceEntity = distanceEntityArgumentCaptor.getValue();
-        assertThat(distanceEntity.getDistance()).isEqualTo(distance);
-        assertThat(distanceEntity.getKey().getFromId()).isEqualTo(from.id());
-        assertThat(distanceEntity.getKey().getToId()).isEqualTo(to.id());
+        repository.saveDistances(Arrays.asList(from, to), Arrays.asList(from, to), new long[][] {
+                { -1, distance },
+                { -1, -1 } });
+        verify(crudRepository).insertAll(distanceEntitiesArgumentCaptor.capture());
+        assertThat(distanceEntitiesArgumentCaptor.getValue()).containsExactly(
+                new DistanceEntity(new DistanceKey(from.id(), to.id()), distance));
     }
 
     @Test
-    void should_return_distance_when_entity_is_found() {
-        DistanceKey distanceKey = new DistanceKey(from.id(), to.id());
+    void should_not_insert_distances_that_have_been_saved_in_the_meantime() {
+        long distance = 3;
+        when(crudRepository.findDistances(anyList(), anyList()))
+                .thenReturn(Collections.singletonList(new Object[] { from.id(), to.id(), distance }));
+        repository.saveDistances(Arrays.asList(from, to), Arrays.asList(from, to), new long[][] {
+                { -1, distance },
+                { distance, -1 } });
+        verify(crudRepository).insertAll(distanceEntitiesArgumentCaptor.capture());
+        assertThat(distanceEntitiesArgumentCaptor.getValue()).containsExactly(
+                new DistanceEntity(new DistanceKey(to.id(), from.id()), distance));
+    }
+
+    @Test
+    void should_not_insert_anything_when_all_distances_have_been_saved_in_the_meantime() {
+        when(crudRepository.findDistances(anyList(), anyList()))
+                .thenReturn(Collections.singletonList(new Object[] { from.id(), to.id(), 1L }));
+        repository.saveDistances(Arrays.asList(from), Arrays.asList(to), new long[][] { { 1 } });
+        verify(crudRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void should_ignore_concurrently_inserted_distances() {
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(crudRepository).insertAll(any());
+        repository.saveDistances(Arrays.asList(from), Arrays.asList(to), new long[][] { { 1 } });
+        verify(crudRepository).insertAll(any());
+    }
+
+    @Test
+    void should_not_insert_anything_when_all_distances_are_negative() {
+        repository.saveDistances(Arrays.asList(from), Arrays.asList(to), new long[][] { { -1 } });
+        verifyNoInteractions(crudRepository);
+    }
+
+    @Test
+    void should_return_distances_when_entities_are_found() {
         long distance = 10305;
-        DistanceEntity distanceEntity = new DistanceEntity(distanceKey, distance);
-        when(crudRepository.findById(distanceKey)).thenReturn(Optional.of(distanceEntity));
-        assertThat(repository.getDistance(from, to)).isEqualTo(distance);
+        when(crudRepository.findDistances(
+                Arrays.asList(from.id(), to.id()),
+                Arrays.asList(to.id(), from.id())))
+                .thenReturn(Collections.singletonList(new Object[] { from.id(), to.id(), distance }));
+        assertThat(repository.getDistances(Arrays.asList(from, to), Arrays.asList(to, from))).isEqualTo(
+                new long[][] {
+                        { distance, -1 },
+                        { -1, -1 } });
     }
 
     @Test
-    void should_return_negative_number_when_distance_not_found() {
-        when(crudRepository.findById(any(DistanceKey.class))).thenReturn(Optional.empty());
-        assertThat(repository.getDistance(from, to))
+    void should_return_negative_numbers_when_distances_not_found() {
+        when(crudRepository.findDistances(anyList(), anyList())).thenReturn(Collections.emptyList());
+        long[][] distances = repository.getDistances(Arrays.asList(from), Arrays.asList(to));
+        assertThat(distances[0][0])
                 .isNegative()
                 // Shouldn't be necessary but improves mutation coverage report because Pitest does -(x + 1) mutation,
                 // which turns -1 into -0, so this test wouldn't kill that mutation without the following:
                 .isNotZero();
     }
 
+    @Test
+    void should_query_distances_in_chunks() {
+        int locationCount = DistanceRepositoryImpl.MAX_IDS_PER_QUERY + 1;
+        List<Location> locations = LongStream.range(0, locationCount)
+                .mapToObj(id -> new Location(id, Coordinates.valueOf(0, 0)))
+                .collect(Collectors.toList());
+        long[][] distances = repository.getDistances(locations, locations);
+        assertThat(distances).hasSize(locationCount);
+        // 2 origin chunks × 2 destination chunks
+        verify(crudRepository, times(4)).findDistances(anyList(), anyList());
+    }
+
+    @Test
+    void should_not_query_empty_location_lists() {
+        assertThat(repository.getDistances(Collections.emptyList(), Arrays.asList(to))).isEmpty();
+        verifyNoInteractions(crudRepository);
+    }
+
     @Test
     void should_delete_distance_by_location_id() {
         repository.deleteDistances(from);
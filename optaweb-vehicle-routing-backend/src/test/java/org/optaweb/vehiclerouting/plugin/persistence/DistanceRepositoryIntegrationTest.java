@@ -16,12 +16,19 @@
 
 package org.optaweb.vehiclerouting.plugin.persistence;
 
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
@@ -30,11 +37,42 @@ class DistanceRepositoryIntegrationTest {
 
     @Autowired
     private DistanceCrudRepository crudRepository;
+    @Autowired
+    private DistanceProfileCrudRepository profileRepository;
     private DistanceRepositoryImpl repository;
 
     @BeforeEach
     void setUp() {
-        repository = new DistanceRepositoryImpl(crudRepository);
+        repository = distanceRepository("profile-1");
+    }
+
+    private DistanceRepositoryImpl distanceRepository(String profile) {
+        return new DistanceRepositoryImpl(crudRepository, profileRepository, new DistanceCalculator() {
+            @Override
+            public long travelTimeMillis(Coordinates from, Coordinates to) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String profile() {
+                return profile;
+            }
+        });
+    }
+
+    @Test
+    void distances_should_be_deleted_when_the_profile_changes() {
+        List<Location> locations = Arrays.asList(
+                new Location(1, Coordinates.valueOf(1, 1)),
+                new Location(2, Coordinates.valueOf(2, 2)));
+        long[][] distances = { { 0, 12 }, { 21, 0 } };
+        repository.saveDistances(locations, locations, distances);
+
+        assertThat(distanceRepository("profile-1").getDistances(locations, locations)).isEqualTo(distances);
+        assertThat(distanceRepository("profile-2").getDistances(locations, locations))
+                .isEqualTo(new long[][] { { -1, -1 }, { -1, -1 } });
+        assertThat(profileRepository.findById(DistanceProfileEntity.ID))
+                .get().extracting(DistanceProfileEntity::getProfile).isEqualTo("profile-2");
     }
 
     @Test
@@ -75,13 +113,55 @@ class DistanceRepositoryIntegrationTest {
     }
 
     @Test
-    void should_return_saved_distance() {
+    void should_return_saved_distances() {
         Location location1 = new Location(1, Coordinates.valueOf(7, -4.0));
         Location location2 = new Location(2, Coordinates.valueOf(5, 9.0));
+        Location location3 = new Location(3, Coordinates.valueOf(6, 2.0));
+        List<Location> locations = Arrays.asList(location1, location2, location3);
+
+        long[][] distances = {
+                { -1, 12, 13 },
+                { 21, -1, 23 },
+                { 31, -1, -1 } };
+        repository.saveDistances(locations, locations, distances);
+
+        assertThat(crudRepository.count()).isEqualTo(5);
+        assertThat(repository.getDistances(locations, locations)).isEqualTo(distances);
+        assertThat(repository.getDistances(Arrays.asList(location3, location1), Arrays.asList(location2, location1)))
+                .isEqualTo(new long[][] {
+                        { -1, 31 },
+                        { 12, -1 } });
+    }
 
-        long distance = 956766417;
-        repository.saveDistance(location1, location2, distance);
-        assertThat(repository.getDistance(location1, location2)).isEqualTo(distance);
+    @Test
+    void should_skip_distances_that_have_been_saved() {
+        Location location1 = new Location(1, Coordinates.valueOf(7, -4.0));
+        Location location2 = new Location(2, Coordinates.valueOf(5, 9.0));
+        List<Location> locations = Arrays.asList(location1, location2);
+        repository.saveDistances(locations, locations, new long[][] {
+                { -1, 12 },
+                { -1, -1 } });
+
+        repository.saveDistances(locations, locations, new long[][] {
+                { -1, 12 },
+                { 21, -1 } });
+
+        assertThat(crudRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_return_distances_between_more_locations_than_fit_in_one_query() {
+        List<Location> locations = LongStream.rangeClosed(1, DistanceRepositoryImpl.MAX_IDS_PER_QUERY + 1)
+                .mapToObj(id -> new Location(id, Coordinates.valueOf(0, 0)))
+                .collect(toList());
+        Location last = locations.get(locations.size() - 1);
+        long[][] distances = new long[1][locations.size()];
+        Arrays.fill(distances[0], 7);
+        distances[0][locations.size() - 1] = -1;
+        repository.saveDistances(singletonList(last), locations, distances);
+
+        assertThat(repository.getDistances(singletonList(last), locations)).isEqualTo(distances);
+        assertThat(repository.getDistances(locations, singletonList(last))[0][0]).isNegative();
     }
 
     @Test
@@ -89,6 +169,6 @@ class DistanceRepositoryIntegrationTest {
         Location location1 = new Location(1, Coordinates.valueOf(7, -4.0));
         Location location2 = new Location(2, Coordinates.valueOf(5, 9.0));
 
-        assertThat(repository.getDistance(location1, location2)).isNegative();
+        assertThat(repository.getDistances(Arrays.asList(location1), Arrays.asList(location2))[0][0]).isNegative();
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.optaweb.vehiclerouting.plugin.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+
+class FileDistanceRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileDistanceRepository repository;
+
+    private final Location location1 = new Location(1, Coordinates.valueOf(7, -4.0));
+    private final Location location2 = new Location(2, Coordinates.valueOf(5, 9.0));
+    private final Location location3 = new Location(3, Coordinates.valueOf(6, 2.0));
+    private final List<Location> locations = Arrays.asList(location1, location2, location3);
+
+    @BeforeEach
+    void setUp() {
+        repository = new FileDistanceRepository(DistanceFile.open(tempDir.resolve("distances.bin"), "test", 4));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void should_return_saved_distances() {
+        long[][] distances = {
+                { -1, 12, 13 },
+                { 21, -1, 23 },
+                { 31, -1, -1 } };
+        repository.saveDistances(locations, locations, distances);
+
+        assertThat(repository.getDistances(locations, locations)).isEqualTo(distances);
+        assertThat(repository.getDistances(Arrays.asList(location3, location1), Arrays.asList(location2, location1)))
+                .isEqualTo(new long[][] {
+                        { -1, 31 },
+                        { 12, -1 } });
+    }
+
+    @Test
+    void should_return_negative_number_when_distance_not_found() {
+        assertThat(repository.getDistances(Arrays.asList(location1), Arrays.asList(location2))[0][0]).isNegative();
+    }
+
+    @Test
+    void distances_should_be_found_by_coordinates() {
+        repository.saveDistances(
+                Collections.singletonList(location1),
+                Collections.singletonList(location2),
+                new long[][] { { 12 } });
+        repository.deleteDistances(location2);
+
+        Location sameCoordinatesAs2 = new Location(100, location2.coordinates());
+        assertThat(repository.getDistances(
+                Collections.singletonList(location1),
+                Collections.singletonList(sameCoordinatesAs2)))
+                .isEqualTo(new long[][] { { 12 } });
+    }
+
+    @Test
+    void should_delete_all_distances() {
+        repository.saveDistances(
+                Collections.singletonList(location1),
+                Collections.singletonList(location2),
+                new long[][] { { 12 } });
+        repository.deleteAll();
+
+        assertThat(repository.getDistances(Arrays.asList(location1), Arrays.asList(location2))[0][0]).isNegative();
+    }
+
+    @Test
+    void should_clear_the_file_when_new_locations_do_not_fit() {
+        long[][] distances = {
+                { -1, 12, 13 },
+                { 21, -1, 23 },
+                { 31, -1, -1 } };
+        repository.saveDistances(locations, locations, distances);
+
+        Location location4 = new Location(4, Coordinates.valueOf(1, 1));
+        Location location5 = new Location(5, Coordinates.valueOf(2, 2));
+        repository.saveDistances(Collections.singletonList(location4), Collections.singletonList(location5), new long[][] { { 45 } });
+
+        assertThat(repository.getDistances(Collections.singletonList(location4), Collections.singletonList(location5)))
+                .isEqualTo(new long[][] { { 45 } });
+        assertThat(repository.getDistances(locations, locations))
+                .allSatisfy(row -> assertThat(row).containsOnly(-1));
+    }
+
+    @Test
+    void should_save_distances_that_fit_when_there_are_more_locations_than_the_file_can_hold() {
+        Location location4 = new Location(4, Coordinates.valueOf(1, 1));
+        Location location5 = new Location(5, Coordinates.valueOf(2, 2));
+        List<Location> from = Arrays.asList(location1, location2, location3);
+        List<Location> to = Arrays.asList(location4, location5);
+        repository.saveDistances(from, to, new long[][] {
+                { 14, 15 },
+                { 24, 25 },
+                { 34, 35 } });
+
+        // location3 is the fifth location and doesn't fit
+        assertThat(repository.getDistances(from, to)).isEqualTo(new long[][] {
+                { 14, 15 },
+                { 24, 25 },
+                { -1, -1 } });
+    }
+}
@@ -22,6 +22,7 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -50,8 +51,8 @@ class LocationRepositoryImplTest {
     private static LocationEntity locationEntity(Location location) {
         return new LocationEntity(
                 location.id(),
-                location.coordinates().latitude(),
-                location.coordinates().longitude(),
+                BigDecimal.valueOf(location.coordinates().latitude()),
+                BigDecimal.valueOf(location.coordinates().longitude()),
                 location.description());
     }
 
@@ -69,8 +70,8 @@ class LocationRepositoryImplTest {
         // assert
         // -- the correct values were used to save the entity
         LocationEntity savedLocation = locationEntityCaptor.getValue();
-        assertThat(savedLocation.getLatitude()).isEqualTo(savedCoordinates.latitude());
-        assertThat(savedLocation.getLongitude()).isEqualTo(savedCoordinates.longitude());
+        assertThat(savedLocation.getLatitude()).isEqualTo(BigDecimal.valueOf(savedCoordinates.latitude()));
+        assertThat(savedLocation.getLongitude()).isEqualTo(BigDecimal.valueOf(savedCoordinates.longitude()));
         assertThat(savedLocation.getDescription()).isEqualTo(savedDescription);
 
         // -- created domain location is equal to the entity returned by repository.save()
@@ -79,7 +80,9 @@ class LocationRepositoryImplTest {
         // for further operations as the save() operation may update it (for example generate the ID).
         assertThat(newLocation.id()).isEqualTo(newEntity.getId());
         assertThat(newLocation.coordinates())
-                .isEqualTo(new Coordinates(newEntity.getLatitude(), newEntity.getLongitude()));
+                .isEqualTo(Coordinates.valueOf(
+                        newEntity.getLatitude().doubleValue(),
+                        newEntity.getLongitude().doubleValue()));
         assertThat(newLocation.description()).isEqualTo(newEntity.getDescription());
     }
 
@@ -94,7 +94,7 @@ class LocationRepositoryIntegrationTest {
                 .orElseThrow(IllegalStateException::new);
         Location testLocation = new Location(
                 testEntity.getId(),
-                new Coordinates(testEntity.getLatitude(), testEntity.getLongitude()));
+                new Coordinates(testEntity.getLatitude().doubleValue(), testEntity.getLongitude().doubleValue()));
 
         assertThat(repository.locations())
                 .hasSize(locationCount)
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+
+@ExtendWith(MockitoExtension.class)
+class BestSolutionPublisherTest {
+
+    private final VehicleRoutingSolution solution1 = SolutionFactory.emptySolution();
+    private final VehicleRoutingSolution solution2 = SolutionFactory.emptySolution();
+    private final VehicleRoutingSolution solution3 = SolutionFactory.emptySolution();
+
+    @Mock
+    private RouteChangedEventPublisher routeChangedEventPublisher;
+
+    private BestSolutionPublisher bestSolutionPublisher;
+
+    private BestSolutionPublisher publisher(Duration publishInterval) {
+        PlannerProperties plannerProperties = new PlannerProperties();
+        plannerProperties.setPublishInterval(publishInterval);
+        bestSolutionPublisher = new BestSolutionPublisher(routeChangedEventPublisher, plannerProperties);
+        return bestSolutionPublisher;
+    }
+
+    @AfterEach
+    void shutdown() {
+        bestSolutionPublisher.shutdown();
+    }
+
+    @Test
+    void should_publish_solution_on_a_different_thread() {
+        AtomicReference<Thread> publishingThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            publishingThread.set(Thread.currentThread());
+            return null;
+        }).when(routeChangedEventPublisher).publishSolution(solution1);
+
+        publisher(Duration.ZERO).publishSolution(solution1);
+
+        verify(routeChangedEventPublisher, timeout(5000)).publishSolution(solution1);
+        assertThat(publishingThread.get()).isNotNull().isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void should_only_publish_latest_solution_found_during_publish_interval() {
+        publisher(Duration.ofMillis(500));
+
+        bestSolutionPublisher.publishSolution(solution1);
+        verify(routeChangedEventPublisher, timeout(5000)).publishSolution(solution1);
+
+        bestSolutionPublisher.publishSolution(solution2);
+        bestSolutionPublisher.publishSolution(solution3);
+
+        verify(routeChangedEventPublisher, timeout(5000)).publishSolution(solution3);
+        verify(routeChangedEventPublisher, never()).publishSolution(solution2);
+    }
+
+    @Test
+    void discarded_solution_should_not_be_published() {
+        publisher(Duration.ofMillis(200));
+
+        bestSolutionPublisher.publishSolution(solution1);
+        verify(routeChangedEventPublisher, timeout(5000)).publishSolution(solution1);
+
+        bestSolutionPublisher.publishSolution(solution2);
+        bestSolutionPublisher.discardPendingSolution();
+
+        verify(routeChangedEventPublisher, after(500).never()).publishSolution(solution2);
+    }
+
+    @Test
+    void should_keep_publishing_after_publication_fails() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Listener failed");
+        }).when(routeChangedEventPublisher).publishSolution(solution1);
+        publisher(Duration.ZERO);
+
+        bestSolutionPublisher.publishSolution(solution1);
+        verify(routeChangedEventPublisher, timeout(5000)).publishSolution(solution1);
+
+        bestSolutionPublisher.publishSolution(solution2);
+        verify(routeChangedEventPublisher, timeout(5000)).publishSolution(solution2);
+    }
+}
@@ -18,9 +18,16 @@ package org.optaweb.vehiclerouting.plugin.planner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.Test;
+import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Distance;
+import org.optaweb.vehiclerouting.domain.Location;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocation;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocationFactory;
 import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
@@ -36,8 +43,23 @@ class DistanceMapImplTest {
     void distance_map_should_return_value_from_distance_matrix_row() {
         PlanningLocation location2 = PlanningLocationFactory.testLocation(2);
         Distance distance = Distance.ofMillis(45000);
-        DistanceMatrixRow matrixRow = locationId -> distance;
+        DistanceMatrixRow matrixRow = new FixedDistanceMatrixRow(distance);
         DistanceMapImpl distanceMap = new DistanceMapImpl(matrixRow);
         assertThat(distanceMap.distanceTo(location2)).isEqualTo(distance.millis());
     }
+
+    @Test
+    void distance_map_should_read_distance_by_index_when_location_has_index() {
+        Location domainLocation = new Location(2, Coordinates.valueOf(0, 0));
+        int index = 7;
+        PlanningLocation location2 = PlanningLocationFactory.fromDomain(domainLocation, index, location -> 0);
+        long millis = 3000;
+        DistanceMatrixRow matrixRow = mock(DistanceMatrixRow.class);
+        when(matrixRow.distanceMillisTo(index)).thenReturn(millis);
+
+        DistanceMapImpl distanceMap = new DistanceMapImpl(matrixRow);
+
+        assertThat(distanceMap.distanceTo(location2)).isEqualTo(millis);
+        verify(matrixRow, never()).distanceTo(anyLong());
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import java.util.Objects;
+
+import org.optaweb.vehiclerouting.domain.Distance;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+
+/**
+ * Distance matrix row test double that returns the same distance to any location.
+ */
+class FixedDistanceMatrixRow implements DistanceMatrixRow {
+
+    private final Distance distance;
+
+    FixedDistanceMatrixRow(Distance distance) {
+        this.distance = Objects.requireNonNull(distance);
+    }
+
+    @Override
+    public Distance distanceTo(long locationId) {
+        return distance;
+    }
+
+    @Override
+    public int locationIndex() {
+        return 0;
+    }
+
+    @Override
+    public long distanceMillisTo(int locationIndex) {
+        return distance.millis();
+    }
+}
@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.optaweb.vehiclerouting.domain.VehicleFactory.createVehicle;
@@ -30,6 +31,8 @@ import static org.optaweb.vehiclerouting.domain.VehicleFactory.testVehicle;
 import static org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocationFactory.fromDomain;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -51,7 +54,7 @@ import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
 @ExtendWith(MockitoExtension.class)
 class RouteOptimizerImplTest {
 
-    private final DistanceMatrixRow matrixRow = locationId -> Distance.ZERO;
+    private final DistanceMatrixRow matrixRow = new FixedDistanceMatrixRow(Distance.ZERO);
     private final Location location1 = new Location(1, Coordinates.valueOf(1.0, 0.1));
     private final Location location2 = new Location(2, Coordinates.valueOf(0.2, 2.2));
     private final Location location3 = new Location(3, Coordinates.valueOf(3.4, 5.6));
@@ -60,11 +63,19 @@ class RouteOptimizerImplTest {
     private ArgumentCaptor<VehicleRoutingSolution> solutionArgumentCaptor;
     @Captor
     private ArgumentCaptor<PlanningVehicle> vehicleArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<Runnable> visitRemovedCallbackCaptor;
+    @Captor
+    private ArgumentCaptor<List<PlanningVisit>> visitListArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<List<PlanningVehicle>> vehicleListArgumentCaptor;
 
     @Mock
     private SolverManager solverManager;
     @Mock
     private RouteChangedEventPublisher routeChangedEventPublisher;
+    @Mock
+    private DistanceMatrixRow removedMatrixRow;
     @InjectMocks
     private RouteOptimizerImpl routeOptimizer;
 
@@ -194,7 +205,7 @@ class RouteOptimizerImplTest {
     @Test
     void each_location_should_have_a_distance_map_after_it_is_added() {
         long millis = 8079;
-        routeOptimizer.addLocation(location1, locationId -> Distance.ofMillis(millis));
+        routeOptimizer.addLocation(location1, new FixedDistanceMatrixRow(Distance.ofMillis(millis)));
 
         VehicleRoutingSolution solution = verifyPublishingPreliminarySolution();
         assertThat(solution.getDepotList()).hasSize(1);
@@ -361,7 +372,7 @@ class RouteOptimizerImplTest {
 
         // assert
         ArgumentCaptor<PlanningVisit> visitArgumentCaptor = ArgumentCaptor.forClass(PlanningVisit.class);
-        verify(solverManager).removeVisit(visitArgumentCaptor.capture());
+        verify(solverManager).removeVisit(visitArgumentCaptor.capture(), any(Runnable.class));
         assertThat(visitArgumentCaptor.getValue().getId()).isEqualTo(location2.id());
         // solver still running
         verify(solverManager, never()).stopSolver();
@@ -505,6 +516,148 @@ class RouteOptimizerImplTest {
         assertThatCode(() -> routeOptimizer.removeAllVehicles()).doesNotThrowAnyException();
     }
 
+    @Test
+    void removed_location_should_be_released_immediately_when_solver_is_not_running() {
+        routeOptimizer.addLocation(location1, matrixRow);
+        routeOptimizer.addLocation(location2, removedMatrixRow);
+
+        routeOptimizer.removeLocation(location2);
+
+        verify(removedMatrixRow).release();
+    }
+
+    @Test
+    void removed_visit_should_be_released_when_solver_has_removed_it() {
+        routeOptimizer.addVehicle(testVehicle(1));
+        routeOptimizer.addLocation(location1, matrixRow);
+        routeOptimizer.addLocation(location2, removedMatrixRow);
+        routeOptimizer.addLocation(location3, matrixRow);
+
+        routeOptimizer.removeLocation(location2);
+
+        // the solver may still be using the row
+        verify(removedMatrixRow, never()).release();
+        verify(solverManager).removeVisit(any(PlanningVisit.class), visitRemovedCallbackCaptor.capture());
+        // the solver has processed the problem fact change
+        visitRemovedCallbackCaptor.getValue().run();
+        verify(removedMatrixRow).release();
+    }
+
+    @Test
+    void pending_visit_removals_should_be_released_when_solver_stops() {
+        Vehicle vehicle = testVehicle(1);
+        routeOptimizer.addVehicle(vehicle);
+        routeOptimizer.addLocation(location1, matrixRow);
+        routeOptimizer.addLocation(location2, removedMatrixRow);
+        routeOptimizer.addLocation(location3, matrixRow);
+        routeOptimizer.removeLocation(location2);
+        verify(solverManager).removeVisit(any(PlanningVisit.class), visitRemovedCallbackCaptor.capture());
+
+        // the solver is stopped before it processes the problem fact change
+        routeOptimizer.removeVehicle(vehicle);
+        verify(solverManager).stopSolver();
+        verify(removedMatrixRow).release();
+
+        // the row is only released once
+        visitRemovedCallbackCaptor.getValue().run();
+        verify(removedMatrixRow, times(1)).release();
+    }
+
+    @Test
+    void bulk_added_locations_should_start_solver_once_with_all_visits() {
+        routeOptimizer.addVehicle(testVehicle(1));
+        clearInvocations(routeChangedEventPublisher);
+
+        routeOptimizer.addLocations(
+                Arrays.asList(location1, location2, location3),
+                Arrays.asList(matrixRow, matrixRow, matrixRow));
+
+        VehicleRoutingSolution solution = verifySolverStartedWithSolution();
+        assertThat(solution.getDepotList()).extracting(PlanningDepot::getId).containsExactly(location1.id());
+        assertThat(solution.getVisitList())
+                .extracting(PlanningVisit::getId)
+                .containsExactly(location2.id(), location3.id());
+        verify(solverManager, never()).addVisit(any());
+        verify(solverManager, never()).addVisits(any());
+        verifyNoInteractions(routeChangedEventPublisher);
+    }
+
+    @Test
+    void bulk_added_locations_should_reach_running_solver_in_a_single_problem_fact_change() {
+        Location location4 = new Location(4, Coordinates.valueOf(7.8, 9.0));
+        routeOptimizer.addVehicle(testVehicle(1));
+        routeOptimizer.addLocation(location1, matrixRow);
+        routeOptimizer.addLocation(location2, matrixRow);
+        verify(solverManager).startSolver(any(VehicleRoutingSolution.class));
+
+        routeOptimizer.addLocations(Arrays.asList(location3, location4), Arrays.asList(matrixRow, matrixRow));
+
+        verify(solverManager).addVisits(visitListArgumentCaptor.capture());
+        assertThat(visitListArgumentCaptor.getValue())
+                .extracting(PlanningVisit::getId)
+                .containsExactly(location3.id(), location4.id());
+        verify(solverManager, never()).addVisit(any());
+    }
+
+    @Test
+    void bulk_added_locations_should_be_published_when_there_are_no_vehicles() {
+        routeOptimizer.addLocations(Arrays.asList(location1, location2), Arrays.asList(matrixRow, matrixRow));
+
+        verifyNoInteractions(solverManager);
+        VehicleRoutingSolution solution = verifyPublishingPreliminarySolution();
+        assertThat(solution.getDepotList()).extracting(PlanningDepot::getId).containsExactly(location1.id());
+        assertThat(solution.getVisitList()).extracting(PlanningVisit::getId).containsExactly(location2.id());
+    }
+
+    @Test
+    void bulk_adding_locations_should_fail_fast_when_rows_do_not_match_locations() {
+        assertThatIllegalArgumentException().isThrownBy(
+                () -> routeOptimizer.addLocations(Arrays.asList(location1, location2), Arrays.asList(matrixRow)));
+        verifyNoInteractions(solverManager);
+        verifyNoInteractions(routeChangedEventPublisher);
+    }
+
+    @Test
+    void bulk_added_vehicles_should_start_solver_once() {
+        routeOptimizer.addLocation(location1, matrixRow);
+        routeOptimizer.addLocation(location2, matrixRow);
+
+        routeOptimizer.addVehicles(Arrays.asList(testVehicle(1), testVehicle(2)));
+
+        VehicleRoutingSolution solution = verifySolverStartedWithSolution();
+        assertThat(solution.getVehicleList()).extracting(PlanningVehicle::getId).containsExactly(1L, 2L);
+        verify(solverManager, never()).addVehicle(any());
+        verify(solverManager, never()).addVehicles(any());
+    }
+
+    @Test
+    void bulk_added_vehicles_should_reach_running_solver_in_a_single_problem_fact_change() {
+        routeOptimizer.addVehicle(testVehicle(1));
+        routeOptimizer.addLocation(location1, matrixRow);
+        routeOptimizer.addLocation(location2, matrixRow);
+        verify(solverManager).startSolver(any(VehicleRoutingSolution.class));
+
+        routeOptimizer.addVehicles(Arrays.asList(testVehicle(2), testVehicle(3)));
+
+        verify(solverManager).addVehicles(vehicleListArgumentCaptor.capture());
+        assertThat(vehicleListArgumentCaptor.getValue())
+                .extracting(PlanningVehicle::getId)
+                .containsExactly(2L, 3L);
+        assertThat(vehicleListArgumentCaptor.getValue())
+                .extracting(vehicle -> vehicle.getDepot().getId())
+                .containsOnly(location1.id());
+        verify(solverManager, never()).addVehicle(any());
+    }
+
+    @Test
+    void adding_no_vehicles_or_locations_should_do_nothing() {
+        routeOptimizer.addVehicles(Collections.emptyList());
+        routeOptimizer.addLocations(Collections.emptyList(), Collections.emptyList());
+
+        verifyNoInteractions(solverManager);
+        verifyNoInteractions(routeChangedEventPublisher);
+    }
+
     private VehicleRoutingSolution verifyPublishingPreliminarySolution() {
         verify(routeChangedEventPublisher).publishSolution(solutionArgumentCaptor.capture());
         return solutionArgumentCaptor.getValue();
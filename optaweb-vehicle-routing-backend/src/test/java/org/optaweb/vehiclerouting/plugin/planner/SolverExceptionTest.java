@@ -27,6 +27,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
@@ -40,6 +41,9 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.task.AsyncListenableTaskExecutor;
 import org.springframework.util.concurrent.ListenableFutureTask;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class SolverExceptionTest {
 
@@ -49,6 +53,10 @@ class SolverExceptionTest {
     private AsyncListenableTaskExecutor executor;
     @Mock
     private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private Runnable visitRemovedCallback;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private SolverManager solverManager;
 
@@ -106,7 +114,7 @@ class SolverExceptionTest {
 
         // act & assert (2)
         assertTestExceptionThrownDuringOperation(() -> solverManager.addVisit(planningVisit));
-        assertTestExceptionThrownDuringOperation(() -> solverManager.removeVisit(planningVisit));
+        assertTestExceptionThrownDuringOperation(() -> solverManager.removeVisit(planningVisit, visitRemovedCallback));
         assertTestExceptionThrownDuringOperation(() -> solverManager.addVehicle(planningVehicle));
         assertTestExceptionThrownDuringOperation(() -> solverManager.removeVehicle(planningVehicle));
 
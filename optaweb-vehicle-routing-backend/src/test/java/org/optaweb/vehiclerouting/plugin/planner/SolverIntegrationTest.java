@@ -25,6 +25,7 @@ import static org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFact
 import static org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory.emptySolution;
 import static org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory.solutionFromVisits;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -43,11 +44,17 @@ import org.optaplanner.core.api.solver.SolverFactory;
 import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
 import org.optaplanner.core.api.solver.event.SolverEventListener;
 import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.phase.event.PhaseLifecycleListenerAdapter;
+import org.optaplanner.core.impl.solver.AbstractSolver;
+import org.optaplanner.core.impl.solver.scope.SolverScope;
+import org.optaweb.vehiclerouting.plugin.planner.change.AddVehicle;
 import org.optaweb.vehiclerouting.plugin.planner.change.AddVisit;
+import org.optaweb.vehiclerouting.plugin.planner.change.AddVisits;
 import org.optaweb.vehiclerouting.plugin.planner.change.RemoveVisit;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningDepot;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
 import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -125,6 +132,88 @@ class SolverIntegrationTest {
         assertThat(terminateSolver(solver)).isNotNull();
     }
 
+    @Test
+    void problem_fact_changes_should_be_processed_with_multithreaded_solving() {
+        solverConfig.setMoveThreadCount("2");
+        long distance = 1;
+        PlanningDepot depot = new PlanningDepot(testLocation(1, location -> distance));
+        VehicleRoutingSolution solution = solutionFromVisits(
+                singletonList(PlanningVehicleFactory.testVehicle(1)),
+                depot,
+                singletonList(fromLocation(testLocation(2, location -> distance))));
+
+        Solver<VehicleRoutingSolution> solver =
+                SolverFactory.<VehicleRoutingSolution> create(solverConfig).buildSolver();
+        solver.addEventListener(monitor);
+        startSolver(solver, solution);
+
+        monitor.beforeProblemFactChange();
+        solver.addProblemFactChange(new AddVisits(Arrays.asList(
+                fromLocation(testLocation(3, location -> distance)),
+                fromLocation(testLocation(4, location -> distance)))));
+        assertThat(monitor.awaitAllProblemFactChanges(1000)).isTrue();
+
+        PlanningVehicle vehicle2 = PlanningVehicleFactory.testVehicle(2);
+        vehicle2.setDepot(depot);
+        monitor.beforeProblemFactChange();
+        solver.addProblemFactChange(new AddVehicle(vehicle2));
+        assertThat(monitor.awaitAllProblemFactChanges(1000)).isTrue();
+
+        monitor.beforeProblemFactChange();
+        solver.addProblemFactChange(new RemoveVisit(testVisit(3)));
+        assertThat(monitor.awaitAllProblemFactChanges(1000)).isTrue();
+
+        VehicleRoutingSolution bestSolution = terminateSolver(solver);
+        assertThat(bestSolution.getVisitList()).extracting(PlanningVisit::getId).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(bestSolution.getVehicleList()).extracting(PlanningVehicle::getId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void solver_should_wait_after_unimproved_spent_limit_and_resume_on_problem_fact_change() {
+        solverConfig.getTerminationConfig().setUnimprovedSpentLimit(Duration.ofMillis(200));
+        long distance = 1;
+        VehicleRoutingSolution solution = solutionFromVisits(
+                singletonList(PlanningVehicleFactory.testVehicle(1)),
+                new PlanningDepot(testLocation(1, location -> distance)),
+                singletonList(fromLocation(testLocation(2, location -> distance))));
+
+        Solver<VehicleRoutingSolution> solver =
+                SolverFactory.<VehicleRoutingSolution> create(solverConfig).buildSolver();
+        Semaphore solvingEnded = new Semaphore(0);
+        ((AbstractSolver<VehicleRoutingSolution>) solver).addPhaseLifecycleListener(
+                new PhaseLifecycleListenerAdapter<VehicleRoutingSolution>() {
+                    @Override
+                    public void solvingEnded(SolverScope<VehicleRoutingSolution> solverScope) {
+                        solvingEnded.release();
+                    }
+                });
+        solver.addEventListener(monitor);
+        startSolver(solver, solution);
+
+        // The solver stops solving the unimproved solution but keeps waiting for problem fact changes.
+        assertThat(tryAcquire(solvingEnded, 5000)).isTrue();
+        assertThat(futureSolution).isNotDone();
+
+        monitor.beforeProblemFactChange();
+        solver.addProblemFactChange(new AddVisit(fromLocation(testLocation(3, location -> distance))));
+        assertThat(monitor.awaitAllProblemFactChanges(1000)).isTrue();
+        assertThat(tryAcquire(solvingEnded, 5000)).isTrue();
+        assertThat(futureSolution).isNotDone();
+
+        VehicleRoutingSolution bestSolution = terminateSolver(solver);
+        assertThat(bestSolution.getScore().isSolutionInitialized()).isTrue();
+        assertThat(bestSolution.getVisitList()).extracting(PlanningVisit::getId).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    private static boolean tryAcquire(Semaphore semaphore, int milliseconds) {
+        try {
+            return semaphore.tryAcquire(milliseconds, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fail("Interrupted", e);
+        }
+    }
+
     private void startSolver(Solver<VehicleRoutingSolution> solver, VehicleRoutingSolution solution) {
         futureSolution = executor.submit(() -> solver.solve(solution));
     }
@@ -16,12 +16,15 @@
 
 package org.optaweb.vehiclerouting.plugin.planner;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.AdditionalAnswers.answer;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory.testVisit;
@@ -35,12 +38,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer1;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.api.solver.ProblemFactChange;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
 import org.optaweb.vehiclerouting.plugin.planner.change.AddVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.change.AddVehicles;
 import org.optaweb.vehiclerouting.plugin.planner.change.AddVisit;
+import org.optaweb.vehiclerouting.plugin.planner.change.AddVisits;
 import org.optaweb.vehiclerouting.plugin.planner.change.ChangeVehicleCapacity;
 import org.optaweb.vehiclerouting.plugin.planner.change.RemoveVehicle;
 import org.optaweb.vehiclerouting.plugin.planner.change.RemoveVisit;
@@ -53,6 +62,9 @@ import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
 import org.springframework.core.task.AsyncListenableTaskExecutor;
 import org.springframework.util.concurrent.ListenableFuture;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class SolverManagerTest {
 
@@ -62,17 +74,25 @@ class SolverManagerTest {
 
     @Captor
     private ArgumentCaptor<VehicleRoutingSolution> solutionArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<ProblemFactChange<VehicleRoutingSolution>> problemFactChangeCaptor;
+    @Mock
+    private ScoreDirector<VehicleRoutingSolution> scoreDirector;
     @Mock
     private BestSolutionChangedEvent<VehicleRoutingSolution> bestSolutionChangedEvent;
     @Mock
     private ListenableFuture<VehicleRoutingSolution> solverFuture;
+    @Mock
+    private Runnable visitRemovedCallback;
 
     @Mock
     private Solver<VehicleRoutingSolution> solver;
     @Mock
     private AsyncListenableTaskExecutor executor;
     @Mock
-    private RouteChangedEventPublisher routeChangedEventPublisher;
+    private BestSolutionPublisher bestSolutionPublisher;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private SolverManager solverManager;
 
@@ -86,6 +106,10 @@ class SolverManagerTest {
                 }));
     }
 
+    private static ProblemFactChange<VehicleRoutingSolution> problemFactChange(Class<?> type) {
+        return argThat(change -> type.isInstance(((SolverManager.MeasuredProblemFactChange) change).delegate()));
+    }
+
     @Test
     void should_listen_for_best_solution_events() {
         verify(solver).addEventListener(solverManager);
@@ -101,7 +125,7 @@ class SolverManagerTest {
 
         // assert
         verify(bestSolutionChangedEvent, never()).getNewBestSolution();
-        verify(routeChangedEventPublisher, never()).publishSolution(any());
+        verify(bestSolutionPublisher, never()).publishSolution(any());
     }
 
     @Test
@@ -112,7 +136,7 @@ class SolverManagerTest {
 
         solverManager.bestSolutionChanged(bestSolutionChangedEvent);
 
-        verify(routeChangedEventPublisher).publishSolution(solutionArgumentCaptor.capture());
+        verify(bestSolutionPublisher).publishSolution(solutionArgumentCaptor.capture());
         VehicleRoutingSolution event = solutionArgumentCaptor.getValue();
         assertThat(event).isSameAs(solution);
     }
@@ -134,6 +158,7 @@ class SolverManagerTest {
         solverManager.startSolver(solution);
         solverManager.stopSolver();
         verify(solver).terminateEarly();
+        verify(bestSolutionPublisher).discardPendingSolution();
 
         // another stopSolver() does nothing
         solverManager.stopSolver();
@@ -152,7 +177,7 @@ class SolverManagerTest {
 
         PlanningVisit visit = testVisit(0);
         assertThatExceptionOfType(RuntimeException.class)
-                .isThrownBy(() -> solverManager.removeVisit(visit));
+                .isThrownBy(() -> solverManager.removeVisit(visit, visitRemovedCallback));
         assertThat(Thread.interrupted()).isTrue();
 
         assertThatExceptionOfType(RuntimeException.class)
@@ -175,7 +200,13 @@ class SolverManagerTest {
                 .isThrownBy(() -> solverManager.addVisit(testVisit))
                 .withMessageContaining("started");
         assertThatIllegalStateException()
-                .isThrownBy(() -> solverManager.removeVisit(testVisit))
+                .isThrownBy(() -> solverManager.removeVisit(testVisit, visitRemovedCallback))
+                .withMessageContaining("started");
+        assertThatIllegalStateException()
+                .isThrownBy(() -> solverManager.addVisits(singletonList(testVisit)))
+                .withMessageContaining("started");
+        assertThatIllegalStateException()
+                .isThrownBy(() -> solverManager.addVehicles(singletonList(testVehicle)))
                 .withMessageContaining("started");
     }
 
@@ -199,7 +230,13 @@ class SolverManagerTest {
                 .isThrownBy(() -> solverManager.addVisit(testVisit))
                 .withMessageContaining("died");
         assertThatExceptionOfType(RuntimeException.class)
-                .isThrownBy(() -> solverManager.removeVisit(testVisit))
+                .isThrownBy(() -> solverManager.removeVisit(testVisit, visitRemovedCallback))
+                .withMessageContaining("died");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> solverManager.addVisits(singletonList(testVisit)))
+                .withMessageContaining("died");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> solverManager.addVehicles(singletonList(testVehicle)))
                 .withMessageContaining("died");
     }
 
@@ -210,18 +247,64 @@ class SolverManagerTest {
         when(solverFuture.isDone()).thenReturn(false);
 
         solverManager.addVehicle(testVehicle);
-        verify(solver).addProblemFactChange(any(AddVehicle.class));
+        verify(solver).addProblemFactChange(problemFactChange(AddVehicle.class));
 
         solverManager.removeVehicle(testVehicle);
-        verify(solver).addProblemFactChange(any(RemoveVehicle.class));
+        verify(solver).addProblemFactChange(problemFactChange(RemoveVehicle.class));
 
         solverManager.changeCapacity(testVehicle);
-        verify(solver).addProblemFactChange(any(ChangeVehicleCapacity.class));
+        verify(solver).addProblemFactChange(problemFactChange(ChangeVehicleCapacity.class));
 
         solverManager.addVisit(testVisit);
-        verify(solver).addProblemFactChange(any(AddVisit.class));
+        verify(solver).addProblemFactChange(problemFactChange(AddVisit.class));
+
+        solverManager.removeVisit(testVisit, visitRemovedCallback);
+        verify(solver).addProblemFactChange(problemFactChange(RemoveVisit.class));
 
-        solverManager.removeVisit(testVisit);
-        verify(solver).addProblemFactChange(any(RemoveVisit.class));
+        solverManager.addVisits(singletonList(testVisit));
+        verify(solver).addProblemFactChange(problemFactChange(AddVisits.class));
+
+        solverManager.addVehicles(singletonList(testVehicle));
+        verify(solver).addProblemFactChange(problemFactChange(AddVehicles.class));
+    }
+
+    @Test
+    void best_solutions_should_be_counted_and_score_of_the_published_one_recorded() {
+        VehicleRoutingSolution solution = SolutionFactory.emptySolution();
+        solution.setScore(HardSoftLongScore.of(-1, -3000));
+        when(bestSolutionChangedEvent.isEveryProblemFactChangeProcessed()).thenReturn(false, true);
+        when(bestSolutionChangedEvent.getNewBestSolution()).thenReturn(solution);
+
+        solverManager.bestSolutionChanged(bestSolutionChangedEvent);
+        solverManager.bestSolutionChanged(bestSolutionChangedEvent);
+
+        assertThat(meterRegistry.get(SolverManager.BEST_SOLUTIONS_METRIC).counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(SolverManager.BEST_SCORE_METRIC).tag("level", "hard").gauge().value())
+                .isEqualTo(-1);
+        assertThat(meterRegistry.get(SolverManager.BEST_SCORE_METRIC).tag("level", "soft").gauge().value())
+                .isEqualTo(-3000);
+    }
+
+    @Test
+    void pending_problem_fact_changes_should_be_measured() {
+        returnSolverFutureWhenSolverIsStarted();
+        solverManager.startSolver(solution);
+        when(solverFuture.isDone()).thenReturn(false);
+        when(scoreDirector.getWorkingSolution()).thenReturn(SolutionFactory.emptySolution());
+
+        solverManager.addVehicle(testVehicle);
+        solverManager.removeVehicle(testVehicle);
+        assertThat(meterRegistry.get(SolverManager.PENDING_CHANGES_METRIC).gauge().value()).isEqualTo(2);
+
+        // The solver processes the first change.
+        verify(solver, times(2)).addProblemFactChange(problemFactChangeCaptor.capture());
+        problemFactChangeCaptor.getAllValues().get(0).doChange(scoreDirector);
+        verify(scoreDirector).beforeProblemFactAdded(testVehicle);
+        assertThat(meterRegistry.get(SolverManager.PENDING_CHANGES_METRIC).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(SolverManager.CHANGE_LATENCY_METRIC).timer().count()).isEqualTo(1);
+
+        // The stopped solver drops the second change.
+        solverManager.stopSolver();
+        assertThat(meterRegistry.get(SolverManager.PENDING_CHANGES_METRIC).gauge().value()).isZero();
     }
 }
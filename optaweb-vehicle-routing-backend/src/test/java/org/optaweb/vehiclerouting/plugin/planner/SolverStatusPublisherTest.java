@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaplanner.core.impl.constructionheuristic.scope.ConstructionHeuristicPhaseScope;
+import org.optaplanner.core.impl.localsearch.scope.LocalSearchPhaseScope;
+import org.optaplanner.core.impl.localsearch.scope.LocalSearchStepScope;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+import org.optaplanner.core.impl.solver.scope.SolverScope;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.service.solver.SolverStatus;
+import org.optaweb.vehiclerouting.service.solver.SolverStatusEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class SolverStatusPublisherTest {
+
+    @Mock
+    private DefaultSolver<VehicleRoutingSolution> solver;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private SolverScope<VehicleRoutingSolution> solverScope;
+    @Mock
+    private ConstructionHeuristicPhaseScope<VehicleRoutingSolution> constructionHeuristicPhaseScope;
+    @Mock
+    private LocalSearchPhaseScope<VehicleRoutingSolution> localSearchPhaseScope;
+    @Mock
+    private LocalSearchStepScope<VehicleRoutingSolution> stepScope;
+    @Captor
+    private ArgumentCaptor<SolverStatusEvent> eventCaptor;
+
+    private SolverStatusPublisher solverStatusPublisher;
+
+    private SolverStatusPublisher publisher(Duration statusInterval) {
+        PlannerProperties plannerProperties = new PlannerProperties();
+        plannerProperties.setStatusInterval(statusInterval);
+        solverStatusPublisher = new SolverStatusPublisher(solver, eventPublisher, plannerProperties);
+        return solverStatusPublisher;
+    }
+
+    @AfterEach
+    void shutdown() {
+        solverStatusPublisher.shutdown();
+    }
+
+    private SolverStatus publishedStatus() {
+        verify(eventPublisher, timeout(5000)).publishEvent(eventCaptor.capture());
+        return eventCaptor.getValue().status;
+    }
+
+    @Test
+    void should_listen_to_solver_phases() {
+        publisher(Duration.ofSeconds(1));
+        verify(solver).addPhaseLifecycleListener(solverStatusPublisher);
+    }
+
+    @Test
+    void should_publish_status_when_phase_starts() {
+        publisher(Duration.ofSeconds(1));
+        when(constructionHeuristicPhaseScope.getSolverScope()).thenReturn(solverScope);
+        when(solverScope.calculateTimeMillisSpentUpToNow()).thenReturn(2000L);
+        when(solverScope.getScoreCalculationCount()).thenReturn(10000L);
+        when(solverScope.getBestSolutionTimeMillis()).thenReturn(null);
+        when(solver.isEveryProblemFactChangeProcessed()).thenReturn(false);
+
+        solverStatusPublisher.solvingStarted(solverScope);
+        solverStatusPublisher.phaseStarted(constructionHeuristicPhaseScope);
+
+        SolverStatus status = publishedStatus();
+        assertThat(status.phase).isEqualTo(SolverStatus.Phase.CONSTRUCTION_HEURISTIC);
+        assertThat(status.stepCount).isZero();
+        assertThat(status.timeSpent).isEqualTo(Duration.ofSeconds(2));
+        assertThat(status.scoreCalculationSpeed).isEqualTo(5000);
+        // No best solution yet.
+        assertThat(status.timeSinceBestSolution).isEqualTo(Duration.ofSeconds(2));
+        assertThat(status.problemChangesPending).isTrue();
+    }
+
+    @Test
+    void should_publish_step_status_at_most_once_per_interval() {
+        publisher(Duration.ofSeconds(1));
+        when(localSearchPhaseScope.getSolverScope()).thenReturn(solverScope);
+        when(stepScope.getPhaseScope()).thenReturn(localSearchPhaseScope);
+        when(solverScope.getBestSolutionTimeMillis()).thenReturn(System.currentTimeMillis());
+        when(solver.isEveryProblemFactChangeProcessed()).thenReturn(true);
+
+        solverStatusPublisher.solvingStarted(solverScope);
+        when(solverScope.calculateTimeMillisSpentUpToNow()).thenReturn(500L);
+        solverStatusPublisher.stepEnded(stepScope);
+        verify(eventPublisher, after(200).never()).publishEvent(any());
+
+        when(solverScope.calculateTimeMillisSpentUpToNow()).thenReturn(1500L);
+        when(solverScope.getScoreCalculationCount()).thenReturn(30000L);
+        when(stepScope.getStepIndex()).thenReturn(41);
+        solverStatusPublisher.stepEnded(stepScope);
+
+        SolverStatus status = publishedStatus();
+        assertThat(status.phase).isEqualTo(SolverStatus.Phase.LOCAL_SEARCH);
+        assertThat(status.stepCount).isEqualTo(42);
+        assertThat(status.scoreCalculationSpeed).isEqualTo(20000);
+        assertThat(status.timeSinceBestSolution).isLessThan(Duration.ofSeconds(5));
+        assertThat(status.problemChangesPending).isFalse();
+    }
+
+    @Test
+    void speed_should_be_calculated_since_previous_status() {
+        publisher(Duration.ZERO);
+        when(localSearchPhaseScope.getSolverScope()).thenReturn(solverScope);
+        when(stepScope.getPhaseScope()).thenReturn(localSearchPhaseScope);
+
+        solverStatusPublisher.solvingStarted(solverScope);
+        when(solverScope.calculateTimeMillisSpentUpToNow()).thenReturn(1000L);
+        when(solverScope.getScoreCalculationCount()).thenReturn(100000L);
+        solverStatusPublisher.stepEnded(stepScope);
+        when(solverScope.calculateTimeMillisSpentUpToNow()).thenReturn(3000L);
+        when(solverScope.getScoreCalculationCount()).thenReturn(120000L);
+        solverStatusPublisher.stepEnded(stepScope);
+
+        verify(eventPublisher, timeout(5000).times(2)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getAllValues().get(0).status.scoreCalculationSpeed).isEqualTo(100000);
+        assertThat(eventCaptor.getAllValues().get(1).status.scoreCalculationSpeed).isEqualTo(10000);
+    }
+
+    @Test
+    void should_publish_stopped_status_when_solver_is_terminated() {
+        publisher(Duration.ofSeconds(1));
+        when(solver.isTerminateEarly()).thenReturn(true);
+
+        solverStatusPublisher.solvingEnded(solverScope);
+
+        assertThat(publishedStatus()).isSameAs(SolverStatus.stopped());
+    }
+
+    @Test
+    void should_publish_waiting_status_when_daemon_solver_runs_out_of_phases() {
+        publisher(Duration.ofSeconds(1));
+        when(solver.isTerminateEarly()).thenReturn(false);
+
+        solverStatusPublisher.solvingEnded(solverScope);
+
+        assertThat(publishedStatus().phase).isEqualTo(SolverStatus.Phase.WAITING);
+    }
+
+    @Test
+    void should_not_publish_after_shutdown() {
+        publisher(Duration.ofSeconds(1));
+        when(solver.isTerminateEarly()).thenReturn(true);
+        solverStatusPublisher.shutdown();
+
+        solverStatusPublisher.solvingEnded(solverScope);
+
+        verify(eventPublisher, after(200).never()).publishEvent(any());
+    }
+}
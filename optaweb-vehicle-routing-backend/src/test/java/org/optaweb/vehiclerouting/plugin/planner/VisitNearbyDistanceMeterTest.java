@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningDepot;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocation;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocationFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
+
+class VisitNearbyDistanceMeterTest {
+
+    private final VisitNearbyDistanceMeter distanceMeter = new VisitNearbyDistanceMeter();
+
+    @Test
+    void should_measure_distance_from_destination_to_origin() {
+        PlanningLocation originLocation = PlanningLocationFactory.testLocation(1, location -> 10);
+        PlanningLocation destinationLocation = PlanningLocationFactory.testLocation(2, location -> 20);
+        PlanningVisit origin = PlanningVisitFactory.fromLocation(originLocation);
+        PlanningVisit destination = PlanningVisitFactory.fromLocation(destinationLocation);
+
+        assertThat(distanceMeter.getNearbyDistance(origin, destination)).isEqualTo(20);
+    }
+
+    @Test
+    void should_measure_distance_from_vehicle_depot_to_origin() {
+        PlanningLocation depotLocation = PlanningLocationFactory.testLocation(1, location -> 35);
+        PlanningVehicle vehicle = PlanningVehicleFactory.testVehicle(1);
+        vehicle.setDepot(new PlanningDepot(depotLocation));
+        PlanningVisit origin = PlanningVisitFactory.fromLocation(PlanningLocationFactory.testLocation(2));
+
+        assertThat(distanceMeter.getNearbyDistance(origin, vehicle)).isEqualTo(35);
+    }
+}
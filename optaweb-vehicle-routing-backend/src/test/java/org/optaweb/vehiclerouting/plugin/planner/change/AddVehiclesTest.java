@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.change;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+
+@ExtendWith(MockitoExtension.class)
+class AddVehiclesTest {
+
+    @Mock
+    private ScoreDirector<VehicleRoutingSolution> scoreDirector;
+
+    @Test
+    void add_vehicles_should_add_all_vehicles_and_trigger_variable_listeners_once() {
+        VehicleRoutingSolution solution = SolutionFactory.emptySolution();
+        when(scoreDirector.getWorkingSolution()).thenReturn(solution);
+
+        PlanningVehicle vehicle1 = PlanningVehicleFactory.testVehicle(1);
+        PlanningVehicle vehicle2 = PlanningVehicleFactory.testVehicle(2);
+        AddVehicles addVehicles = new AddVehicles(Arrays.asList(vehicle1, vehicle2));
+        addVehicles.doChange(scoreDirector);
+
+        assertThat(solution.getVehicleList()).containsExactly(vehicle1, vehicle2);
+
+        verify(scoreDirector).beforeProblemFactAdded(vehicle1);
+        verify(scoreDirector).afterProblemFactAdded(vehicle1);
+        verify(scoreDirector).beforeProblemFactAdded(vehicle2);
+        verify(scoreDirector).afterProblemFactAdded(vehicle2);
+        verify(scoreDirector, times(1)).triggerVariableListeners();
+    }
+}
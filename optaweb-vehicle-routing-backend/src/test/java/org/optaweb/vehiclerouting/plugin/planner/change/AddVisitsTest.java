@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner.change;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+
+@ExtendWith(MockitoExtension.class)
+class AddVisitsTest {
+
+    @Mock
+    private ScoreDirector<VehicleRoutingSolution> scoreDirector;
+
+    @Test
+    void add_visits_should_add_all_visits_and_trigger_variable_listeners_once() {
+        VehicleRoutingSolution solution = SolutionFactory.emptySolution();
+        when(scoreDirector.getWorkingSolution()).thenReturn(solution);
+
+        PlanningVisit visit1 = PlanningVisitFactory.testVisit(1);
+        PlanningVisit visit2 = PlanningVisitFactory.testVisit(2);
+        AddVisits addVisits = new AddVisits(Arrays.asList(visit1, visit2));
+        addVisits.doChange(scoreDirector);
+
+        verify(scoreDirector).beforeEntityAdded(visit1);
+        verify(scoreDirector).afterEntityAdded(visit1);
+        verify(scoreDirector).beforeEntityAdded(visit2);
+        verify(scoreDirector).afterEntityAdded(visit2);
+        assertThat(solution.getVisitList()).containsExactly(visit1, visit2);
+
+        verify(scoreDirector, times(1)).triggerVariableListeners();
+    }
+}
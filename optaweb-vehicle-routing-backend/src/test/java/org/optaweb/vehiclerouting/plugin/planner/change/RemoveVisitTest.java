@@ -23,6 +23,9 @@ import static org.mockito.Mockito.when;
 import static org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory.testVehicle;
 import static org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory.testVisit;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -66,6 +69,26 @@ class RemoveVisitTest {
         verify(scoreDirector).triggerVariableListeners();
     }
 
+    @Test
+    void callback_should_run_after_visit_is_removed() {
+        VehicleRoutingSolution solution = SolutionFactory.emptySolution();
+        when(scoreDirector.getWorkingSolution()).thenReturn(solution);
+
+        PlanningVisit removedVisit = testVisit(1);
+        solution.getVisitList().add(removedVisit);
+        removedVisit.setPreviousStandstill(testVehicle(10));
+        when(scoreDirector.lookUpWorkingObject(removedVisit)).thenReturn(removedVisit);
+
+        List<PlanningVisit> visitsWhenCallbackRuns = new ArrayList<>();
+        RemoveVisit removeVisit = new RemoveVisit(
+                removedVisit,
+                () -> visitsWhenCallbackRuns.addAll(solution.getVisitList()));
+        removeVisit.doChange(scoreDirector);
+
+        verify(scoreDirector).afterEntityRemoved(removedVisit);
+        assertThat(visitsWhenCallbackRuns).isEmpty();
+    }
+
     @Test
     void remove_middle_visit() {
         VehicleRoutingSolution solution = SolutionFactory.emptySolution();
@@ -27,7 +27,6 @@ import org.junit.jupiter.api.Test;
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Distance;
 import org.optaweb.vehiclerouting.domain.Location;
-import org.optaweb.vehiclerouting.plugin.planner.DistanceMapImpl;
 
 class PlanningLocationTest {
 
@@ -41,9 +40,9 @@ class PlanningLocationTest {
 
         PlanningLocation planningLocation = new PlanningLocation(
                 domainLocation.id(),
-                domainLocation.coordinates().latitude().doubleValue(),
-                domainLocation.coordinates().longitude().doubleValue(),
-                new DistanceMapImpl(distanceMap::get));
+                domainLocation.coordinates().latitude(),
+                domainLocation.coordinates().longitude(),
+                location -> distanceMap.get(location.getId()).millis());
         assertThat(planningLocation.distanceTo(testLocation(otherId))).isEqualTo(millis);
     }
 
@@ -30,7 +30,6 @@ import org.junit.jupiter.api.Test;
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Distance;
 import org.optaweb.vehiclerouting.domain.Location;
-import org.optaweb.vehiclerouting.plugin.planner.DistanceMapImpl;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningDepot;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocation;
 import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
@@ -50,7 +49,7 @@ class DepotAngleVisitDifficultyWeightFactoryTest {
 
     DepotAngleVisitDifficultyWeightFactoryTest() {
         Location depotLocation = new Location(0, Coordinates.valueOf(depotY, depotX));
-        depot = fromDomain(depotLocation, new DistanceMapImpl(depotDistanceMap::get));
+        depot = fromDomain(depotLocation, location -> depotDistanceMap.get(location.getId()).millis());
         solution.getDepotList().add(new PlanningDepot(depot));
     }
 
@@ -68,7 +67,7 @@ class DepotAngleVisitDifficultyWeightFactoryTest {
         Map<Long, Distance> locationDistanceMap = new HashMap<>();
         locationDistanceMap.put(depot.getId(), Distance.ofMillis(locationToDepot));
         Location domainLocation = new Location(id, Coordinates.valueOf(latitude, longitude));
-        return fromDomain(domainLocation, new DistanceMapImpl(locationDistanceMap::get));
+        return fromDomain(domainLocation, location -> locationDistanceMap.get(location.getId()).millis());
     }
 
     private DepotAngleVisitDifficultyWeight weight(PlanningLocation location) {
@@ -17,6 +17,10 @@
 package org.optaweb.vehiclerouting.plugin.routing;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.optaweb.vehiclerouting.domain.Coordinates;
@@ -25,15 +29,62 @@ import org.optaweb.vehiclerouting.service.region.BoundingBox;
 class AirDistanceRouterTest {
 
     @Test
-    void travel_time_should_be_distance_divided_by_speed() {
+    void travel_time_should_be_great_circle_distance_divided_by_speed() {
         AirDistanceRouter router = new AirDistanceRouter();
         Coordinates from = Coordinates.valueOf(0, 0);
-        Coordinates to = Coordinates.valueOf(3, 4); // √(3² + 4²) = 5
-        long travelTimeMillis = router.travelTimeMillis(from, to);
-        assertThat(travelTimeMillis).isEqualTo((long) (5
-                * AirDistanceRouter.KILOMETERS_PER_DEGREE
+        Coordinates to = Coordinates.valueOf(90, 0); // a quarter of the meridian
+        assertThat(router.travelTimeMillis(from, to)).isCloseTo(travelTimeMillis(Math.PI / 2), within(1L));
+    }
+
+    @Test
+    void travel_time_between_antipodes_should_be_half_of_the_circumference() {
+        AirDistanceRouter router = new AirDistanceRouter();
+        assertThat(router.travelTimeMillis(Coordinates.valueOf(0, 0), Coordinates.valueOf(0, 180)))
+                .isCloseTo(travelTimeMillis(Math.PI), within(1L));
+        assertThat(router.travelTimeMillis(Coordinates.valueOf(45, 45), Coordinates.valueOf(45, 45))).isZero();
+    }
+
+    @Test
+    void travel_time_should_match_haversine_formula() {
+        AirDistanceRouter router = new AirDistanceRouter();
+        Coordinates from = Coordinates.valueOf(50.0755, 14.4378);
+        Coordinates to = Coordinates.valueOf(48.8566, 2.3522);
+        double lat1 = Math.toRadians(from.latitude());
+        double lat2 = Math.toRadians(to.latitude());
+        double sinHalfDeltaLat = Math.sin((lat2 - lat1) / 2);
+        double sinHalfDeltaLng = Math.sin(Math.toRadians(to.longitude() - from.longitude()) / 2);
+        double haversine = sinHalfDeltaLat * sinHalfDeltaLat
+                + Math.cos(lat1) * Math.cos(lat2) * sinHalfDeltaLng * sinHalfDeltaLng;
+        long expected = travelTimeMillis(2 * Math.asin(Math.sqrt(haversine)));
+        assertThat(router.travelTimeMillis(from, to)).isCloseTo(expected, within(1L));
+    }
+
+    @Test
+    void matrix_should_be_the_same_as_travel_times_calculated_one_by_one() {
+        AirDistanceRouter router = new AirDistanceRouter();
+        List<Coordinates> from = Arrays.asList(
+                Coordinates.valueOf(50.0755, 14.4378),
+                Coordinates.valueOf(-33.8688, 151.2093),
+                Coordinates.valueOf(0, 0));
+        List<Coordinates> to = Arrays.asList(
+                Coordinates.valueOf(48.8566, 2.3522),
+                Coordinates.valueOf(40.7128, -74.006));
+
+        long[][] travelTimes = router.travelTimeMillis(from, to);
+
+        assertThat(travelTimes).hasSize(from.size());
+        for (int i = 0; i < from.size(); i++) {
+            for (int j = 0; j < to.size(); j++) {
+                assertThat(travelTimes[i][j]).isEqualTo(router.travelTimeMillis(from.get(i), to.get(j)));
+            }
+        }
+    }
+
+    private static long travelTimeMillis(double centralAngle) {
+        double distanceKilometers = centralAngle * AirDistanceRouter.EARTH_RADIUS_KILOMETERS;
+        return (long) (distanceKilometers
                 / AirDistanceRouter.TRAVEL_SPEED_KPH
-                * AirDistanceRouter.MILLIS_IN_ONE_HOUR));
+                * AirDistanceRouter.MILLIS_IN_ONE_HOUR);
     }
 
     @Test
@@ -16,28 +16,65 @@
 
 package org.optaweb.vehiclerouting.plugin.routing;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.optaweb.vehiclerouting.domain.Coordinates;
 
 import com.graphhopper.reader.osm.GraphHopperOSM;
 import com.graphhopper.routing.util.EncodingManager;
 import com.graphhopper.routing.util.FlagEncoderFactory;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class GraphHopperIntegrationTest {
 
     private static final String OSM_PBF = "planet_12.032,53.0171_12.1024,53.0491.osm.pbf";
+    private static final double TRACK_TOLERANCE = 1;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @Test
     void graphhopper_should_import_and_load_osm_file_successfully(@TempDir Path tempDir) {
+        GraphHopperOSM graphHopper = graphHopper(tempDir);
+        assertThatCode(graphHopper::importOrLoad).doesNotThrowAnyException();
+    }
+
+    @Test
+    void travel_time_matrix_should_match_point_to_point_travel_times(@TempDir Path tempDir) {
+        GraphHopperOSM graphHopper = graphHopper(tempDir);
+        graphHopper.importOrLoad();
+        GraphHopperRouter router = new GraphHopperRouter(graphHopper, TRACK_TOLERANCE, meterRegistry);
+        // 5 × 5 grid covering the map
+        List<Coordinates> coordinates = new ArrayList<>();
+        for (int row = 0; row < 5; row++) {
+            for (int column = 0; column < 5; column++) {
+                coordinates.add(Coordinates.valueOf(53.0200 + row * 0.0065, 12.0350 + column * 0.0160));
+            }
+        }
+
+        long[][] matrix = router.travelTimeMillis(coordinates, coordinates);
+
+        for (int i = 0; i < coordinates.size(); i++) {
+            for (int j = 0; j < coordinates.size(); j++) {
+                long pointToPoint = router.travelTimeMillis(coordinates.get(i), coordinates.get(j));
+                assertThat(matrix[i][j]).as("%s -> %s", coordinates.get(i), coordinates.get(j)).isEqualTo(pointToPoint);
+            }
+        }
+    }
+
+    private static GraphHopperOSM graphHopper(Path tempDir) {
         Path graphhopperDir = tempDir.resolve("graphhopper");
         GraphHopperOSM graphHopper = ((GraphHopperOSM) new GraphHopperOSM().forServer());
         graphHopper.setGraphHopperLocation(graphhopperDir.toString());
         graphHopper.setOSMFile(GraphHopperIntegrationTest.class.getResource(OSM_PBF).getFile());
         graphHopper.setEncodingManager(EncodingManager.create(FlagEncoderFactory.CAR));
-        assertThatCode(graphHopper::importOrLoad).doesNotThrowAnyException();
+        return graphHopper;
     }
 }
@@ -19,6 +19,7 @@ package org.optaweb.vehiclerouting.plugin.routing;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
@@ -26,6 +27,8 @@ import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.optaweb.vehiclerouting.domain.Coordinates;
@@ -36,12 +39,19 @@ import com.graphhopper.GHResponse;
 import com.graphhopper.PathWrapper;
 import com.graphhopper.reader.osm.GraphHopperOSM;
 import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.StorableProperties;
+import com.graphhopper.util.Parameters;
 import com.graphhopper.util.PointList;
 import com.graphhopper.util.shapes.BBox;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class GraphHopperRouterTest {
 
+    private static final double TRACK_TOLERANCE = 7.5;
+
     private final PointList pointList = new PointList();
     private final Coordinates from = Coordinates.valueOf(-Double.MIN_VALUE, Double.MIN_VALUE);
     private final Coordinates to = Coordinates.valueOf(Double.MAX_VALUE, -Double.MAX_VALUE);
@@ -53,6 +63,9 @@ class GraphHopperRouterTest {
     private PathWrapper pathWrapper;
     @Mock
     private GraphHopperStorage graphHopperStorage;
+    @Captor
+    private ArgumentCaptor<GHRequest> ghRequestCaptor;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     private void whenRouteReturnResponse() {
         when(graphHopper.route(any(GHRequest.class))).thenReturn(ghResponse);
@@ -71,7 +84,23 @@ class GraphHopperRouterTest {
         when(pathWrapper.getTime()).thenReturn(travelTimeMillis);
 
         // act & assert
-        assertThat(new GraphHopperRouter(graphHopper).travelTimeMillis(from, to)).isEqualTo(travelTimeMillis);
+        assertThat(new GraphHopperRouter(graphHopper, TRACK_TOLERANCE, meterRegistry).travelTimeMillis(from, to))
+                .isEqualTo(travelTimeMillis);
+    }
+
+    @Test
+    void travel_time_query_latency_should_be_recorded() {
+        whenRouteReturnResponse();
+        whenBestReturnPath();
+        GraphHopperRouter graphHopperRouter = new GraphHopperRouter(graphHopper, TRACK_TOLERANCE, meterRegistry);
+
+        graphHopperRouter.travelTimeMillis(from, to);
+        graphHopperRouter.travelTimeMillis(to, from);
+
+        assertThat(meterRegistry.get(GraphHopperRouter.LATENCY_METRIC).tag("query", "travel-time").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get(GraphHopperRouter.LATENCY_METRIC).tag("query", "path").timer().count())
+                .isZero();
     }
 
     @Test
@@ -80,7 +109,7 @@ class GraphHopperRouterTest {
         whenRouteReturnResponse();
         when(ghResponse.hasErrors()).thenReturn(true);
         when(ghResponse.getErrors()).thenReturn(Collections.singletonList(new RuntimeException()));
-        GraphHopperRouter graphHopperRouter = new GraphHopperRouter(graphHopper);
+        GraphHopperRouter graphHopperRouter = new GraphHopperRouter(graphHopper, TRACK_TOLERANCE, meterRegistry);
 
         // act & assert
         assertThatThrownBy(() -> graphHopperRouter.travelTimeMillis(from, to))
@@ -100,16 +129,19 @@ class GraphHopperRouterTest {
         Coordinates coordinates2 = Coordinates.valueOf(Math.E, Math.PI);
         Coordinates coordinates3 = Coordinates.valueOf(0.1, 1.0 / 3.0);
 
-        pointList.add(coordinates1.latitude().doubleValue(), coordinates1.longitude().doubleValue());
-        pointList.add(coordinates2.latitude().doubleValue(), coordinates2.longitude().doubleValue());
-        pointList.add(coordinates3.latitude().doubleValue(), coordinates3.longitude().doubleValue());
+        pointList.add(coordinates1.latitude(), coordinates1.longitude());
+        pointList.add(coordinates2.latitude(), coordinates2.longitude());
+        pointList.add(coordinates3.latitude(), coordinates3.longitude());
 
         // act & assert
-        List<Coordinates> route = new GraphHopperRouter(graphHopper).getPath(from, to);
+        List<Coordinates> route = new GraphHopperRouter(graphHopper, TRACK_TOLERANCE, meterRegistry).getPath(from, to);
         assertThat(route).containsExactly(
                 coordinates1,
                 coordinates2,
                 coordinates3);
+        verify(graphHopper).route(ghRequestCaptor.capture());
+        assertThat(ghRequestCaptor.getValue().getHints().getDouble(Parameters.Routing.WAY_POINT_MAX_DISTANCE, -1))
+                .isEqualTo(TRACK_TOLERANCE);
     }
 
     @Test
@@ -122,9 +154,22 @@ class GraphHopperRouterTest {
         BBox bbox = new BBox(minLon_X, maxLon_X, minLat_Y, maxLat_Y);
         when(graphHopperStorage.getBounds()).thenReturn(bbox);
 
-        BoundingBox boundingBox = new GraphHopperRouter(graphHopper).getBounds();
+        BoundingBox boundingBox = new GraphHopperRouter(graphHopper, TRACK_TOLERANCE, meterRegistry).getBounds();
 
         assertThat(boundingBox.getSouthWest()).isEqualTo(Coordinates.valueOf(minLat_Y, minLon_X));
         assertThat(boundingBox.getNorthEast()).isEqualTo(Coordinates.valueOf(maxLat_Y, maxLon_X));
     }
+
+    @Test
+    void profile_should_identify_the_graph() {
+        StorableProperties graphProperties = new StorableProperties(new RAMDirectory());
+        graphProperties.put("datareader.import.date", "2020-05-04T10:12:34Z");
+        when(graphHopper.getGraphHopperStorage()).thenReturn(graphHopperStorage);
+        when(graphHopperStorage.getProperties()).thenReturn(graphProperties);
+        when(graphHopper.getGraphHopperLocation()).thenReturn("/home/user/.optaweb/graphs/belgium-latest");
+
+        String profile = new GraphHopperRouter(graphHopper, TRACK_TOLERANCE, meterRegistry).profile();
+
+        assertThat(profile).startsWith("graphhopper:fastest|").endsWith("|belgium-latest@2020-05-04T10:12:34Z");
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.routing;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculationException;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculator;
+import org.springframework.beans.factory.ObjectProvider;
+
+@ExtendWith(MockitoExtension.class)
+class HybridDistanceCalculatorTest {
+
+    private static final double RADIUS_KILOMETERS = 10;
+    private static final double DETOUR_FACTOR = 1.5;
+
+    // About 1 km apart.
+    private final Coordinates origin = Coordinates.valueOf(50, 14);
+    private final Coordinates nearby = Coordinates.valueOf(50.01, 14);
+    // About 111 km from the origin.
+    private final Coordinates farAway = Coordinates.valueOf(51, 14);
+    // About 1 km from the far-away location.
+    private final Coordinates nearFarAway = Coordinates.valueOf(51.01, 14);
+
+    private final AirDistanceRouter airDistanceRouter = new AirDistanceRouter();
+
+    @Mock
+    private DistanceCalculator roadDistanceCalculator;
+    private HybridDistanceCalculator hybridDistanceCalculator;
+
+    @BeforeEach
+    void setUp() {
+        hybridDistanceCalculator = new HybridDistanceCalculator(
+                roadDistanceCalculator,
+                RADIUS_KILOMETERS,
+                DETOUR_FACTOR);
+    }
+
+    private long estimate(Coordinates from, Coordinates to) {
+        return Math.round(airDistanceRouter.travelTimeMillis(from, to) * DETOUR_FACTOR);
+    }
+
+    @Test
+    void nearby_pair_should_be_routed() {
+        when(roadDistanceCalculator.travelTimeMillis(origin, nearby)).thenReturn(12345L);
+        assertThat(hybridDistanceCalculator.travelTimeMillis(origin, nearby)).isEqualTo(12345L);
+    }
+
+    @Test
+    void far_apart_pair_should_be_estimated_with_detour_factor() {
+        assertThat(hybridDistanceCalculator.travelTimeMillis(origin, farAway)).isEqualTo(estimate(origin, farAway));
+        verify(roadDistanceCalculator, never()).travelTimeMillis(any(Coordinates.class), any(Coordinates.class));
+    }
+
+    @Test
+    void estimates_should_not_depend_on_routed_pairs() {
+        long before = hybridDistanceCalculator.travelTimeMillis(origin, farAway);
+        when(roadDistanceCalculator.travelTimeMillis(origin, nearby)).thenReturn(1_000_000L);
+
+        hybridDistanceCalculator.travelTimeMillis(origin, nearby);
+
+        assertThat(hybridDistanceCalculator.travelTimeMillis(origin, farAway)).isEqualTo(before);
+    }
+
+    @Test
+    void matrix_should_route_nearby_pairs_in_one_query_and_estimate_far_apart_pairs() {
+        List<Coordinates> locations = Arrays.asList(origin, nearby, farAway, nearFarAway);
+        // Close origins and destinations are all four locations.
+        when(roadDistanceCalculator.travelTimeMillis(locations, locations)).thenReturn(new long[][] {
+                { 0, 1, -1, -1 },
+                { 2, 0, -1, -1 },
+                { -1, -1, 0, 3 },
+                { -1, -1, 4, 0 } });
+
+        long[][] travelTimes = hybridDistanceCalculator.travelTimeMillis(locations, locations);
+
+        assertThat(travelTimes[0]).containsExactly(0, 1, estimate(origin, farAway), estimate(origin, nearFarAway));
+        assertThat(travelTimes[1]).containsExactly(2, 0, estimate(nearby, farAway), estimate(nearby, nearFarAway));
+        assertThat(travelTimes[2]).containsExactly(estimate(farAway, origin), estimate(farAway, nearby), 0, 3);
+        assertThat(travelTimes[3]).containsExactly(estimate(nearFarAway, origin), estimate(nearFarAway, nearby), 4, 0);
+        verify(roadDistanceCalculator, never()).travelTimeMillis(any(Coordinates.class), any(Coordinates.class));
+    }
+
+    @Test
+    void matrix_should_only_query_origins_and_destinations_of_nearby_pairs() {
+        when(roadDistanceCalculator.travelTimeMillis(Arrays.asList(origin, nearby), singletonList(nearby)))
+                .thenReturn(new long[][] { { 5 }, { 0 } });
+
+        long[][] travelTimes = hybridDistanceCalculator.travelTimeMillis(
+                Arrays.asList(origin, nearby),
+                Arrays.asList(nearby, farAway));
+
+        assertThat(travelTimes[0]).containsExactly(5, estimate(origin, farAway));
+        assertThat(travelTimes[1]).containsExactly(0, estimate(nearby, farAway));
+    }
+
+    @Test
+    void matrix_should_route_nearby_pairs_one_by_one_when_a_far_apart_pair_is_unreachable() {
+        List<Coordinates> locations = Arrays.asList(origin, nearby, farAway);
+        when(roadDistanceCalculator.travelTimeMillis(locations, locations))
+                .thenThrow(new DistanceCalculationException("No route"));
+        when(roadDistanceCalculator.travelTimeMillis(any(Coordinates.class), any(Coordinates.class)))
+                .thenReturn(7L);
+
+        long[][] travelTimes = hybridDistanceCalculator.travelTimeMillis(locations, locations);
+
+        assertThat(travelTimes[0]).containsExactly(7, 7, estimate(origin, farAway));
+        assertThat(travelTimes[2]).containsExactly(estimate(farAway, origin), estimate(farAway, nearby), 7);
+        verify(roadDistanceCalculator, times(5)).travelTimeMillis(any(Coordinates.class), any(Coordinates.class));
+    }
+
+    @Test
+    void matrix_without_nearby_pairs_should_not_be_routed() {
+        long[][] travelTimes = hybridDistanceCalculator.travelTimeMillis(
+                singletonList(origin),
+                singletonList(farAway));
+
+        assertThat(travelTimes[0]).containsExactly(estimate(origin, farAway));
+        verifyNoInteractions(roadDistanceCalculator);
+    }
+
+    @Test
+    void profile_should_include_radius_detour_factor_and_road_profile() {
+        when(roadDistanceCalculator.profile()).thenReturn("road");
+        assertThat(hybridDistanceCalculator.profile()).isEqualTo("hybrid:10.0km*1.5|road");
+    }
+
+    @Test
+    void should_fail_with_a_clear_message_without_graphhopper_engine(@Mock ObjectProvider<GraphHopperRouter> provider) {
+        RoutingProperties routingProperties = new RoutingProperties();
+        routingProperties.setEngine(RoutingProperties.RoutingEngine.AIR);
+        routingProperties.setHybridRadius(RADIUS_KILOMETERS);
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> new HybridDistanceCalculator(provider, routingProperties))
+                .withMessageContaining("app.routing.hybrid-radius")
+                .withMessageContaining("AIR");
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.websocket;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+
+class PolylineEncoderTest {
+
+    @Test
+    void should_encode_reference_example() {
+        // https://developers.google.com/maps/documentation/utilities/polylinealgorithm
+        assertThat(PolylineEncoder.encode(asList(
+                Coordinates.valueOf(38.5, -120.2),
+                Coordinates.valueOf(40.7, -120.95),
+                Coordinates.valueOf(43.252, -126.453))))
+                .isEqualTo("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+    }
+
+    @Test
+    void should_round_to_five_decimal_places() {
+        assertThat(PolylineEncoder.encode(singletonList(Coordinates.valueOf(38.500001, -120.199999))))
+                .isEqualTo(PolylineEncoder.encode(singletonList(Coordinates.valueOf(38.5, -120.2))));
+    }
+
+    @Test
+    void repeated_point_should_be_encoded_as_zero_difference() {
+        Coordinates coordinates = Coordinates.valueOf(1, 2);
+        String onePoint = PolylineEncoder.encode(singletonList(coordinates));
+
+        assertThat(PolylineEncoder.encode(asList(coordinates, coordinates))).isEqualTo(onePoint + "??");
+    }
+
+    @Test
+    void empty_path_should_be_empty_string() {
+        assertThat(PolylineEncoder.encode(emptyList())).isEmpty();
+    }
+}
@@ -52,8 +52,8 @@ class PortableCoordinatesTest {
     void conversion_from_domain() {
         Coordinates coordinates = Coordinates.valueOf(0.04687, -88.8889);
         PortableCoordinates portableCoordinates = PortableCoordinates.fromCoordinates(coordinates);
-        assertThat(portableCoordinates.getLatitude()).isEqualTo(coordinates.latitude());
-        assertThat(portableCoordinates.getLongitude()).isEqualTo(coordinates.longitude());
+        assertThat(portableCoordinates.getLatitude()).isEqualTo(BigDecimal.valueOf(coordinates.latitude()));
+        assertThat(portableCoordinates.getLongitude()).isEqualTo(BigDecimal.valueOf(coordinates.longitude()));
 
         assertThatNullPointerException()
                 .isThrownBy(() -> PortableCoordinates.fromCoordinates(null))
@@ -65,10 +65,10 @@ class PortableCoordinatesTest {
         Coordinates coordinates = Coordinates.valueOf(0.123450001, -88.999999999);
         Coordinates scaledDown = Coordinates.valueOf(0.12345, -89);
         PortableCoordinates portableCoordinates = PortableCoordinates.fromCoordinates(coordinates);
-        assertThat(portableCoordinates.getLatitude()).isEqualTo(scaledDown.latitude());
-        assertThat(portableCoordinates.getLongitude()).isEqualByComparingTo(scaledDown.longitude());
+        assertThat(portableCoordinates.getLatitude()).isEqualTo(BigDecimal.valueOf(scaledDown.latitude()));
+        assertThat(portableCoordinates.getLongitude()).isEqualByComparingTo(BigDecimal.valueOf(scaledDown.longitude()));
         // This would surprisingly fail because actual is -89 and expected is -89.0
-        // assertThat(portableCoordinates.getLongitude()).isEqualTo(scaledDown.longitude());
+        // assertThat(portableCoordinates.getLongitude()).isEqualTo(BigDecimal.valueOf(scaledDown.longitude()));
     }
 
     @Test
@@ -82,7 +82,7 @@ class PortableCoordinatesTest {
         assertThat(portableCoordinates)
                 // equals()
                 .isNotEqualTo(null)
-                .isNotEqualTo(new Coordinates(lat1, lon1))
+                .isNotEqualTo(new Coordinates(lat1.doubleValue(), lon1.doubleValue()))
                 .isNotEqualTo(new PortableCoordinates(lat1, lon2))
                 .isNotEqualTo(new PortableCoordinates(lat2, lon1))
                 .isEqualTo(portableCoordinates)
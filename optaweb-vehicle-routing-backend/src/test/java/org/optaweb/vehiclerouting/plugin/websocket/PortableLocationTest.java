@@ -70,8 +70,8 @@ class PortableLocationTest {
         Location location = new Location(17, Coordinates.valueOf(5.1, -0.0007), "Hello, world!");
         PortableLocation portableLocation = PortableLocation.fromLocation(location);
         assertThat(portableLocation.getId()).isEqualTo(location.id());
-        assertThat(portableLocation.getLatitude()).isEqualTo(location.coordinates().latitude());
-        assertThat(portableLocation.getLongitude()).isEqualTo(location.coordinates().longitude());
+        assertThat(portableLocation.getLatitude()).isEqualTo(BigDecimal.valueOf(location.coordinates().latitude()));
+        assertThat(portableLocation.getLongitude()).isEqualTo(BigDecimal.valueOf(location.coordinates().longitude()));
         assertThat(portableLocation.getDescription()).isEqualTo(location.description());
 
         assertThatNullPointerException()
@@ -92,7 +92,7 @@ class PortableLocationTest {
         assertThat(portableLocation)
                 // equals()
                 .isNotEqualTo(null)
-                .isNotEqualTo(new Location(id, new Coordinates(lat1, lon1)))
+                .isNotEqualTo(new Location(id, new Coordinates(lat1.doubleValue(), lon1.doubleValue())))
                 .isNotEqualTo(new PortableLocation(id + 1, lat1, lon1, description))
                 .isNotEqualTo(new PortableLocation(id, lat1, lon2, description))
                 .isNotEqualTo(new PortableLocation(id, lat2, lon1, description))
@@ -18,7 +18,6 @@ package org.optaweb.vehiclerouting.plugin.websocket;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.optaweb.vehiclerouting.plugin.websocket.PortableCoordinates.fromCoordinates;
 import static org.optaweb.vehiclerouting.plugin.websocket.PortableLocation.fromLocation;
 
 import java.io.IOException;
@@ -53,20 +52,16 @@ class PortableRouteTest {
                 depot,
                 asList(visit1, visit2),
                 asList(
-                        asList(
-                                coordinates(42.65005, -71.88522),
-                                coordinates(42.64997, -71.88527)),
-                        asList(
-                                coordinates(42.64994, -71.88537),
-                                coordinates(42.64994, -71.88542))));
+                        PolylineEncoder.encode(asList(
+                                Coordinates.valueOf(42.65005, -71.88522),
+                                Coordinates.valueOf(42.64997, -71.88527))),
+                        PolylineEncoder.encode(asList(
+                                Coordinates.valueOf(42.64994, -71.88537),
+                                Coordinates.valueOf(42.64994, -71.88542)))));
         assertThat(json.write(portableRoute)).isStrictlyEqualToJson("portable-route.json");
     }
 
     private static PortableLocation visit(long id, double latitude, double longitude, String description) {
         return fromLocation(new Location(id, Coordinates.valueOf(latitude, longitude), description));
     }
-
-    private static PortableCoordinates coordinates(double latitude, double longitude) {
-        return fromCoordinates(Coordinates.valueOf(latitude, longitude));
-    }
 }
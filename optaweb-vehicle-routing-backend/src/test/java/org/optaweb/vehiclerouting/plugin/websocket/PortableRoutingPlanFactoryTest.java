@@ -17,7 +17,9 @@
 package org.optaweb.vehiclerouting.plugin.websocket;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.List;
@@ -34,9 +36,34 @@ import org.optaweb.vehiclerouting.domain.VehicleFactory;
 
 class PortableRoutingPlanFactoryTest {
 
+    private final Location depot = new Location(1, Coordinates.valueOf(1, 1));
+    private final Location visit1 = new Location(2, Coordinates.valueOf(2, 2));
+    private final Location visit2 = new Location(3, Coordinates.valueOf(3, 3));
+    private final Vehicle vehicle1 = VehicleFactory.createVehicle(1, "Vehicle 1", 10);
+    private final Vehicle vehicle2 = VehicleFactory.createVehicle(2, "Vehicle 2", 10);
+    private final Vehicle vehicle3 = VehicleFactory.createVehicle(3, "Vehicle 3", 10);
+
+    private static RouteWithTrack route(Vehicle vehicle, Location depot, Location... visits) {
+        List<List<Coordinates>> track = visits.length == 0
+                ? emptyList()
+                : singletonList(asList(depot.coordinates(), visits[0].coordinates(), depot.coordinates()));
+        return new RouteWithTrack(new Route(vehicle, depot, asList(visits)), track);
+    }
+
+    private static PortableRoutingPlan portablePlan(long sequence, Location depot, RouteWithTrack... routes) {
+        List<RouteWithTrack> routeList = asList(routes);
+        RoutingPlan routingPlan = new RoutingPlan(
+                Distance.ofMillis(sequence),
+                routeList.stream().map(Route::vehicle).collect(toList()),
+                depot,
+                routeList.stream().flatMap(route -> route.visits().stream()).collect(toList()),
+                routeList);
+        return PortableRoutingPlanFactory.fromRoutingPlan(routingPlan, sequence);
+    }
+
     @Test
     void portable_routing_plan_empty() {
-        PortableRoutingPlan portablePlan = PortableRoutingPlanFactory.fromRoutingPlan(RoutingPlan.empty());
+        PortableRoutingPlan portablePlan = PortableRoutingPlanFactory.fromRoutingPlan(RoutingPlan.empty(), 0);
         assertThat(portablePlan.getDistance()).isEqualTo(PortableDistance.fromDistance(Distance.ZERO));
         assertThat(portablePlan.getVehicles()).isEmpty();
         assertThat(portablePlan.getDepot()).isNull();
@@ -81,9 +108,11 @@ class PortableRoutingPlanFactoryTest {
                 asList(route1, route2));
 
         // act
-        PortableRoutingPlan portableRoutingPlan = PortableRoutingPlanFactory.fromRoutingPlan(routingPlan);
+        PortableRoutingPlan portableRoutingPlan = PortableRoutingPlanFactory.fromRoutingPlan(routingPlan, 7);
 
         // assert
+        assertThat(portableRoutingPlan.getSequence()).isEqualTo(7);
+        assertThat(portableRoutingPlan.isFull()).isTrue();
         // -- plan.distance
         assertThat(portableRoutingPlan.getDistance()).isEqualTo(PortableDistance.fromDistance(distance));
         // -- plan.depot
@@ -106,15 +135,9 @@ class PortableRoutingPlanFactoryTest {
         assertThat(portableRoute1.getDepot()).isEqualTo(PortableLocation.fromLocation(location1));
         assertThat(portableRoute1.getVisits()).containsExactly(
                 PortableLocation.fromLocation(location2));
-        assertThat(portableRoute1.getTrack()).hasSize(2);
-        assertThat(portableRoute1.getTrack().get(0)).containsExactly(
-                PortableCoordinates.fromCoordinates(location1.coordinates()),
-                PortableCoordinates.fromCoordinates(checkpoint12),
-                PortableCoordinates.fromCoordinates(location2.coordinates()));
-        assertThat(portableRoute1.getTrack().get(1)).containsExactly(
-                PortableCoordinates.fromCoordinates(location2.coordinates()),
-                PortableCoordinates.fromCoordinates(checkpoint21),
-                PortableCoordinates.fromCoordinates(location1.coordinates()));
+        assertThat(portableRoute1.getTrack()).containsExactly(
+                PolylineEncoder.encode(segment12),
+                PolylineEncoder.encode(segment21));
 
         // -- plan.routes[2]
         PortableRoute portableRoute2 = portableRoutingPlan.getRoutes().get(1);
@@ -123,14 +146,66 @@ class PortableRoutingPlanFactoryTest {
         assertThat(portableRoute2.getDepot()).isEqualTo(PortableLocation.fromLocation(location1));
         assertThat(portableRoute2.getVisits()).containsExactly(
                 PortableLocation.fromLocation(location3));
-        assertThat(portableRoute2.getTrack()).hasSize(2);
-        assertThat(portableRoute2.getTrack().get(0)).containsExactly(
-                PortableCoordinates.fromCoordinates(location1.coordinates()),
-                PortableCoordinates.fromCoordinates(checkpoint13),
-                PortableCoordinates.fromCoordinates(location3.coordinates()));
-        assertThat(portableRoute2.getTrack().get(1)).containsExactly(
-                PortableCoordinates.fromCoordinates(location3.coordinates()),
-                PortableCoordinates.fromCoordinates(checkpoint31),
-                PortableCoordinates.fromCoordinates(location1.coordinates()));
+        assertThat(portableRoute2.getTrack()).containsExactly(
+                PolylineEncoder.encode(segment13),
+                PolylineEncoder.encode(segment31));
+    }
+
+    @Test
+    void diff_should_only_contain_changed_routes() {
+        PortableRoutingPlan previous = portablePlan(
+                1,
+                depot,
+                route(vehicle1, depot, visit1),
+                route(vehicle2, depot, visit2),
+                route(vehicle3, depot));
+        PortableRoutingPlan current = portablePlan(
+                2,
+                depot,
+                route(vehicle1, depot, visit1),
+                route(vehicle2, depot),
+                route(vehicle3, depot, visit2));
+
+        PortableRoutingPlan diff = PortableRoutingPlanFactory.diff(previous, current);
+
+        assertThat(diff.isFull()).isFalse();
+        assertThat(diff.getSequence()).isEqualTo(2);
+        assertThat(diff.getDistance()).isEqualTo(current.getDistance());
+        assertThat(diff.getDepot()).isEqualTo(current.getDepot());
+        assertThat(diff.getVehicles()).isEqualTo(current.getVehicles());
+        assertThat(diff.getVisits()).isEqualTo(current.getVisits());
+        assertThat(diff.getRoutes()).extracting(route -> route.getVehicle().getId())
+                .containsExactly(vehicle2.id(), vehicle3.id());
+    }
+
+    @Test
+    void diff_should_contain_routes_of_new_and_changed_vehicles() {
+        Vehicle vehicle1WithNewCapacity = VehicleFactory.createVehicle(vehicle1.id(), vehicle1.name(), 20);
+        PortableRoutingPlan previous = portablePlan(
+                1,
+                depot,
+                route(vehicle1, depot, visit1),
+                route(vehicle2, depot));
+        PortableRoutingPlan current = portablePlan(
+                2,
+                depot,
+                route(vehicle1WithNewCapacity, depot, visit1),
+                route(vehicle3, depot));
+
+        PortableRoutingPlan diff = PortableRoutingPlanFactory.diff(previous, current);
+
+        assertThat(diff.isFull()).isFalse();
+        assertThat(diff.getVehicles()).extracting(PortableVehicle::getId).containsExactly(vehicle1.id(), vehicle3.id());
+        assertThat(diff.getRoutes()).extracting(route -> route.getVehicle().getId())
+                .containsExactly(vehicle1.id(), vehicle3.id());
+    }
+
+    @Test
+    void diff_should_be_full_plan_when_depot_changes() {
+        PortableRoutingPlan previous = portablePlan(1, null);
+        PortableRoutingPlan current = portablePlan(2, depot, route(vehicle1, depot));
+
+        assertThat(PortableRoutingPlanFactory.diff(previous, current)).isSameAs(current);
+        assertThat(PortableRoutingPlanFactory.diff(current, portablePlan(3, null))).matches(PortableRoutingPlan::isFull);
     }
 }
@@ -16,12 +16,12 @@
 
 package org.optaweb.vehiclerouting.plugin.websocket;
 
-import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 
@@ -31,10 +31,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.optaweb.vehiclerouting.domain.Coordinates;
-import org.optaweb.vehiclerouting.domain.Distance;
 import org.optaweb.vehiclerouting.domain.Location;
-import org.optaweb.vehiclerouting.domain.Route;
-import org.optaweb.vehiclerouting.domain.RouteWithTrack;
 import org.optaweb.vehiclerouting.domain.RoutingPlan;
 import org.optaweb.vehiclerouting.domain.RoutingProblem;
 import org.optaweb.vehiclerouting.domain.Vehicle;
@@ -44,7 +41,7 @@ import org.optaweb.vehiclerouting.service.error.ErrorEvent;
 import org.optaweb.vehiclerouting.service.location.LocationService;
 import org.optaweb.vehiclerouting.service.region.BoundingBox;
 import org.optaweb.vehiclerouting.service.region.RegionService;
-import org.optaweb.vehiclerouting.service.route.RouteListener;
+import org.optaweb.vehiclerouting.service.solver.SolverStatus;
 import org.optaweb.vehiclerouting.service.vehicle.VehicleService;
 import org.springframework.context.ApplicationEventPublisher;
 
@@ -52,7 +49,9 @@ import org.springframework.context.ApplicationEventPublisher;
 class WebSocketControllerTest {
 
     @Mock
-    private RouteListener routeListener;
+    private WebSocketRoutingPlanSender routingPlanSender;
+    @Mock
+    private WebSocketSolverStatusSender solverStatusSender;
     @Mock
     private RegionService regionService;
     @Mock
@@ -74,31 +73,18 @@ class WebSocketControllerTest {
 
     @Test
     void subscribeToRouteTopic() {
-        // arrange
-        Distance distance = Distance.ofMillis(987_654_321);
-        Location depot = new Location(1, Coordinates.valueOf(3, 5));
-        Vehicle vehicle = VehicleFactory.createVehicle(1, "vehicle", 77);
-        Location visit = new Location(2, Coordinates.valueOf(321, 123));
-        Route route = new Route(vehicle, depot, singletonList(visit));
-        Coordinates pointOnTrack = Coordinates.valueOf(0, 0);
-        RouteWithTrack routeWithTrack = new RouteWithTrack(route, singletonList(singletonList(pointOnTrack)));
-        RoutingPlan plan = new RoutingPlan(
-                distance,
-                singletonList(vehicle),
-                depot,
-                singletonList(visit),
-                singletonList(routeWithTrack));
-        when(routeListener.getBestRoutingPlan()).thenReturn(plan);
+        PortableRoutingPlan plan = PortableRoutingPlanFactory.fromRoutingPlan(RoutingPlan.empty(), 3);
+        when(routingPlanSender.currentPlan()).thenReturn(plan);
 
-        // act
-        PortableRoutingPlan portableRoutingPlan = webSocketController.subscribeToRouteTopic();
+        assertThat(webSocketController.subscribeToRouteTopic()).isSameAs(plan);
+    }
 
-        // assert
-        assertThat(portableRoutingPlan.getDistance()).isEqualTo(PortableDistance.fromDistance(distance));
-        assertThat(portableRoutingPlan.getVisits()).containsExactly(PortableLocation.fromLocation(visit));
-        assertThat(portableRoutingPlan.getVehicles()).containsExactly(PortableVehicle.fromVehicle(vehicle));
-        assertThat(portableRoutingPlan.getDepot()).isEqualTo(PortableLocation.fromLocation(depot));
-        assertThat(portableRoutingPlan.getRoutes()).hasSize(1);
+    @Test
+    void subscribeToSolverStatusTopic() {
+        PortableSolverStatus status = PortableSolverStatus.fromSolverStatus(SolverStatus.stopped());
+        when(solverStatusSender.currentStatus()).thenReturn(status);
+
+        assertThat(webSocketController.subscribeToSolverStatusTopic()).isSameAs(status);
     }
 
     @Test
@@ -138,9 +124,13 @@ class WebSocketControllerTest {
     void addLocation() {
         Coordinates coords = Coordinates.valueOf(0.0, 1.0);
         String description = "new location";
-        PortableLocation request = new PortableLocation(321, coords.latitude(), coords.longitude(), description);
+        PortableLocation request = new PortableLocation(
+                321,
+                BigDecimal.valueOf(coords.latitude()),
+                BigDecimal.valueOf(coords.longitude()),
+                description);
         webSocketController.addLocation(request);
-        verify(locationService).createLocation(coords, description);
+        verify(locationService).createLocationAsync(coords, description);
     }
 
     @Test
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketPayloadMetricsTest {
+
+    @Mock
+    private MessageChannel channel;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebSocketPayloadMetrics webSocketPayloadMetrics = new WebSocketPayloadMetrics(meterRegistry);
+
+    @Test
+    void payload_size_should_be_recorded_by_destination() {
+        Message<byte[]> message = message(WebSocketRoutingPlanSender.TOPIC_ROUTE, new byte[100]);
+
+        assertThat(webSocketPayloadMetrics.preSend(message, channel)).isSameAs(message);
+        webSocketPayloadMetrics.preSend(message(WebSocketRoutingPlanSender.TOPIC_ROUTE, new byte[50]), channel);
+        webSocketPayloadMetrics.preSend(message(WebSocketErrorMessageSender.TOPIC_ERROR, new byte[10]), channel);
+
+        DistributionSummary routePayload = meterRegistry.get(WebSocketPayloadMetrics.PAYLOAD_METRIC)
+                .tag("destination", WebSocketRoutingPlanSender.TOPIC_ROUTE)
+                .summary();
+        assertThat(routePayload.count()).isEqualTo(2);
+        assertThat(routePayload.totalAmount()).isEqualTo(150);
+        assertThat(meterRegistry.get(WebSocketPayloadMetrics.PAYLOAD_METRIC)
+                .tag("destination", WebSocketErrorMessageSender.TOPIC_ERROR)
+                .summary()
+                .totalAmount()).isEqualTo(10);
+    }
+
+    @Test
+    void messages_without_destination_should_be_ignored() {
+        webSocketPayloadMetrics.preSend(MessageBuilder.withPayload(new byte[0]).build(), channel);
+
+        assertThat(meterRegistry.find(WebSocketPayloadMetrics.PAYLOAD_METRIC).meters()).isEmpty();
+    }
+
+    private static Message<byte[]> message(String destination, byte[] payload) {
+        SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create();
+        headerAccessor.setDestination(destination);
+        return MessageBuilder.createMessage(payload, headerAccessor.getMessageHeaders());
+    }
+}
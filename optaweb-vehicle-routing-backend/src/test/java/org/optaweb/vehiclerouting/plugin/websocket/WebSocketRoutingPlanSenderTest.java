@@ -16,16 +16,31 @@
 
 package org.optaweb.vehiclerouting.plugin.websocket;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Distance;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.Route;
+import org.optaweb.vehiclerouting.domain.RouteWithTrack;
 import org.optaweb.vehiclerouting.domain.RoutingPlan;
+import org.optaweb.vehiclerouting.domain.Vehicle;
+import org.optaweb.vehiclerouting.domain.VehicleFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +48,8 @@ class WebSocketRoutingPlanSenderTest {
 
     @Mock
     private SimpMessagingTemplate webSocket;
+    @Captor
+    private ArgumentCaptor<PortableRoutingPlan> planCaptor;
     @InjectMocks
     private WebSocketRoutingPlanSender routingPlanSender;
 
@@ -43,4 +60,50 @@ class WebSocketRoutingPlanSenderTest {
                 eq(WebSocketRoutingPlanSender.TOPIC_ROUTE),
                 any(PortableRoutingPlan.class));
     }
+
+    @Test
+    void new_subscriber_should_get_full_plan_and_then_diffs() {
+        assertThat(routingPlanSender.currentPlan().getSequence()).isZero();
+        assertThat(routingPlanSender.currentPlan().isFull()).isTrue();
+
+        Location depot = new Location(1, Coordinates.valueOf(1, 1));
+        Location visit = new Location(2, Coordinates.valueOf(2, 2));
+        Vehicle vehicle = VehicleFactory.testVehicle(1);
+        List<List<Coordinates>> track = singletonList(singletonList(visit.coordinates()));
+        RoutingPlan emptyRoute = new RoutingPlan(
+                Distance.ZERO,
+                singletonList(vehicle),
+                depot,
+                emptyList(),
+                singletonList(new RouteWithTrack(new Route(vehicle, depot, emptyList()), emptyList())));
+        RoutingPlan oneVisit = new RoutingPlan(
+                Distance.ofMillis(100),
+                singletonList(vehicle),
+                depot,
+                singletonList(visit),
+                singletonList(new RouteWithTrack(new Route(vehicle, depot, singletonList(visit)), track)));
+
+        routingPlanSender.consumePlan(emptyRoute);
+        routingPlanSender.consumePlan(oneVisit);
+        routingPlanSender.consumePlan(oneVisit);
+
+        verify(webSocket, times(3)).convertAndSend(eq(WebSocketRoutingPlanSender.TOPIC_ROUTE), planCaptor.capture());
+        List<PortableRoutingPlan> sent = planCaptor.getAllValues();
+        // depot added
+        assertThat(sent.get(0).getSequence()).isEqualTo(1);
+        assertThat(sent.get(0).isFull()).isTrue();
+        // route changed
+        assertThat(sent.get(1).getSequence()).isEqualTo(2);
+        assertThat(sent.get(1).isFull()).isFalse();
+        assertThat(sent.get(1).getRoutes()).hasSize(1);
+        // nothing changed
+        assertThat(sent.get(2).getSequence()).isEqualTo(3);
+        assertThat(sent.get(2).isFull()).isFalse();
+        assertThat(sent.get(2).getRoutes()).isEmpty();
+
+        PortableRoutingPlan currentPlan = routingPlanSender.currentPlan();
+        assertThat(currentPlan.getSequence()).isEqualTo(3);
+        assertThat(currentPlan.isFull()).isTrue();
+        assertThat(currentPlan.getRoutes()).hasSize(1);
+    }
 }
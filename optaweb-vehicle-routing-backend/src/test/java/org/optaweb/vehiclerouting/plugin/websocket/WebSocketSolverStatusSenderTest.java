@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.optaweb.vehiclerouting.service.solver.SolverStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketSolverStatusSenderTest {
+
+    @Mock
+    private SimpMessagingTemplate webSocket;
+
+    @Test
+    void current_status_should_be_stopped_before_any_status_is_consumed() {
+        WebSocketSolverStatusSender sender = new WebSocketSolverStatusSender(webSocket);
+        assertThat(sender.currentStatus().getPhase()).isEqualTo(SolverStatus.Phase.STOPPED.name());
+    }
+
+    @Test
+    void should_send_consumed_status_over_websocket_and_remember_it() {
+        WebSocketSolverStatusSender sender = new WebSocketSolverStatusSender(webSocket);
+        SolverStatus status = new SolverStatus(
+                SolverStatus.Phase.LOCAL_SEARCH,
+                150,
+                Duration.ofSeconds(3),
+                45000,
+                Duration.ofMillis(800),
+                true);
+
+        sender.consumeStatus(status);
+
+        PortableSolverStatus expected = new PortableSolverStatus("LOCAL_SEARCH", 150, 3000, 45000, 800, true);
+        verify(webSocket).convertAndSend(WebSocketSolverStatusSender.TOPIC_SOLVER_STATUS, expected);
+        assertThat(sender.currentStatus()).isEqualTo(expected);
+    }
+}
@@ -92,13 +92,13 @@ class DemoServiceTest {
         // arrange
         when(routingProblems.byName(problemName)).thenReturn(routingProblem);
         when(locationService.createLocation(any(Coordinates.class), anyString())).thenReturn(true);
+        when(locationService.createLocations(routingProblem.visits())).thenReturn(Collections.emptyList());
         // act
         demoService.loadDemo(problemName);
         // assert
-        verify(locationService, times(routingProblem.visits().size() + 1))
-                .createLocation(any(Coordinates.class), anyString());
-        verify(vehicleService, times(routingProblem.vehicles().size()))
-                .createVehicle(any(VehicleData.class));
+        verify(locationService).createLocation(depot.coordinates(), depot.description());
+        verify(locationService).createLocations(routingProblem.visits());
+        verify(vehicleService).createVehicles(routingProblem.vehicles());
     }
 
     @Test
@@ -111,6 +111,19 @@ class DemoServiceTest {
         verify(locationService, times(DemoService.MAX_TRIES)).createLocation(any(Coordinates.class), anyString());
     }
 
+    @Test
+    void retry_visits_discarded_from_batch() {
+        when(routingProblems.byName(problemName)).thenReturn(routingProblem);
+        when(locationService.createLocation(any(Coordinates.class), anyString())).thenReturn(true);
+        Location discardedVisit = visits.get(0);
+        when(locationService.createLocations(routingProblem.visits()))
+                .thenReturn(Collections.singletonList(discardedVisit));
+
+        demoService.loadDemo(problemName);
+
+        verify(locationService).createLocation(discardedVisit.coordinates(), discardedVisit.description());
+    }
+
     @Test
     void export_should_marshal_routing_plans_with_locations_and_vehicles_from_repository() {
         Location depot = new Location(0, Coordinates.valueOf(1.0, 2.0), "Depot");
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DistanceCacheTest {
+
+    private static final String PROFILE = "profile";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void should_return_unknown_when_not_cached() {
+        DistanceCache distanceCache = new DistanceCache(10, meterRegistry);
+        Coordinates from = Coordinates.valueOf(1, 2);
+        Coordinates to = Coordinates.valueOf(3, 4);
+
+        assertThat(distanceCache.get(PROFILE, from, to)).isEqualTo(DistanceMatrixRowImpl.UNKNOWN);
+
+        distanceCache.putAll(PROFILE, singletonList(from), singletonList(to), new long[][] { { 5 } });
+        assertThat(distanceCache.get(PROFILE, from, to)).isEqualTo(5);
+        // direction matters
+        assertThat(distanceCache.get(PROFILE, to, from)).isEqualTo(DistanceMatrixRowImpl.UNKNOWN);
+    }
+
+    @Test
+    void should_skip_unknown_cells() {
+        DistanceCache distanceCache = new DistanceCache(10, meterRegistry);
+        List<Coordinates> coordinates = Arrays.asList(Coordinates.valueOf(1, 2), Coordinates.valueOf(3, 4));
+
+        distanceCache.putAll(PROFILE, coordinates, coordinates, new long[][] { { -1, 12 }, { 21, -1 } });
+
+        assertThat(distanceCache.size()).isEqualTo(2);
+        assertThat(distanceCache.get(PROFILE, coordinates.get(1), coordinates.get(0))).isEqualTo(21);
+    }
+
+    @Test
+    void coordinates_should_be_rounded() {
+        DistanceCache distanceCache = new DistanceCache(10, meterRegistry);
+        Coordinates from = Coordinates.valueOf(50.123456, -4.5);
+        Coordinates to = Coordinates.valueOf(-50.0, 100.000001);
+
+        distanceCache.putAll(PROFILE, singletonList(from), singletonList(to), new long[][] { { 5 } });
+
+        // difference below precision
+        assertThat(distanceCache.get(PROFILE, Coordinates.valueOf(50.1234561, -4.50), Coordinates.valueOf(-50, 100)))
+                .isEqualTo(5);
+        // difference above precision
+        assertThat(distanceCache.get(PROFILE, Coordinates.valueOf(50.12347, -4.5), to))
+                .isEqualTo(DistanceMatrixRowImpl.UNKNOWN);
+        assertThat(distanceCache.get(PROFILE, from, Coordinates.valueOf(-50.0, 100.0001)))
+                .isEqualTo(DistanceMatrixRowImpl.UNKNOWN);
+    }
+
+    @Test
+    void profiles_should_not_share_distances() {
+        DistanceCache distanceCache = new DistanceCache(10, meterRegistry);
+        Coordinates from = Coordinates.valueOf(1, 2);
+        Coordinates to = Coordinates.valueOf(3, 4);
+
+        distanceCache.putAll("car", singletonList(from), singletonList(to), new long[][] { { 5 } });
+        distanceCache.putAll("bike", singletonList(from), singletonList(to), new long[][] { { 15 } });
+
+        assertThat(distanceCache.get("car", from, to)).isEqualTo(5);
+        assertThat(distanceCache.get("bike", from, to)).isEqualTo(15);
+        assertThat(distanceCache.get("foot", from, to)).isEqualTo(DistanceMatrixRowImpl.UNKNOWN);
+    }
+
+    @Test
+    void should_evict_least_recently_used_rows() {
+        DistanceCache distanceCache = new DistanceCache(2, meterRegistry);
+        Coordinates c0 = Coordinates.valueOf(0, 0);
+        Coordinates c1 = Coordinates.valueOf(1, 1);
+        Coordinates c2 = Coordinates.valueOf(2, 2);
+        Coordinates c3 = Coordinates.valueOf(3, 3);
+
+        distanceCache.putAll(PROFILE, singletonList(c0), singletonList(c3), new long[][] { { 1 } });
+        distanceCache.putAll(PROFILE, singletonList(c1), singletonList(c3), new long[][] { { 2 } });
+        // row 0 becomes the most recently used
+        assertThat(distanceCache.get(PROFILE, c0, c3)).isEqualTo(1);
+        distanceCache.putAll(PROFILE, singletonList(c2), singletonList(c3), new long[][] { { 3 } });
+
+        assertThat(distanceCache.size()).isEqualTo(2);
+        assertThat(distanceCache.get(PROFILE, c0, c3)).isEqualTo(1);
+        assertThat(distanceCache.get(PROFILE, c1, c3)).isEqualTo(DistanceMatrixRowImpl.UNKNOWN);
+        assertThat(distanceCache.get(PROFILE, c2, c3)).isEqualTo(3);
+    }
+
+    @Test
+    void should_fill_only_unknown_cells() {
+        DistanceCache distanceCache = new DistanceCache(10, meterRegistry);
+        List<Coordinates> coordinates = Arrays.asList(Coordinates.valueOf(1, 2), Coordinates.valueOf(3, 4));
+        distanceCache.putAll(PROFILE, coordinates, coordinates, new long[][] { { 0, 12 }, { 21, 0 } });
+
+        long[][] millis = { { -1, 100 }, { -1, -1 } };
+        distanceCache.getAll(PROFILE, coordinates, coordinates, millis);
+
+        assertThat(millis).isEqualTo(new long[][] { { 0, 100 }, { 21, 0 } });
+        assertThat(meterRegistry.get(DistanceCache.REQUESTS_METRIC).tag("result", "hit").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void many_destinations_should_fit_in_a_row() {
+        DistanceCache distanceCache = new DistanceCache(10_000, meterRegistry);
+        Coordinates from = Coordinates.valueOf(0, 0);
+        List<Coordinates> to = new ArrayList<>();
+        long[][] millis = new long[1][1000];
+        for (int j = 0; j < 1000; j++) {
+            to.add(Coordinates.valueOf(j * 0.001, -j * 0.001));
+            millis[0][j] = j;
+        }
+        distanceCache.putAll(PROFILE, singletonList(from), to, millis);
+
+        long[][] cached = new long[1][1000];
+        Arrays.fill(cached[0], -1);
+        distanceCache.getAll(PROFILE, singletonList(from), to, cached);
+        assertThat(cached).isEqualTo(millis);
+        assertThat(distanceCache.size()).isEqualTo(1000);
+    }
+
+    @Test
+    void default_size_should_follow_the_matrix() {
+        DistanceCache distanceCache = new DistanceCache((Integer) null, meterRegistry);
+        List<Coordinates> coordinates = Arrays.asList(Coordinates.valueOf(1, 2), Coordinates.valueOf(3, 4));
+        distanceCache.fitMatrix(2000);
+        long[][] millis = { { 0, 12 }, { 21, 0 } };
+        distanceCache.putAll(PROFILE, coordinates, coordinates, millis);
+        assertThat(distanceCache.size()).isEqualTo(4);
+
+        // a matrix of any size keeps at least the minimum
+        distanceCache.fitMatrix(1);
+        distanceCache.putAll(PROFILE, coordinates, coordinates, millis);
+        assertThat(distanceCache.size()).isEqualTo(4);
+    }
+
+    @Test
+    void zero_size_should_disable_cache() {
+        DistanceCache distanceCache = new DistanceCache(0, meterRegistry);
+        Coordinates from = Coordinates.valueOf(1, 2);
+        Coordinates to = Coordinates.valueOf(3, 4);
+
+        distanceCache.putAll(PROFILE, singletonList(from), singletonList(to), new long[][] { { 5 } });
+
+        assertThat(distanceCache.size()).isZero();
+        assertThat(distanceCache.get(PROFILE, from, to)).isEqualTo(DistanceMatrixRowImpl.UNKNOWN);
+    }
+
+    @Test
+    void hits_and_misses_should_be_counted() {
+        DistanceCache distanceCache = new DistanceCache(10, meterRegistry);
+        Coordinates from = Coordinates.valueOf(1, 2);
+        Coordinates to = Coordinates.valueOf(3, 4);
+        distanceCache.putAll(PROFILE, singletonList(from), singletonList(to), new long[][] { { 5 } });
+
+        distanceCache.get(PROFILE, from, to);
+        distanceCache.get(PROFILE, from, to);
+        distanceCache.get(PROFILE, to, from);
+
+        assertThat(meterRegistry.get(DistanceCache.REQUESTS_METRIC).tag("result", "hit").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get(DistanceCache.REQUESTS_METRIC).tag("result", "miss").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(DistanceCache.SIZE_METRIC).gauge().value()).isEqualTo(1);
+    }
+}
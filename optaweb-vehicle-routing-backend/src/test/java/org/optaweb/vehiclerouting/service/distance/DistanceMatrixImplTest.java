@@ -16,42 +16,65 @@
 
 package org.optaweb.vehiclerouting.service.distance;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Distance;
 import org.optaweb.vehiclerouting.domain.Location;
 import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class DistanceMatrixImplTest {
 
+    private static final int CACHE_SIZE = 1000;
+
     @Mock
     private DistanceCalculator distanceCalculator;
     @Mock
     private DistanceRepository distanceRepository;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private DistanceCache distanceCache = new DistanceCache(CACHE_SIZE, meterRegistry);
+    @Spy
+    private RoutingExecutor routingExecutor = new RoutingExecutor(2, 100, Duration.ofSeconds(10), meterRegistry);
     @InjectMocks
     private DistanceMatrixImpl distanceMatrix;
 
     @Test
     void should_calculate_distance_map() {
-        when(distanceRepository.getDistance(any(), any())).thenReturn(-1L); // empty repository
-        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(new MockDistanceCalculator(), distanceRepository);
+        whenRepositoryIsEmpty();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(),
+                distanceRepository,
+                new DistanceCache(CACHE_SIZE, meterRegistry),
+                routingExecutor,
+                meterRegistry);
 
         Location l0 = location(100, 0);
         Location l1 = location(111, 1);
@@ -92,13 +115,100 @@ class DistanceMatrixImplTest {
         assertThatIllegalArgumentException().isThrownBy(() -> matrixRow9.distanceTo(l500.id()));
     }
 
+    @Test
+    void dimension_should_be_exposed_as_a_gauge() {
+        whenRepositoryIsEmpty();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(), distanceRepository, distanceCache, routingExecutor, registry);
+
+        Location location = location(1, 1);
+        distanceMatrix.addLocation(location);
+        distanceMatrix.addLocation(location(2, 2));
+        assertThat(registry.get(DistanceMatrixImpl.DIMENSION_METRIC).gauge().value()).isEqualTo(2);
+
+        distanceMatrix.removeLocation(location);
+        assertThat(registry.get(DistanceMatrixImpl.DIMENSION_METRIC).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void should_grow_rows_when_capacity_is_exceeded() {
+        whenRepositoryIsEmpty();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(),
+                distanceRepository,
+                new DistanceCache(CACHE_SIZE, meterRegistry),
+                routingExecutor,
+                meterRegistry);
+
+        int locationCount = DistanceMatrixImpl.INITIAL_CAPACITY * 2 + 1;
+        Location[] locations = new Location[locationCount];
+        DistanceMatrixRow[] rows = new DistanceMatrixRow[locationCount];
+        for (int i = 0; i < locationCount; i++) {
+            locations[i] = location(1000 + i, i);
+            rows[i] = distanceMatrix.addLocation(locations[i]);
+        }
+
+        assertThat(distanceMatrix.dimension()).isEqualTo(locationCount);
+        // rows created before growing see distances to locations added after growing
+        for (int i = 0; i < locationCount; i++) {
+            for (int j = 0; j < locationCount; j++) {
+                assertThat(rows[i].distanceTo(locations[j].id())).isEqualTo(Distance.ofMillis(Math.abs(i - j)));
+            }
+        }
+    }
+
+    @Test
+    void should_provide_distances_by_location_index() {
+        whenRepositoryIsEmpty();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(),
+                distanceRepository,
+                new DistanceCache(CACHE_SIZE, meterRegistry),
+                routingExecutor,
+                meterRegistry);
+
+        DistanceMatrixRow matrixRow0 = distanceMatrix.addLocation(location(10, 0));
+        DistanceMatrixRow matrixRow5 = distanceMatrix.addLocation(location(20, 5));
+
+        assertThat(matrixRow0.locationIndex()).isNotEqualTo(matrixRow5.locationIndex());
+        assertThat(matrixRow0.distanceMillisTo(matrixRow0.locationIndex())).isZero();
+        assertThat(matrixRow0.distanceMillisTo(matrixRow5.locationIndex())).isEqualTo(5);
+        assertThat(matrixRow5.distanceMillisTo(matrixRow0.locationIndex())).isEqualTo(5);
+        // unknown index
+        int unknownIndex = matrixRow5.locationIndex() + 1;
+        assertThatIllegalArgumentException().isThrownBy(() -> matrixRow0.distanceMillisTo(unknownIndex));
+        assertThatIllegalArgumentException().isThrownBy(() -> matrixRow0.distanceMillisTo(Integer.MAX_VALUE));
+        assertThatIllegalArgumentException().isThrownBy(() -> matrixRow0.distanceMillisTo(-1));
+    }
+
+    @Test
+    void removed_location_should_not_be_reachable() {
+        whenRepositoryIsEmpty();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(),
+                distanceRepository,
+                new DistanceCache(CACHE_SIZE, meterRegistry),
+                routingExecutor,
+                meterRegistry);
+
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        DistanceMatrixRow matrixRow1 = distanceMatrix.addLocation(l1);
+        distanceMatrix.addLocation(l2);
+        assertThat(matrixRow1.distanceTo(l2.id())).isEqualTo(Distance.ofMillis(1));
+
+        distanceMatrix.removeLocation(l2);
+        assertThatIllegalArgumentException().isThrownBy(() -> matrixRow1.distanceTo(l2.id()));
+    }
+
     @Test
     void should_call_router_and_persist_distances_when_repo_is_empty() {
         Location l1 = location(100, -1);
         Location l2 = location(111, 20);
         long dist12 = 12;
         long dist21 = 21;
-        when(distanceRepository.getDistance(any(), any())).thenReturn(-1L);
+        whenRepositoryIsEmpty();
         when(distanceCalculator.travelTimeMillis(l1.coordinates(), l2.coordinates())).thenReturn(dist12);
         when(distanceCalculator.travelTimeMillis(l2.coordinates(), l1.coordinates())).thenReturn(dist21);
 
@@ -110,34 +220,37 @@ class DistanceMatrixImplTest {
         distanceMatrix.addLocation(l2);
 
         // getting distances from the repository (unsuccessful)
-        verify(distanceRepository).getDistance(l2, l1);
-        verify(distanceRepository).getDistance(l1, l2);
+        verify(distanceRepository).getDistances(singletonList(l2), singletonList(l1));
+        verify(distanceRepository).getDistances(singletonList(l1), singletonList(l2));
 
         // distances are calculated and persisted
-        verify(distanceRepository).saveDistance(l2, l1, dist21);
-        verify(distanceRepository).saveDistance(l1, l2, dist12);
+        verify(distanceRepository).saveDistances(
+                eq(singletonList(l2)), eq(singletonList(l1)), matrixEq(new long[][] { { dist21 } }));
+        verify(distanceRepository).saveDistances(
+                eq(singletonList(l1)), eq(singletonList(l2)), matrixEq(new long[][] { { dist12 } }));
     }
 
     @Test
     void should_not_call_router_when_repo_is_full() {
         Location l1 = location(1, 0);
         Location l2 = location(2, 0);
-        when(distanceRepository.getDistance(l1, l2)).thenReturn(0L);
-        when(distanceRepository.getDistance(l2, l1)).thenReturn(1L);
+        when(distanceRepository.getDistances(singletonList(l1), singletonList(l2))).thenReturn(new long[][] { { 0 } });
+        when(distanceRepository.getDistances(singletonList(l2), singletonList(l1))).thenReturn(new long[][] { { 1 } });
 
         // no calculation for the first location
         distanceMatrix.addLocation(l1);
         verifyNoInteractions(distanceCalculator);
         verifyNoInteractions(distanceRepository);
 
-        distanceMatrix.addLocation(l2);
+        DistanceMatrixRow matrixRow2 = distanceMatrix.addLocation(l2);
 
         // get distances from the repository
-        verify(distanceRepository).getDistance(l2, l1);
-        verify(distanceRepository).getDistance(l1, l2);
+        verify(distanceRepository).getDistances(singletonList(l2), singletonList(l1));
+        verify(distanceRepository).getDistances(singletonList(l1), singletonList(l2));
+        assertThat(matrixRow2.distanceTo(l1.id())).isEqualTo(Distance.ofMillis(1));
 
         // nothing to persist
-        verify(distanceRepository, never()).saveDistance(any(Location.class), any(Location.class), anyLong());
+        verify(distanceRepository, never()).saveDistances(anyList(), anyList(), any());
         // no calculation
         verifyNoInteractions(distanceCalculator);
     }
@@ -147,7 +260,7 @@ class DistanceMatrixImplTest {
         // arrange
         Location l1 = location(1, 1);
         Location l2 = location(2, 2);
-        when(distanceRepository.getDistance(any(), any())).thenReturn(-1L);
+        whenRepositoryIsEmpty();
         when(distanceCalculator.travelTimeMillis(l1.coordinates(), l2.coordinates()))
                 .thenThrow(new DistanceCalculationException("dummy"));
 
@@ -164,8 +277,306 @@ class DistanceMatrixImplTest {
         assertThat(distanceMatrix.dimension()).isEqualTo(1);
     }
 
+    @Test
+    void should_add_locations_in_a_batch() {
+        whenRepositoryIsEmpty();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(),
+                distanceRepository,
+                new DistanceCache(CACHE_SIZE, meterRegistry),
+                routingExecutor,
+                meterRegistry);
+
+        Location l0 = location(100, 0);
+        DistanceMatrixRow matrixRow0 = distanceMatrix.addLocation(l0);
+
+        int locationCount = DistanceMatrixImpl.INITIAL_CAPACITY * 2;
+        Location[] locations = new Location[locationCount];
+        for (int i = 0; i < locationCount; i++) {
+            locations[i] = location(1000 + i, i + 1);
+        }
+        List<DistanceMatrixRow> rows = distanceMatrix.addLocations(Arrays.asList(locations));
+
+        assertThat(rows).hasSize(locationCount);
+        assertThat(distanceMatrix.dimension()).isEqualTo(locationCount + 1);
+        for (int i = 0; i < locationCount; i++) {
+            // new rows
+            assertThat(rows.get(i).distanceTo(l0.id())).isEqualTo(Distance.ofMillis(i + 1));
+            assertThat(rows.get(i).distanceMillisTo(matrixRow0.locationIndex())).isEqualTo(i + 1);
+            for (int j = 0; j < locationCount; j++) {
+                assertThat(rows.get(i).distanceTo(locations[j].id())).isEqualTo(Distance.ofMillis(Math.abs(i - j)));
+            }
+            // new column
+            assertThat(matrixRow0.distanceTo(locations[i].id())).isEqualTo(Distance.ofMillis(i + 1));
+        }
+
+        // single additions still work after a batch
+        Location l9neg = location(321, -9);
+        DistanceMatrixRow matrixRow9 = distanceMatrix.addLocation(l9neg);
+        assertThat(matrixRow9.distanceTo(locations[0].id())).isEqualTo(Distance.ofMillis(10));
+        assertThat(rows.get(0).distanceTo(l9neg.id())).isEqualTo(Distance.ofMillis(10));
+    }
+
+    @Test
+    void batch_should_calculate_only_distances_missing_in_repository() {
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        Location l3 = location(3, 3);
+        List<Location> allLocations = Arrays.asList(l1, l2, l3);
+        when(distanceRepository.getDistances(allLocations, allLocations)).thenReturn(new long[][] {
+                { -1, 12, 13 },
+                { -1, -1, -1 },
+                { -1, -1, -1 } });
+        List<Coordinates> allCoordinates = Arrays.asList(l1.coordinates(), l2.coordinates(), l3.coordinates());
+        when(distanceCalculator.travelTimeMillis(Arrays.asList(l2.coordinates(), l3.coordinates()), allCoordinates))
+                .thenReturn(new long[][] { { 21, 0, 23 }, { 31, 32, 0 } });
+
+        List<DistanceMatrixRow> rows = distanceMatrix.addLocations(allLocations);
+
+        // l1's row is complete in the repository, so only l2's and l3's rows are calculated
+        verify(distanceCalculator).travelTimeMillis(anyList(), anyList());
+        // only calculated distances are saved
+        verify(distanceRepository).saveDistances(eq(allLocations), eq(allLocations), matrixEq(new long[][] {
+                { -1, -1, -1 },
+                { 21, -1, 23 },
+                { 31, 32, -1 } }));
+        assertThat(rows.get(0).distanceTo(l2.id())).isEqualTo(Distance.ofMillis(12));
+        assertThat(rows.get(1).distanceTo(l3.id())).isEqualTo(Distance.ofMillis(23));
+        assertThat(rows.get(2).distanceTo(l2.id())).isEqualTo(Distance.ofMillis(32));
+    }
+
+    @Test
+    void matrix_should_not_change_when_batch_fails() {
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        Location l3 = location(3, 3);
+        whenRepositoryIsEmpty();
+        when(distanceCalculator.travelTimeMillis(anyList(), anyList()))
+                .thenThrow(new DistanceCalculationException("dummy"));
+
+        DistanceMatrixRow matrixRow1 = distanceMatrix.addLocation(l1);
+        assertThatExceptionOfType(DistanceCalculationException.class)
+                .isThrownBy(() -> distanceMatrix.addLocations(Arrays.asList(l2, l3)));
+
+        assertThat(distanceMatrix.dimension()).isEqualTo(1);
+        assertThatIllegalArgumentException().isThrownBy(() -> matrixRow1.distanceTo(l2.id()));
+    }
+
+    @Test
+    void re_added_location_should_reuse_cached_distances() {
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        // same address, new ID
+        Location l2again = new Location(3, l2.coordinates());
+        whenRepositoryIsEmpty();
+        when(distanceCalculator.travelTimeMillis(l1.coordinates(), l2.coordinates())).thenReturn(12L);
+        when(distanceCalculator.travelTimeMillis(l2.coordinates(), l1.coordinates())).thenReturn(21L);
+
+        DistanceMatrixRow matrixRow1 = distanceMatrix.addLocation(l1);
+        distanceMatrix.addLocation(l2);
+        distanceMatrix.removeLocation(l2);
+        DistanceMatrixRow matrixRow2again = distanceMatrix.addLocation(l2again);
+
+        // each distance is calculated only once
+        verify(distanceCalculator, times(1)).travelTimeMillis(l1.coordinates(), l2.coordinates());
+        verify(distanceCalculator, times(1)).travelTimeMillis(l2.coordinates(), l1.coordinates());
+        assertThat(matrixRow1.distanceTo(l2again.id())).isEqualTo(Distance.ofMillis(12));
+        assertThat(matrixRow2again.distanceTo(l1.id())).isEqualTo(Distance.ofMillis(21));
+        // cached distances are persisted for the new location
+        verify(distanceRepository).saveDistances(
+                eq(singletonList(l2again)), eq(singletonList(l1)), matrixEq(new long[][] { { 21 } }));
+        verify(distanceRepository).saveDistances(
+                eq(singletonList(l1)), eq(singletonList(l2again)), matrixEq(new long[][] { { 12 } }));
+    }
+
+    @Test
+    void cached_distances_should_survive_clearing_the_matrix() {
+        whenRepositoryIsEmpty();
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        Location l3 = location(3, 3);
+        List<Location> locations = Arrays.asList(l1, l2, l3);
+        List<Coordinates> coordinates = Arrays.asList(l1.coordinates(), l2.coordinates(), l3.coordinates());
+        when(distanceCalculator.travelTimeMillis(coordinates, coordinates))
+                .thenReturn(new long[][] { { 0, 12, 13 }, { 21, 0, 23 }, { 31, 32, 0 } });
+
+        distanceMatrix.addLocations(locations);
+        distanceMatrix.clear();
+        List<DistanceMatrixRow> rows = distanceMatrix.addLocations(locations);
+
+        verify(distanceCalculator, times(1)).travelTimeMillis(anyList(), anyList());
+        assertThat(rows.get(2).distanceTo(l1.id())).isEqualTo(Distance.ofMillis(31));
+        assertThat(rows.get(0).distanceTo(l3.id())).isEqualTo(Distance.ofMillis(13));
+    }
+
+    @Test
+    void removed_location_index_should_be_reused_when_row_is_also_released() {
+        whenRepositoryIsEmpty();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(),
+                distanceRepository,
+                new DistanceCache(CACHE_SIZE, meterRegistry),
+                routingExecutor,
+                meterRegistry);
+
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        Location l3 = location(3, 3);
+        Location l4 = location(4, 4);
+        DistanceMatrixRow matrixRow1 = distanceMatrix.addLocation(l1);
+        DistanceMatrixRow matrixRow2 = distanceMatrix.addLocation(l2);
+
+        // removed from the matrix but the planner may still be using it
+        distanceMatrix.removeLocation(l2);
+        DistanceMatrixRow matrixRow3 = distanceMatrix.addLocation(l3);
+        assertThat(matrixRow3.locationIndex()).isNotEqualTo(matrixRow2.locationIndex());
+        // the removed location's distances are still available to the planner
+        assertThat(matrixRow1.distanceMillisTo(matrixRow2.locationIndex())).isEqualTo(1);
+
+        // released by the planner
+        matrixRow2.release();
+        DistanceMatrixRow matrixRow4 = distanceMatrix.addLocations(singletonList(l4)).get(0);
+        assertThat(matrixRow4.locationIndex()).isEqualTo(matrixRow2.locationIndex());
+        // the reused column holds distances to the new location
+        assertThat(matrixRow1.distanceMillisTo(matrixRow4.locationIndex())).isEqualTo(3);
+        assertThat(matrixRow3.distanceMillisTo(matrixRow4.locationIndex())).isEqualTo(1);
+        assertThat(matrixRow4.distanceMillisTo(matrixRow3.locationIndex())).isEqualTo(1);
+        assertThat(matrixRow4.distanceTo(l1.id())).isEqualTo(Distance.ofMillis(3));
+        assertThatIllegalArgumentException().isThrownBy(() -> matrixRow1.distanceTo(l2.id()));
+    }
+
+    @Test
+    void batch_should_reuse_released_indexes() {
+        whenRepositoryIsEmpty();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(),
+                distanceRepository,
+                new DistanceCache(CACHE_SIZE, meterRegistry),
+                routingExecutor,
+                meterRegistry);
+
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        List<DistanceMatrixRow> rows = distanceMatrix.addLocations(Arrays.asList(l1, l2));
+        // released first, then removed
+        rows.get(0).release();
+        distanceMatrix.removeLocation(l1);
+
+        Location l5 = location(5, 5);
+        Location l7 = location(7, 7);
+        List<DistanceMatrixRow> newRows = distanceMatrix.addLocations(Arrays.asList(l5, l7));
+
+        assertThat(newRows).extracting(DistanceMatrixRow::locationIndex)
+                .containsExactly(rows.get(0).locationIndex(), rows.get(1).locationIndex() + 1);
+        assertThat(rows.get(1).distanceMillisTo(newRows.get(0).locationIndex())).isEqualTo(3);
+        assertThat(newRows.get(1).distanceMillisTo(newRows.get(0).locationIndex())).isEqualTo(2);
+    }
+
+    @Test
+    void rows_released_after_clearing_should_not_free_indexes() {
+        whenRepositoryIsEmpty();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                new MockDistanceCalculator(),
+                distanceRepository,
+                new DistanceCache(CACHE_SIZE, meterRegistry),
+                routingExecutor,
+                meterRegistry);
+
+        distanceMatrix.addLocation(location(1, 1));
+        Location l2 = location(2, 2);
+        DistanceMatrixRow matrixRow2 = distanceMatrix.addLocation(l2);
+        distanceMatrix.removeLocation(l2);
+        distanceMatrix.clear();
+        // the planner releases a row from before clearing
+        matrixRow2.release();
+
+        DistanceMatrixRow newRow1 = distanceMatrix.addLocation(location(3, 3));
+        DistanceMatrixRow newRow2 = distanceMatrix.addLocation(location(4, 4));
+        DistanceMatrixRow newRow3 = distanceMatrix.addLocation(location(5, 5));
+        assertThat(Arrays.asList(newRow1, newRow2, newRow3))
+                .extracting(DistanceMatrixRow::locationIndex)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void location_removed_while_batch_is_calculated_should_be_left_out() {
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        Location l3 = location(3, 3);
+        whenRepositoryIsEmpty();
+        DistanceMatrixRow matrixRow1 = distanceMatrix.addLocation(l1);
+        when(distanceCalculator.travelTimeMillis(anyList(), anyList())).thenAnswer(invocation -> {
+            distanceMatrix.removeLocation(l1);
+            return equatorDistances(invocation.getArgument(0), invocation.getArgument(1));
+        });
+
+        List<DistanceMatrixRow> rows = distanceMatrix.addLocations(Arrays.asList(l2, l3));
+
+        assertThat(distanceMatrix.dimension()).isEqualTo(2);
+        assertThat(rows.get(0).distanceTo(l3.id())).isEqualTo(Distance.ofMillis(1));
+        assertThat(rows.get(1).distanceTo(l2.id())).isEqualTo(Distance.ofMillis(1));
+        assertThatIllegalArgumentException().isThrownBy(() -> rows.get(0).distanceTo(l1.id()));
+        // distances from and to the removed location are not persisted
+        verify(distanceRepository, never()).saveDistances(eq(singletonList(l1)), anyList(), any());
+        verify(distanceRepository).saveDistances(eq(Arrays.asList(l2, l3)), eq(Arrays.asList(l1, l2, l3)),
+                matrixEq(new long[][] {
+                        { -1, -1, 1 },
+                        { -1, 1, -1 } }));
+
+        // the removed location's index is reused without leaking distances calculated for the removed location
+        matrixRow1.release();
+        Location l4 = location(4, 7);
+        DistanceMatrixRow matrixRow4 = distanceMatrix.addLocations(singletonList(l4)).get(0);
+        assertThat(matrixRow4.locationIndex()).isEqualTo(matrixRow1.locationIndex());
+        assertThat(rows.get(0).distanceTo(l4.id())).isEqualTo(Distance.ofMillis(5));
+    }
+
+    @Test
+    void matrix_cleared_while_batch_is_calculated_should_only_get_distances_between_new_locations() {
+        Location l1 = location(1, 1);
+        Location l2 = location(2, 2);
+        Location l3 = location(3, 3);
+        whenRepositoryIsEmpty();
+        distanceMatrix.addLocation(l1);
+        when(distanceCalculator.travelTimeMillis(anyList(), anyList())).thenAnswer(invocation -> {
+            distanceMatrix.clear();
+            return equatorDistances(invocation.getArgument(0), invocation.getArgument(1));
+        });
+
+        List<DistanceMatrixRow> rows = distanceMatrix.addLocations(Arrays.asList(l2, l3));
+
+        assertThat(distanceMatrix.dimension()).isEqualTo(2);
+        assertThat(rows.get(0).distanceTo(l3.id())).isEqualTo(Distance.ofMillis(1));
+        assertThatIllegalArgumentException().isThrownBy(() -> rows.get(1).distanceTo(l1.id()));
+    }
+
+    private static long[][] matrixEq(long[][] expected) {
+        return argThat(distances -> Arrays.deepEquals(distances, expected));
+    }
+
+    private void whenRepositoryIsEmpty() {
+        when(distanceRepository.getDistances(anyList(), anyList())).thenAnswer(invocation -> {
+            long[][] distances = new long[invocation.<List<?>> getArgument(0).size()]
+                    [invocation.<List<?>> getArgument(1).size()];
+            for (long[] row : distances) {
+                Arrays.fill(row, -1);
+            }
+            return distances;
+        });
+    }
+
+    private static long[][] equatorDistances(List<Coordinates> from, List<Coordinates> to) {
+        long[][] distances = new long[from.size()][to.size()];
+        for (int i = 0; i < from.size(); i++) {
+            for (int j = 0; j < to.size(); j++) {
+                distances[i][j] = new MockDistanceCalculator().travelTimeMillis(from.get(i), to.get(j));
+            }
+        }
+        return distances;
+    }
+
     private static Location location(long id, int longitude) {
-        return new Location(id, new Coordinates(BigDecimal.ZERO, BigDecimal.valueOf(longitude)));
+        return new Location(id, Coordinates.valueOf(0, longitude));
     }
 
     private static class MockDistanceCalculator implements DistanceCalculator {
@@ -173,7 +584,7 @@ class DistanceMatrixImplTest {
         @Override
         public long travelTimeMillis(Coordinates from, Coordinates to) {
             // imagine 1D space (all locations on equator)
-            return (long) Math.abs(to.longitude().doubleValue() - from.longitude().doubleValue());
+            return (long) Math.abs(to.longitude() - from.longitude());
         }
     }
 }
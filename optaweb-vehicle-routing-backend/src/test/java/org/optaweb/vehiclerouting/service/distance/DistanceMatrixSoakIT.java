@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Adds and removes many locations to make sure the matrix doesn't grow with the number of locations ever added.
+ */
+class DistanceMatrixSoakIT {
+
+    private static final int LIVE_LOCATIONS = 50;
+    private static final int TOTAL_LOCATIONS = 100_000;
+
+    @Test
+    void matrix_should_not_leak_memory_when_locations_are_added_and_removed() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DistanceMatrixImpl distanceMatrix = new DistanceMatrixImpl(
+                (from, to) -> (long) Math.abs(to.longitude() - from.longitude()),
+                new NoopDistanceRepository(),
+                new DistanceCache(10_000, meterRegistry),
+                new RoutingExecutor(2, 1000, Duration.ofSeconds(10), meterRegistry),
+                meterRegistry);
+        // Locations known to the planner, oldest first.
+        Deque<Location> locations = new ArrayDeque<>();
+        Deque<DistanceMatrixRow> rows = new ArrayDeque<>();
+
+        int maxIndex = 0;
+        for (int id = 0; id < TOTAL_LOCATIONS; id++) {
+            Location location = new Location(id, Coordinates.valueOf(0, id));
+            DistanceMatrixRow row = distanceMatrix.addLocation(location);
+            maxIndex = Math.max(maxIndex, row.locationIndex());
+            locations.addLast(location);
+            rows.addLast(row);
+            if (locations.size() > LIVE_LOCATIONS) {
+                // Same order as LocationService and the planner when the solver isn't running.
+                rows.removeFirst().release();
+                distanceMatrix.removeLocation(locations.removeFirst());
+            }
+        }
+
+        assertThat(distanceMatrix.dimension()).isEqualTo(LIVE_LOCATIONS);
+        // Indexes are reused, so the matrix is as big as the number of locations present at the same time.
+        assertThat(maxIndex).isLessThanOrEqualTo(LIVE_LOCATIONS);
+        // Rows are as long as the capacity, which only grows when no index is free.
+        assertThat(distanceMatrix.capacity()).isLessThanOrEqualTo(2 * LIVE_LOCATIONS);
+        assertThat(distanceMatrix.freeIndexCount()).isLessThanOrEqualTo(LIVE_LOCATIONS);
+        // Distances between the remaining locations are still correct.
+        DistanceMatrixRow first = rows.getFirst();
+        DistanceMatrixRow last = rows.getLast();
+        assertThat(first.distanceMillisTo(last.locationIndex())).isEqualTo(LIVE_LOCATIONS - 1);
+        assertThat(last.distanceTo(locations.getFirst().id()).millis()).isEqualTo(LIVE_LOCATIONS - 1);
+    }
+
+    private static class NoopDistanceRepository implements DistanceRepository {
+
+        @Override
+        public void saveDistances(List<Location> from, List<Location> to, long[][] distances) {
+            // nothing to do
+        }
+
+        @Override
+        public long[][] getDistances(List<Location> from, List<Location> to) {
+            long[][] distances = new long[from.size()][to.size()];
+            for (long[] row : distances) {
+                Arrays.fill(row, DistanceMatrixRowImpl.UNKNOWN);
+            }
+            return distances;
+        }
+
+        @Override
+        public void deleteDistances(Location location) {
+            // nothing to do
+        }
+
+        @Override
+        public void deleteAll() {
+            // nothing to do
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RoutingExecutorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void should_return_results_in_the_order_of_calls() {
+        RoutingExecutor routingExecutor = new RoutingExecutor(4, 100, Duration.ofSeconds(10), meterRegistry);
+        List<Callable<Integer>> calls = IntStream.range(0, 50)
+                .mapToObj(i -> (Callable<Integer>) () -> i * i)
+                .collect(Collectors.toList());
+
+        List<Integer> results = routingExecutor.invokeAll(calls);
+
+        assertThat(results).hasSize(50);
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i)).isEqualTo(i * i);
+        }
+        routingExecutor.shutdown();
+    }
+
+    @Test
+    void should_run_calls_on_routing_threads() {
+        RoutingExecutor routingExecutor = new RoutingExecutor(2, 100, Duration.ofSeconds(10), meterRegistry);
+
+        List<String> threadNames = routingExecutor.invokeAll(Arrays.asList(
+                () -> Thread.currentThread().getName(),
+                () -> Thread.currentThread().getName()));
+
+        assertThat(threadNames).allMatch(name -> name.startsWith("routing-"));
+        routingExecutor.shutdown();
+    }
+
+    @Test
+    void caller_should_run_calls_when_queue_is_full() {
+        RoutingExecutor routingExecutor = new RoutingExecutor(1, 1, Duration.ofSeconds(10), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Callable<String>> calls = new ArrayList<>();
+        // occupies the only routing thread
+        calls.add(() -> {
+            release.await();
+            return Thread.currentThread().getName();
+        });
+        // fills the queue
+        calls.add(() -> Thread.currentThread().getName());
+        // rejected by the pool
+        calls.add(() -> {
+            release.countDown();
+            return Thread.currentThread().getName();
+        });
+        String callerThread = Thread.currentThread().getName();
+
+        List<String> threadNames = routingExecutor.invokeAll(calls);
+
+        assertThat(threadNames.get(2)).isEqualTo(callerThread);
+        assertThat(threadNames.get(0)).startsWith("routing-");
+        assertThat(latencyCount("caller")).isOne();
+        assertThat(latencyCount("pool")).isEqualTo(2);
+        routingExecutor.shutdown();
+    }
+
+    private long latencyCount(String thread) {
+        return meterRegistry.get(RoutingExecutor.LATENCY_METRIC).tag("thread", thread).timer().count();
+    }
+
+    @Test
+    @Timeout(10)
+    void queue_depth_and_active_threads_should_be_exposed_as_gauges() throws InterruptedException {
+        RoutingExecutor routingExecutor = new RoutingExecutor(1, 10, Duration.ofSeconds(10), meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Callable<Long>> calls = new ArrayList<>();
+        // occupies the only routing thread
+        calls.add(() -> {
+            started.countDown();
+            release.await();
+            return 1L;
+        });
+        // wait in the queue
+        calls.add(() -> 2L);
+        calls.add(() -> 3L);
+        Thread batch = new Thread(() -> routingExecutor.invokeAll(calls));
+        batch.start();
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        while (routingExecutor.queueDepth() < 2) {
+            Thread.sleep(1);
+        }
+
+        assertThat(meterRegistry.get(RoutingExecutor.ACTIVE_THREADS_METRIC).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(RoutingExecutor.QUEUE_DEPTH_METRIC).gauge().value()).isEqualTo(2);
+
+        release.countDown();
+        batch.join(10_000);
+        assertThat(meterRegistry.get(RoutingExecutor.QUEUE_DEPTH_METRIC).gauge().value()).isZero();
+        routingExecutor.shutdown();
+    }
+
+    @Test
+    void should_propagate_distance_calculation_exception() {
+        RoutingExecutor routingExecutor = new RoutingExecutor(2, 100, Duration.ofSeconds(10), meterRegistry);
+        DistanceCalculationException exception = new DistanceCalculationException("No route");
+
+        assertThatExceptionOfType(DistanceCalculationException.class)
+                .isThrownBy(() -> routingExecutor.invokeAll(Arrays.asList(
+                        () -> 1L,
+                        () -> {
+                            throw exception;
+                        })))
+                .isSameAs(exception);
+        routingExecutor.shutdown();
+    }
+
+    @Test
+    void should_fail_when_call_times_out() {
+        RoutingExecutor routingExecutor = new RoutingExecutor(1, 100, Duration.ofMillis(50), meterRegistry);
+        CountDownLatch never = new CountDownLatch(1);
+
+        assertThatExceptionOfType(DistanceCalculationException.class)
+                .isThrownBy(() -> routingExecutor.invokeAll(Arrays.asList(
+                        () -> {
+                            never.await();
+                            return 1L;
+                        })))
+                .withMessageContaining("timed out");
+        // the stuck call has been cancelled (interrupted) so the routing thread is free again
+        assertThat(routingExecutor.invokeAll(Arrays.asList(() -> 2L))).containsExactly(2L);
+        routingExecutor.shutdown();
+    }
+
+    @Test
+    void timeout_should_apply_to_the_whole_batch() {
+        RoutingExecutor routingExecutor = new RoutingExecutor(1, 100, Duration.ofMillis(300), meterRegistry);
+        // Each call finishes well within the timeout but the batch doesn't.
+        List<Callable<Long>> calls = IntStream.range(0, 10)
+                .mapToObj(i -> (Callable<Long>) () -> {
+                    Thread.sleep(100);
+                    return 1L;
+                })
+                .collect(Collectors.toList());
+
+        assertThatExceptionOfType(DistanceCalculationException.class)
+                .isThrownBy(() -> routingExecutor.invokeAll(calls))
+                .withMessageContaining("timed out");
+        // the remaining calls have been cancelled and removed from the queue
+        assertThat(routingExecutor.queueDepth()).isZero();
+        routingExecutor.shutdown();
+    }
+
+    @Test
+    void should_stop_submitting_when_a_call_on_the_caller_thread_exceeds_the_timeout() {
+        RoutingExecutor routingExecutor = new RoutingExecutor(1, 1, Duration.ofMillis(100), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger callsRun = new AtomicInteger();
+        List<Callable<Long>> calls = new ArrayList<>();
+        // occupies the only routing thread
+        calls.add(() -> {
+            release.await();
+            return 1L;
+        });
+        // fills the queue
+        calls.add(() -> 2L);
+        // runs on the caller thread and exceeds the timeout
+        calls.add(() -> {
+            Thread.sleep(200);
+            release.countDown();
+            return 3L;
+        });
+        // must not be submitted
+        calls.add(() -> (long) callsRun.incrementAndGet());
+
+        assertThatExceptionOfType(DistanceCalculationException.class)
+                .isThrownBy(() -> routingExecutor.invokeAll(calls))
+                .withMessageContaining("timed out");
+        assertThat(callsRun).hasValue(0);
+        routingExecutor.shutdown();
+    }
+}
@@ -16,11 +16,15 @@
 
 package org.optaweb.vehiclerouting.service.location;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -28,15 +32,22 @@ import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.LocationData;
 import org.optaweb.vehiclerouting.service.error.ErrorEvent;
 import org.springframework.context.ApplicationEventPublisher;
 
@@ -51,6 +62,8 @@ class LocationServiceTest {
     private DistanceMatrix distanceMatrix;
     @Mock
     private ApplicationEventPublisher eventPublisher;
+    @Captor
+    private ArgumentCaptor<LocationRemovedEvent> locationRemovedEventCaptor;
     @InjectMocks
     private LocationService locationService;
 
@@ -91,6 +104,51 @@ class LocationServiceTest {
         verify(optimizer).addLocation(location, matrixRow);
     }
 
+    @Test
+    void createLocations(@Mock DistanceMatrixRow matrixRow1, @Mock DistanceMatrixRow matrixRow2) {
+        Location location2 = new Location(2, coordinates);
+        when(repository.createLocation(coordinates, "1")).thenReturn(location);
+        when(repository.createLocation(coordinates, "2")).thenReturn(location2);
+        when(distanceMatrix.addLocations(Arrays.asList(location, location2)))
+                .thenReturn(Arrays.asList(matrixRow1, matrixRow2));
+
+        List<Location> discarded = locationService.createLocations(Arrays.asList(
+                new LocationData(coordinates, "1"),
+                new LocationData(coordinates, "2")));
+
+        assertThat(discarded).isEmpty();
+        verify(optimizer).addLocations(Arrays.asList(location, location2), Arrays.asList(matrixRow1, matrixRow2));
+        verify(optimizer, never()).addLocation(any(), any());
+        verify(distanceMatrix, never()).addLocation(any());
+    }
+
+    @Test
+    void addLocations(@Mock DistanceMatrixRow matrixRow) {
+        when(distanceMatrix.addLocations(Collections.singletonList(location)))
+                .thenReturn(Collections.singletonList(matrixRow));
+
+        assertThat(locationService.addLocations(Collections.singletonList(location))).isEmpty();
+
+        verifyNoInteractions(repository);
+        verify(optimizer).addLocations(Collections.singletonList(location), Collections.singletonList(matrixRow));
+    }
+
+    @Test
+    void should_add_locations_one_by_one_and_discard_failed_ones_when_batch_fails(@Mock DistanceMatrixRow matrixRow) {
+        Location location2 = new Location(2, coordinates);
+        when(distanceMatrix.addLocations(anyList())).thenThrow(new RuntimeException("test exception"));
+        when(distanceMatrix.addLocation(location)).thenReturn(matrixRow);
+        when(distanceMatrix.addLocation(location2)).thenThrow(new RuntimeException("test exception"));
+
+        List<Location> discarded = locationService.addLocations(Arrays.asList(location, location2));
+
+        assertThat(discarded).containsExactly(location2);
+        verify(optimizer).addLocation(location, matrixRow);
+        verify(optimizer, never()).addLocation(eq(location2), any());
+        verify(eventPublisher).publishEvent(any(ErrorEvent.class));
+        verify(repository).removeLocation(location2.id());
+    }
+
     @Test
     void removing_depot_should_be_successful_when_it_is_the_last_location() {
         when(repository.locations()).thenReturn(Collections.singletonList(location));
@@ -100,7 +158,8 @@ class LocationServiceTest {
 
         verify(repository).removeLocation(location.id());
         verify(optimizer).removeLocation(location);
-        verifyNoInteractions(eventPublisher);
+        verify(eventPublisher).publishEvent(locationRemovedEventCaptor.capture());
+        assertThat(locationRemovedEventCaptor.getValue().locationId()).contains(location.id());
         // TODO remove location from distance matrix
     }
 
@@ -142,7 +201,8 @@ class LocationServiceTest {
         verify(optimizer).removeLocation(visit);
         verify(distanceMatrix).removeLocation(visit);
         verify(repository).removeLocation(visit.id());
-        verifyNoInteractions(eventPublisher);
+        verify(eventPublisher).publishEvent(locationRemovedEventCaptor.capture());
+        assertThat(locationRemovedEventCaptor.getValue().locationId()).contains(visit.id());
     }
 
     @Test
@@ -151,6 +211,8 @@ class LocationServiceTest {
         verify(optimizer).removeAllLocations();
         verify(repository).removeAll();
         verify(distanceMatrix).clear();
+        verify(eventPublisher).publishEvent(locationRemovedEventCaptor.capture());
+        assertThat(locationRemovedEventCaptor.getValue().locationId()).isEmpty();
     }
 
     @Test
@@ -165,4 +227,121 @@ class LocationServiceTest {
         // roll back
         verify(repository).removeLocation(location.id());
     }
+
+    @Test
+    void location_removed_while_its_distances_are_calculated_should_not_reach_optimizer(
+            @Mock DistanceMatrixRow matrixRow) throws InterruptedException {
+        CountDownLatch calculating = new CountDownLatch(1);
+        CountDownLatch removed = new CountDownLatch(1);
+        when(repository.createLocation(coordinates, "")).thenReturn(location);
+        when(repository.find(location.id())).thenReturn(Optional.of(location));
+        when(repository.locations()).thenReturn(Collections.singletonList(location));
+        when(distanceMatrix.addLocation(location)).thenAnswer(invocation -> {
+            calculating.countDown();
+            assertThat(removed.await(10, SECONDS)).isTrue();
+            return matrixRow;
+        });
+
+        CompletableFuture<Boolean> result = locationService.createLocationAsync(coordinates, "");
+        assertThat(calculating.await(10, SECONDS)).isTrue();
+        // Doesn't wait for the distance calculation.
+        locationService.removeLocation(location.id());
+        removed.countDown();
+
+        assertThat(result.join()).isFalse();
+        verify(repository).removeLocation(location.id());
+        verify(distanceMatrix).removeLocation(location);
+        verify(matrixRow).release();
+        verifyNoInteractions(optimizer);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void location_removed_while_queued_should_not_be_ingested(@Mock DistanceMatrixRow matrixRow)
+            throws InterruptedException {
+        Location visit = new Location(2, coordinates);
+        CountDownLatch calculating = new CountDownLatch(1);
+        CountDownLatch removed = new CountDownLatch(1);
+        when(repository.createLocation(coordinates, "depot")).thenReturn(location);
+        when(repository.createLocation(coordinates, "visit")).thenReturn(visit);
+        when(repository.find(visit.id())).thenReturn(Optional.of(visit));
+        when(repository.locations()).thenReturn(Arrays.asList(location, visit));
+        when(distanceMatrix.addLocation(location)).thenAnswer(invocation -> {
+            calculating.countDown();
+            assertThat(removed.await(10, SECONDS)).isTrue();
+            return matrixRow;
+        });
+
+        CompletableFuture<Boolean> depotResult = locationService.createLocationAsync(coordinates, "depot");
+        assertThat(calculating.await(10, SECONDS)).isTrue();
+        CompletableFuture<Boolean> visitResult = locationService.createLocationAsync(coordinates, "visit");
+        locationService.removeLocation(visit.id());
+        removed.countDown();
+
+        assertThat(visitResult.join()).isFalse();
+        assertThat(depotResult.join()).isTrue();
+        verify(repository).removeLocation(visit.id());
+        verify(distanceMatrix, never()).addLocation(visit);
+        verify(distanceMatrix, never()).addLocations(anyList());
+        verify(optimizer).addLocation(location, matrixRow);
+        verify(optimizer, never()).addLocation(eq(visit), any());
+    }
+
+    @Test
+    void locations_queued_while_distances_are_calculated_should_be_added_in_a_batch_in_order(
+            @Mock DistanceMatrixRow matrixRow1,
+            @Mock DistanceMatrixRow matrixRow2,
+            @Mock DistanceMatrixRow matrixRow3) throws InterruptedException {
+        Location location2 = new Location(2, coordinates);
+        Location location3 = new Location(3, coordinates);
+        CountDownLatch calculating = new CountDownLatch(1);
+        CountDownLatch queued = new CountDownLatch(1);
+        when(repository.createLocation(coordinates, "1")).thenReturn(location);
+        when(repository.createLocation(coordinates, "2")).thenReturn(location2);
+        when(repository.createLocation(coordinates, "3")).thenReturn(location3);
+        when(distanceMatrix.addLocation(location)).thenAnswer(invocation -> {
+            calculating.countDown();
+            assertThat(queued.await(10, SECONDS)).isTrue();
+            return matrixRow1;
+        });
+        when(distanceMatrix.addLocations(Arrays.asList(location2, location3)))
+                .thenReturn(Arrays.asList(matrixRow2, matrixRow3));
+
+        CompletableFuture<Boolean> result1 = locationService.createLocationAsync(coordinates, "1");
+        assertThat(calculating.await(10, SECONDS)).isTrue();
+        CompletableFuture<Boolean> result2 = locationService.createLocationAsync(coordinates, "2");
+        CompletableFuture<Boolean> result3 = locationService.createLocationAsync(coordinates, "3");
+        queued.countDown();
+
+        assertThat(Arrays.asList(result1.join(), result2.join(), result3.join())).containsOnly(true);
+        InOrder inOrder = inOrder(optimizer);
+        inOrder.verify(optimizer).addLocation(location, matrixRow1);
+        inOrder.verify(optimizer).addLocations(
+                Arrays.asList(location2, location3),
+                Arrays.asList(matrixRow2, matrixRow3));
+    }
+
+    @Test
+    void clearing_while_distances_are_calculated_should_discard_the_location(@Mock DistanceMatrixRow matrixRow)
+            throws InterruptedException {
+        CountDownLatch calculating = new CountDownLatch(1);
+        CountDownLatch cleared = new CountDownLatch(1);
+        when(repository.createLocation(coordinates, "")).thenReturn(location);
+        when(distanceMatrix.addLocation(location)).thenAnswer(invocation -> {
+            calculating.countDown();
+            assertThat(cleared.await(10, SECONDS)).isTrue();
+            return matrixRow;
+        });
+
+        CompletableFuture<Boolean> result = locationService.createLocationAsync(coordinates, "");
+        assertThat(calculating.await(10, SECONDS)).isTrue();
+        locationService.removeAll();
+        cleared.countDown();
+
+        assertThat(result.join()).isFalse();
+        verify(distanceMatrix).clear();
+        verify(distanceMatrix).removeLocation(location);
+        verify(matrixRow).release();
+        verify(optimizer, never()).addLocation(any(), any());
+    }
 }
@@ -16,7 +16,6 @@
 
 package org.optaweb.vehiclerouting.service.reload;
 
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -69,8 +68,8 @@ class ReloadServiceTest {
         reloadService.reload(event);
 
         verify(vehicleRepository).vehicles();
-        verify(vehicleService, times(persistedVehicles.size())).addVehicle(vehicle);
+        verify(vehicleService).addVehicles(persistedVehicles);
         verify(locationRepository).locations();
-        verify(locationService, times(persistedLocations.size())).addLocation(location);
+        verify(locationService).addLocations(persistedLocations);
     }
 }
@@ -21,6 +21,7 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -35,6 +36,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.optaweb.vehiclerouting.domain.Coordinates;
 import org.optaweb.vehiclerouting.domain.Distance;
@@ -46,6 +48,9 @@ import org.optaweb.vehiclerouting.domain.VehicleFactory;
 import org.optaweb.vehiclerouting.service.location.LocationRepository;
 import org.optaweb.vehiclerouting.service.vehicle.VehicleRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class RouteListenerTest {
 
@@ -57,6 +62,10 @@ class RouteListenerTest {
     private VehicleRepository vehicleRepository;
     @Mock
     private LocationRepository locationRepository;
+    @Spy
+    private TrackCache trackCache = new TrackCache(1000);
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     @Captor
     private ArgumentCaptor<RoutingPlan> routeArgumentCaptor;
     @InjectMocks
@@ -87,6 +96,7 @@ class RouteListenerTest {
         assertThat(routingPlan.depot()).isEmpty();
         assertThat(routingPlan.visits()).isEmpty();
         assertThat(routingPlan.routes()).isEmpty();
+        assertThat(meterRegistry.get(RouteListener.CONVERSION_METRIC).timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -168,6 +178,56 @@ class RouteListenerTest {
         assertThat(routeListener.getBestRoutingPlan()).isEqualTo(routingPlan);
     }
 
+    @Test
+    void tracks_should_be_reused_by_following_updates_until_location_is_removed() {
+        final Coordinates depotCoordinates = Coordinates.valueOf(0.0, 0.1);
+        final Coordinates visit1Coordinates = Coordinates.valueOf(2.0, -0.2);
+        final Coordinates visit2Coordinates = Coordinates.valueOf(3.0, -0.3);
+        when(router.getPath(any(), any())).thenAnswer(invocation -> Arrays.asList(
+                invocation.getArgument(0, Coordinates.class),
+                invocation.getArgument(1, Coordinates.class)));
+
+        final Vehicle vehicle = VehicleFactory.testVehicle(1);
+        final Location depot = new Location(1, depotCoordinates);
+        final Location visit1 = new Location(2, visit1Coordinates);
+        final Location visit2 = new Location(3, visit2Coordinates);
+        when(vehicleRepository.find(vehicle.id())).thenReturn(Optional.of(vehicle));
+        when(locationRepository.find(depot.id())).thenReturn(Optional.of(depot));
+        when(locationRepository.find(visit1.id())).thenReturn(Optional.of(visit1));
+        when(locationRepository.find(visit2.id())).thenReturn(Optional.of(visit2));
+
+        List<Long> visitIds = Arrays.asList(visit1.id(), visit2.id());
+        RouteChangedEvent event = new RouteChangedEvent(
+                this,
+                Distance.ofMillis(10),
+                singletonList(vehicle.id()),
+                depot.id(),
+                visitIds,
+                singletonList(new ShallowRoute(vehicle.id(), depot.id(), visitIds)));
+
+        routeListener.onApplicationEvent(event);
+        routeListener.onApplicationEvent(event);
+
+        // 3 legs, each calculated only once
+        verify(router, times(3)).getPath(any(), any());
+        assertThat(trackCache.size()).isEqualTo(3);
+
+        // visit 2 is removed
+        RouteChangedEvent eventAfterRemoval = new RouteChangedEvent(
+                this,
+                Distance.ofMillis(4),
+                singletonList(vehicle.id()),
+                depot.id(),
+                singletonList(visit1.id()),
+                singletonList(new ShallowRoute(vehicle.id(), depot.id(), singletonList(visit1.id()))));
+
+        routeListener.onApplicationEvent(eventAfterRemoval);
+
+        // only the track from visit 1 to depot is new
+        verify(router).getPath(visit1Coordinates, depotCoordinates);
+        assertThat(trackCache.size()).isEqualTo(4);
+    }
+
     @Test
     void should_discard_update_gracefully_if_one_of_the_locations_no_longer_exist() {
         final Vehicle vehicle = VehicleFactory.testVehicle(3);
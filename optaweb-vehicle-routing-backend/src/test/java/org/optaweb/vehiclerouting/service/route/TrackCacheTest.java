@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.route;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.location.LocationRemovedEvent;
+
+class TrackCacheTest {
+
+    private final Location location1 = new Location(1, Coordinates.valueOf(1, 2));
+    private final Location location2 = new Location(2, Coordinates.valueOf(3, 4));
+    private final Location location3 = new Location(3, Coordinates.valueOf(5, 6));
+
+    private static List<Coordinates> track(Location from, Location to) {
+        return asList(from.coordinates(), to.coordinates());
+    }
+
+    @Test
+    void should_return_null_when_not_cached() {
+        TrackCache trackCache = new TrackCache(10);
+
+        assertThat(trackCache.get(location1, location2)).isNull();
+
+        trackCache.put(location1, location2, track(location1, location2));
+        assertThat(trackCache.get(location1, location2)).isEqualTo(track(location1, location2));
+        // direction matters
+        assertThat(trackCache.get(location2, location1)).isNull();
+    }
+
+    @Test
+    void least_recently_used_tracks_should_be_evicted_when_points_exceed_limit() {
+        TrackCache trackCache = new TrackCache(5);
+        trackCache.put(location1, location2, track(location1, location2));
+        trackCache.put(location2, location3, track(location2, location3));
+        // access the older track so that it becomes the most recently used one
+        trackCache.get(location1, location2);
+
+        trackCache.put(location3, location1, asList(location3.coordinates(), location2.coordinates(),
+                location1.coordinates()));
+
+        assertThat(trackCache.size()).isEqualTo(2);
+        assertThat(trackCache.points()).isEqualTo(5);
+        assertThat(trackCache.get(location2, location3)).isNull();
+        assertThat(trackCache.get(location1, location2)).isNotNull();
+        assertThat(trackCache.get(location3, location1)).isNotNull();
+    }
+
+    @Test
+    void track_longer_than_limit_should_not_be_cached() {
+        TrackCache trackCache = new TrackCache(1);
+
+        trackCache.put(location1, location2, track(location1, location2));
+
+        assertThat(trackCache.size()).isZero();
+        assertThat(trackCache.points()).isZero();
+    }
+
+    @Test
+    void replaced_track_should_not_be_counted_twice() {
+        TrackCache trackCache = new TrackCache(10);
+
+        trackCache.put(location1, location2, track(location1, location2));
+        trackCache.put(location1, location2, track(location1, location2));
+
+        assertThat(trackCache.size()).isEqualTo(1);
+        assertThat(trackCache.points()).isEqualTo(2);
+    }
+
+    @Test
+    void tracks_of_removed_location_should_be_evicted() {
+        TrackCache trackCache = new TrackCache(10);
+        trackCache.put(location1, location2, track(location1, location2));
+        trackCache.put(location2, location1, track(location2, location1));
+        trackCache.put(location2, location3, track(location2, location3));
+        trackCache.put(location3, location1, track(location3, location1));
+
+        trackCache.onApplicationEvent(new LocationRemovedEvent(this, location3.id()));
+
+        assertThat(trackCache.size()).isEqualTo(2);
+        assertThat(trackCache.points()).isEqualTo(4);
+        assertThat(trackCache.get(location1, location2)).isNotNull();
+        assertThat(trackCache.get(location2, location1)).isNotNull();
+    }
+
+    @Test
+    void all_tracks_should_be_evicted_when_all_locations_are_removed() {
+        TrackCache trackCache = new TrackCache(10);
+        trackCache.put(location1, location2, track(location1, location2));
+        trackCache.put(location2, location3, track(location2, location3));
+
+        trackCache.onApplicationEvent(new LocationRemovedEvent(this, null));
+
+        assertThat(trackCache.size()).isZero();
+        assertThat(trackCache.points()).isZero();
+    }
+
+    @Test
+    void zero_size_should_disable_cache() {
+        TrackCache trackCache = new TrackCache(0);
+
+        trackCache.put(location1, location2, track(location1, location2));
+
+        assertThat(trackCache.size()).isZero();
+        assertThat(trackCache.get(location1, location2)).isNull();
+    }
+}
@@ -19,6 +19,8 @@ package org.optaweb.vehiclerouting.service.vehicle;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -98,6 +100,40 @@ class VehicleServiceTest {
         verify(optimizer).addVehicle(vehicle);
     }
 
+    @Test
+    void createVehicles() {
+        VehicleData vehicleData1 = VehicleFactory.vehicleData("1", 10);
+        VehicleData vehicleData2 = VehicleFactory.vehicleData("2", 20);
+        Vehicle vehicle1 = VehicleFactory.createVehicle(1, "1", 10);
+        Vehicle vehicle2 = VehicleFactory.createVehicle(2, "2", 20);
+        when(vehicleRepository.createVehicle(vehicleData1)).thenReturn(vehicle1);
+        when(vehicleRepository.createVehicle(vehicleData2)).thenReturn(vehicle2);
+
+        vehicleService.createVehicles(asList(vehicleData1, vehicleData2));
+
+        // all vehicles are passed to optimizer at once
+        verify(optimizer).addVehicles(asList(vehicle1, vehicle2));
+        verify(optimizer, never()).addVehicle(any());
+    }
+
+    @Test
+    void addVehicles_should_validate_arguments() {
+        assertThatNullPointerException().isThrownBy(
+                () -> vehicleService.addVehicles(asList(VehicleFactory.testVehicle(1), null)));
+        verifyNoInteractions(optimizer);
+    }
+
+    @Test
+    void addVehicles() {
+        final Vehicle vehicle1 = VehicleFactory.testVehicle(1);
+        final Vehicle vehicle2 = VehicleFactory.testVehicle(2);
+
+        vehicleService.addVehicles(asList(vehicle1, vehicle2));
+
+        verifyNoInteractions(vehicleRepository);
+        verify(optimizer).addVehicles(asList(vehicle1, vehicle2));
+    }
+
     @Test
     void removeVehicle() {
         final long vehicleId = 8;
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import org.optaweb.vehiclerouting.domain.Coordinates;
+import org.optaweb.vehiclerouting.domain.Distance;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.LocationData;
+import org.optaweb.vehiclerouting.domain.Route;
+import org.optaweb.vehiclerouting.domain.RouteWithTrack;
+import org.optaweb.vehiclerouting.domain.RoutingPlan;
+import org.optaweb.vehiclerouting.domain.RoutingProblem;
+import org.optaweb.vehiclerouting.domain.Vehicle;
+import org.optaweb.vehiclerouting.domain.VehicleData;
+import org.optaweb.vehiclerouting.domain.VehicleFactory;
+import org.optaweb.vehiclerouting.plugin.planner.DistanceMapImpl;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningDepot;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocation;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocationFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicle;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVehicleFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisitFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.SolutionFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.Standstill;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.service.distance.BenchmarkDistanceMatrixFactory;
+import org.optaweb.vehiclerouting.service.distance.DistanceCalculator;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+
+/**
+ * Generates reproducible benchmark problems.
+ */
+class BenchmarkProblems {
+
+    // Roughly the bounding box of Belgium.
+    private static final double MIN_LATITUDE = 49.5;
+    private static final double MAX_LATITUDE = 51.5;
+    private static final double MIN_LONGITUDE = 2.5;
+    private static final double MAX_LONGITUDE = 6.4;
+    // Average speed of 50 km/h expressed in degrees per millisecond (1° ≈ 111 km).
+    private static final double DEGREES_PER_MILLISECOND = 50.0 / 111 / 3600_000;
+
+    private BenchmarkProblems() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Generate random locations. The same count always produces the same locations.
+     *
+     * @param count number of locations
+     * @return locations with IDs starting at 1
+     */
+    static List<Location> locations(int count) {
+        Random random = new Random(37);
+        List<Location> locations = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            double latitude = MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+            double longitude = MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+            locations.add(new Location(i, Coordinates.valueOf(latitude, longitude)));
+        }
+        return locations;
+    }
+
+    /**
+     * Distance calculator that doesn't need a road network. Travel time is proportional to the Euclidean distance.
+     *
+     * @return distance calculator
+     */
+    static DistanceCalculator euclideanDistanceCalculator() {
+        return (from, to) -> {
+            double latitudeDiff = to.latitude() - from.latitude();
+            double longitudeDiff = to.longitude() - from.longitude();
+            return (long) (Math.sqrt(latitudeDiff * latitudeDiff + longitudeDiff * longitudeDiff)
+                    / DEGREES_PER_MILLISECOND);
+        };
+    }
+
+    /**
+     * Create a fully initialized solution. The first location is the depot, the others are visits distributed
+     * among vehicles (round-robin).
+     *
+     * @param locations planning locations, the first one is the depot
+     * @param vehicleCount number of vehicles
+     * @return initialized solution with an unknown score
+     */
+    static VehicleRoutingSolution solution(List<PlanningLocation> locations, int vehicleCount) {
+        int visitCount = locations.size() - 1;
+        PlanningDepot depot = new PlanningDepot(locations.get(0));
+        List<PlanningVehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < vehicleCount; i++) {
+            vehicles.add(PlanningVehicleFactory.testVehicle(i, visitCount / vehicleCount));
+        }
+        List<PlanningVisit> visits = new ArrayList<>();
+        for (PlanningLocation location : locations.subList(1, locations.size())) {
+            visits.add(PlanningVisitFactory.fromLocation(location));
+        }
+        VehicleRoutingSolution solution = SolutionFactory.solutionFromVisits(vehicles, depot, visits);
+        Standstill[] lastStandstills = vehicles.toArray(new Standstill[0]);
+        for (int i = 0; i < visits.size(); i++) {
+            int vehicleIndex = i % vehicles.size();
+            PlanningVisit visit = visits.get(i);
+            Standstill previousStandstill = lastStandstills[vehicleIndex];
+            visit.setPreviousStandstill(previousStandstill);
+            visit.setVehicle(vehicles.get(vehicleIndex));
+            previousStandstill.setNextVisit(visit);
+            lastStandstills[vehicleIndex] = visit;
+        }
+        solution.setScore(HardSoftLongScore.ZERO);
+        return solution;
+    }
+
+    /**
+     * Create an uninitialized solution of a demo data set. Distances are calculated by the given calculator.
+     *
+     * @param routingProblem demo data set with a depot
+     * @param distanceCalculator calculates distances between the data set's locations
+     * @return solution with all visits unassigned
+     */
+    static VehicleRoutingSolution solution(RoutingProblem routingProblem, DistanceCalculator distanceCalculator) {
+        List<Location> locations = new ArrayList<>();
+        routingProblem.depot().ifPresent(depot -> locations.add(new Location(1, depot.coordinates())));
+        if (locations.isEmpty()) {
+            throw new IllegalArgumentException("Data set " + routingProblem.name() + " has no depot");
+        }
+        for (LocationData visit : routingProblem.visits()) {
+            locations.add(new Location(locations.size() + 1, visit.coordinates()));
+        }
+        List<DistanceMatrixRow> rows = BenchmarkDistanceMatrixFactory.distanceMatrix(distanceCalculator)
+                .addLocations(locations);
+        List<PlanningLocation> planningLocations = new ArrayList<>();
+        for (int i = 0; i < locations.size(); i++) {
+            DistanceMatrixRow row = rows.get(i);
+            planningLocations.add(PlanningLocationFactory.fromDomain(
+                    locations.get(i),
+                    row.locationIndex(),
+                    new DistanceMapImpl(row)));
+        }
+
+        List<PlanningVehicle> vehicles = new ArrayList<>();
+        for (VehicleData vehicleData : routingProblem.vehicles()) {
+            vehicles.add(PlanningVehicleFactory.fromDomain(
+                    VehicleFactory.createVehicle(vehicles.size() + 1, vehicleData.name(), vehicleData.capacity())));
+        }
+        List<PlanningVisit> visits = new ArrayList<>();
+        for (PlanningLocation location : planningLocations.subList(1, planningLocations.size())) {
+            visits.add(PlanningVisitFactory.fromLocation(location));
+        }
+        return SolutionFactory.solutionFromVisits(vehicles, new PlanningDepot(planningLocations.get(0)), visits);
+    }
+
+    /**
+     * Create a routing plan as it would be published after solving. The first location is the depot, the others are
+     * visits distributed among vehicles (round-robin). Each leg's track is a straight line.
+     *
+     * @param locations locations, the first one is the depot
+     * @param vehicleCount number of vehicles
+     * @param pointsPerLeg number of track points of each leg
+     * @return routing plan
+     */
+    static RoutingPlan routingPlan(List<Location> locations, int vehicleCount, int pointsPerLeg) {
+        Location depot = locations.get(0);
+        List<Location> visits = locations.subList(1, locations.size());
+        List<Vehicle> vehicles = new ArrayList<>();
+        List<List<Location>> routeVisits = new ArrayList<>();
+        for (int i = 0; i < vehicleCount; i++) {
+            vehicles.add(VehicleFactory.createVehicle(i, "Vehicle " + i, visits.size() / vehicleCount));
+            routeVisits.add(new ArrayList<>());
+        }
+        for (int i = 0; i < visits.size(); i++) {
+            routeVisits.get(i % vehicleCount).add(visits.get(i));
+        }
+        List<RouteWithTrack> routes = new ArrayList<>();
+        for (int i = 0; i < vehicleCount; i++) {
+            List<Location> stops = new ArrayList<>();
+            stops.add(depot);
+            stops.addAll(routeVisits.get(i));
+            stops.add(depot);
+            List<List<Coordinates>> track = new ArrayList<>();
+            for (int j = 1; j < stops.size() && !routeVisits.get(i).isEmpty(); j++) {
+                track.add(straightLine(stops.get(j - 1).coordinates(), stops.get(j).coordinates(), pointsPerLeg));
+            }
+            routes.add(new RouteWithTrack(new Route(vehicles.get(i), depot, routeVisits.get(i)), track));
+        }
+        return new RoutingPlan(Distance.ZERO, vehicles, depot, visits, routes);
+    }
+
+    private static List<Coordinates> straightLine(Coordinates from, Coordinates to, int points) {
+        List<Coordinates> line = new ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            double ratio = (double) i / (points - 1);
+            line.add(Coordinates.valueOf(
+                    from.latitude() + (to.latitude() - from.latitude()) * ratio,
+                    from.longitude() + (to.longitude() - from.longitude()) * ratio));
+        }
+        return line;
+    }
+}
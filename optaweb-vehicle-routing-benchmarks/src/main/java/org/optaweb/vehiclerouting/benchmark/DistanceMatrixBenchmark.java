@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.distance.BenchmarkDistanceMatrixFactory;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrix;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+
+/**
+ * Measures how long it takes to add a location to a distance matrix that already holds the given number
+ * of locations. That is what happens each time a user adds a visit on the map.
+ * <p>
+ * The added location is removed (and released) after each invocation so that the matrix size doesn't grow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceMatrixBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    int locationCount;
+
+    private DistanceMatrix distanceMatrix;
+    private Location newLocation;
+    private DistanceMatrixRow newRow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        distanceMatrix = BenchmarkDistanceMatrixFactory.distanceMatrix(
+                BenchmarkProblems.euclideanDistanceCalculator());
+        List<Location> locations = BenchmarkProblems.locations(locationCount + 1);
+        distanceMatrix.addLocations(locations.subList(0, locationCount));
+        newLocation = locations.get(locationCount);
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeNewLocation() {
+        distanceMatrix.removeLocation(newLocation);
+        newRow.release();
+    }
+
+    /**
+     * Add one location to the matrix.
+     *
+     * @return the new location's row
+     */
+    @Benchmark
+    public DistanceMatrixRow addLocation() {
+        newRow = distanceMatrix.addLocation(newLocation);
+        return newRow;
+    }
+}
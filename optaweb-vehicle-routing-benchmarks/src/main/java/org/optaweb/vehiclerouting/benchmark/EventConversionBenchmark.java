@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.domain.RoutingPlan;
+import org.optaweb.vehiclerouting.plugin.planner.BenchmarkRouteChangedEventFactory;
+import org.optaweb.vehiclerouting.plugin.planner.DistanceMapImpl;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocation;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocationFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.plugin.websocket.BenchmarkPortableRoutingPlanFactory;
+import org.optaweb.vehiclerouting.service.distance.BenchmarkDistanceMatrixFactory;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+import org.optaweb.vehiclerouting.service.route.RouteChangedEvent;
+
+/**
+ * Measures the conversions that each published best solution goes through on its way to the UI.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventConversionBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    int visitCount;
+
+    @Param({ "10" })
+    int vehicleCount;
+
+    @Param({ "20" })
+    int trackPointsPerLeg;
+
+    private VehicleRoutingSolution solution;
+    private RoutingPlan routingPlan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Location> domainLocations = BenchmarkProblems.locations(visitCount + 1);
+        List<DistanceMatrixRow> rows = BenchmarkDistanceMatrixFactory
+                .distanceMatrix(BenchmarkProblems.euclideanDistanceCalculator())
+                .addLocations(domainLocations);
+        List<PlanningLocation> locations = new ArrayList<>();
+        for (int i = 0; i < domainLocations.size(); i++) {
+            DistanceMatrixRow row = rows.get(i);
+            locations.add(PlanningLocationFactory.fromDomain(
+                    domainLocations.get(i),
+                    row.locationIndex(),
+                    new DistanceMapImpl(row)));
+        }
+        solution = BenchmarkProblems.solution(locations, vehicleCount);
+        routingPlan = BenchmarkProblems.routingPlan(domainLocations, vehicleCount, trackPointsPerLeg);
+    }
+
+    /**
+     * Planner solution to a route changed event (done on the solver side).
+     *
+     * @return event
+     */
+    @Benchmark
+    public RouteChangedEvent solutionToEvent() {
+        return BenchmarkRouteChangedEventFactory.solutionToEvent(solution);
+    }
+
+    /**
+     * Routing plan (with tracks) to the portable routing plan sent over WebSocket.
+     *
+     * @return portable routing plan
+     */
+    @Benchmark
+    public Object fromRoutingPlan() {
+        return BenchmarkPortableRoutingPlanFactory.fromRoutingPlan(routingPlan);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaplanner.core.api.score.ScoreManager;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.plugin.planner.DistanceMapImpl;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocation;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningLocationFactory;
+import org.optaweb.vehiclerouting.plugin.planner.domain.PlanningVisit;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.service.distance.BenchmarkDistanceMatrixFactory;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrix;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrixRow;
+
+/**
+ * Measures score calculation throughput and the cost of distance lookups done during score calculation.
+ * <p>
+ * Compare the {@link LookupMode lookup modes} to see the difference between the boxed location ID lookup and
+ * the index-based lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreCalculationBenchmark {
+
+    static final String SOLVER_CONFIG = "org/optaweb/vehiclerouting/solver/vehicleRoutingSolverConfig.xml";
+
+    /**
+     * How planning locations look up distances.
+     */
+    public enum LookupMode {
+        /**
+         * Look up distances by location ID. The ID is boxed and translated to a matrix index for each lookup.
+         */
+        ID,
+        /**
+         * Look up distances by the planning location's matrix index. Doesn't allocate.
+         */
+        INDEX
+    }
+
+    @Param({ "100", "1000", "10000" })
+    int visitCount;
+
+    @Param({ "10" })
+    int vehicleCount;
+
+    @Param({ "ID", "INDEX" })
+    LookupMode lookupMode;
+
+    private ScoreManager<VehicleRoutingSolution, HardSoftLongScore> scoreManager;
+    private VehicleRoutingSolution solution;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scoreManager = ScoreManager.create(SolverFactory.createFromXmlResource(SOLVER_CONFIG));
+
+        DistanceMatrix distanceMatrix = BenchmarkDistanceMatrixFactory.distanceMatrix(
+                BenchmarkProblems.euclideanDistanceCalculator());
+        List<Location> domainLocations = BenchmarkProblems.locations(visitCount + 1);
+        List<DistanceMatrixRow> rows = distanceMatrix.addLocations(domainLocations);
+        List<PlanningLocation> locations = new ArrayList<>();
+        for (int i = 0; i < domainLocations.size(); i++) {
+            locations.add(planningLocation(domainLocations.get(i), rows.get(i)));
+        }
+        solution = BenchmarkProblems.solution(locations, vehicleCount);
+    }
+
+    private PlanningLocation planningLocation(Location location, DistanceMatrixRow distanceMatrixRow) {
+        DistanceMapImpl distanceMap = new DistanceMapImpl(distanceMatrixRow);
+        if (lookupMode == LookupMode.INDEX) {
+            return PlanningLocationFactory.fromDomain(location, distanceMatrixRow.locationIndex(), distanceMap);
+        }
+        return PlanningLocationFactory.fromDomain(location, distanceMap);
+    }
+
+    /**
+     * Full score calculation of the solution.
+     *
+     * @return score
+     */
+    @Benchmark
+    public HardSoftLongScore calculateScore() {
+        return scoreManager.updateScore(solution);
+    }
+
+    /**
+     * Only the distance lookups done by the soft constraints.
+     *
+     * @return total distance
+     */
+    @Benchmark
+    public long distanceLookup() {
+        long totalDistance = 0;
+        for (PlanningVisit visit : solution.getVisitList()) {
+            totalDistance += visit.distanceFromPreviousStandstill();
+            if (visit.isLast()) {
+                totalDistance += visit.distanceToDepot();
+            }
+        }
+        return totalDistance;
+    }
+}
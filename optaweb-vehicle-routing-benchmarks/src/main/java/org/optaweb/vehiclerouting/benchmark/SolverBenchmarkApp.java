@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.benchmark;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+import org.optaplanner.benchmark.config.PlannerBenchmarkConfig;
+import org.optaplanner.benchmark.config.ProblemBenchmarksConfig;
+import org.optaplanner.benchmark.config.SolverBenchmarkConfig;
+import org.optaplanner.benchmark.config.statistic.ProblemStatisticType;
+import org.optaplanner.core.config.heuristic.selector.move.composite.UnionMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.chained.SubChainChangeMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.chained.SubChainSwapMoveSelectorConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaweb.vehiclerouting.domain.RoutingProblem;
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.plugin.routing.AirDistanceRouter;
+import org.optaweb.vehiclerouting.service.demo.dataset.BenchmarkDataSetReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares solver configurations on the demo data sets using OptaPlanner's benchmark framework.
+ * <p>
+ * Loads the built-in Belgium data set and all data sets from the data set directory, calculates distances with
+ * the air distance calculator and solves each data set with each solver configuration. The first configuration
+ * is the production one. The others differ from it in a single setting. The report (best score over time,
+ * score calculation speed, move count per step) is written to {@value #BENCHMARK_DIRECTORY}.
+ * <p>
+ * Arguments (both optional): data set directory (defaults to {@value #DEFAULT_DATA_SET_DIR}) and how many seconds
+ * each solver runs on each data set (defaults to {@value #DEFAULT_SECONDS_SPENT_LIMIT}).
+ */
+public class SolverBenchmarkApp {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolverBenchmarkApp.class);
+
+    static final String DEFAULT_DATA_SET_DIR = "local/dataset";
+    static final long DEFAULT_SECONDS_SPENT_LIMIT = 60;
+    static final String BENCHMARK_DIRECTORY = "local/benchmarkReport";
+    private static final String BELGIUM_DATA_SET = "org/optaweb/vehiclerouting/service/demo/belgium-cities.yaml";
+
+    private SolverBenchmarkApp() {
+        throw new AssertionError("Utility class");
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dataSetDir = Paths.get(args.length > 0 ? args[0] : DEFAULT_DATA_SET_DIR);
+        long secondsSpentLimit = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SECONDS_SPENT_LIMIT;
+
+        List<VehicleRoutingSolution> problems = new ArrayList<>();
+        List<RoutingProblem> routingProblems = routingProblems(dataSetDir);
+        for (int i = 0; i < routingProblems.size(); i++) {
+            RoutingProblem routingProblem = routingProblems.get(i);
+            // In-memory problems are named by their index in the report.
+            logger.info("Problem_{}: {} ({} visits, {} vehicles)", i, routingProblem.name(),
+                    routingProblem.visits().size(), routingProblem.vehicles().size());
+            problems.add(BenchmarkProblems.solution(routingProblem, new AirDistanceRouter()));
+        }
+
+        PlannerBenchmarkFactory.create(benchmarkConfig(secondsSpentLimit)).buildPlannerBenchmark(problems).benchmark();
+        logger.info("Benchmark report written to {}", Paths.get(BENCHMARK_DIRECTORY).toAbsolutePath());
+    }
+
+    private static List<RoutingProblem> routingProblems(Path dataSetDir) throws IOException {
+        List<RoutingProblem> routingProblems = new ArrayList<>();
+        try (Reader reader = new InputStreamReader(
+                SolverBenchmarkApp.class.getClassLoader().getResourceAsStream(BELGIUM_DATA_SET),
+                StandardCharsets.UTF_8)) {
+            routingProblems.add(BenchmarkDataSetReader.read(reader));
+        }
+        if (!Files.isDirectory(dataSetDir)) {
+            logger.warn("Data set directory '{}' doesn't exist. Only the built-in data set will be used.",
+                    dataSetDir.toAbsolutePath());
+            return routingProblems;
+        }
+        List<Path> dataSetPaths;
+        try (Stream<Path> paths = Files.list(dataSetDir)) {
+            dataSetPaths = paths.filter(path -> path.toString().endsWith(".yaml")).sorted().collect(toList());
+        }
+        for (Path dataSetPath : dataSetPaths) {
+            try (Reader reader = Files.newBufferedReader(dataSetPath, StandardCharsets.UTF_8)) {
+                routingProblems.add(BenchmarkDataSetReader.read(reader));
+            }
+        }
+        return routingProblems;
+    }
+
+    static PlannerBenchmarkConfig benchmarkConfig(long secondsSpentLimit) {
+        ProblemBenchmarksConfig problemBenchmarksConfig = new ProblemBenchmarksConfig();
+        problemBenchmarksConfig.setProblemStatisticTypeList(Arrays.asList(
+                ProblemStatisticType.BEST_SCORE,
+                ProblemStatisticType.SCORE_CALCULATION_SPEED,
+                ProblemStatisticType.MOVE_COUNT_PER_STEP));
+        SolverBenchmarkConfig inheritedSolverBenchmarkConfig = new SolverBenchmarkConfig();
+        inheritedSolverBenchmarkConfig.setProblemBenchmarksConfig(problemBenchmarksConfig);
+
+        PlannerBenchmarkConfig benchmarkConfig = new PlannerBenchmarkConfig();
+        benchmarkConfig.setBenchmarkDirectory(new File(BENCHMARK_DIRECTORY));
+        benchmarkConfig.setWarmUpSecondsSpentLimit(Math.min(secondsSpentLimit, 30));
+        benchmarkConfig.setInheritedSolverBenchmarkConfig(inheritedSolverBenchmarkConfig);
+        benchmarkConfig.setSolverBenchmarkConfigList(Arrays.asList(
+                solverBenchmark("production", secondsSpentLimit, localSearch -> {
+                }),
+                solverBenchmark("lateAcceptance50", secondsSpentLimit,
+                        localSearch -> localSearch.getAcceptorConfig().setLateAcceptanceSize(50)),
+                solverBenchmark("lateAcceptance800", secondsSpentLimit,
+                        localSearch -> localSearch.getAcceptorConfig().setLateAcceptanceSize(800)),
+                solverBenchmark("acceptedCount4", secondsSpentLimit,
+                        localSearch -> localSearch.getForagerConfig().setAcceptedCountLimit(4)),
+                solverBenchmark("withoutSubChainMoves", secondsSpentLimit, localSearch -> {
+                    UnionMoveSelectorConfig union = (UnionMoveSelectorConfig) localSearch.getMoveSelectorConfig();
+                    union.getMoveSelectorConfigList().removeIf(moveSelector ->
+                            moveSelector instanceof SubChainChangeMoveSelectorConfig
+                                    || moveSelector instanceof SubChainSwapMoveSelectorConfig);
+                })));
+        return benchmarkConfig;
+    }
+
+    /**
+     * Create a solver benchmark based on the production solver configuration.
+     *
+     * @param name solver benchmark name
+     * @param secondsSpentLimit how long the solver runs on each problem
+     * @param localSearchTweak changes the local search phase of the production configuration
+     * @return solver benchmark configuration
+     */
+    private static SolverBenchmarkConfig solverBenchmark(
+            String name,
+            long secondsSpentLimit,
+            Consumer<LocalSearchPhaseConfig> localSearchTweak) {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(ScoreCalculationBenchmark.SOLVER_CONFIG);
+        solverConfig.setTerminationConfig(new TerminationConfig().withSecondsSpentLimit(secondsSpentLimit));
+        solverConfig.getPhaseConfigList().stream()
+                .filter(LocalSearchPhaseConfig.class::isInstance)
+                .map(LocalSearchPhaseConfig.class::cast)
+                .forEach(localSearchTweak);
+        SolverBenchmarkConfig solverBenchmarkConfig = new SolverBenchmarkConfig();
+        solverBenchmarkConfig.setName(name);
+        solverBenchmarkConfig.setSolverConfig(solverConfig);
+        return solverBenchmarkConfig;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.planner;
+
+import org.optaweb.vehiclerouting.plugin.planner.domain.VehicleRoutingSolution;
+import org.optaweb.vehiclerouting.service.route.RouteChangedEvent;
+
+/**
+ * Exposes the conversion of a solution to a route changed event to benchmarks.
+ */
+public class BenchmarkRouteChangedEventFactory {
+
+    private BenchmarkRouteChangedEventFactory() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Convert the solution to a route changed event the same way as when a best solution is published.
+     *
+     * @param solution solution with a score
+     * @return new event describing the solution
+     */
+    public static RouteChangedEvent solutionToEvent(VehicleRoutingSolution solution) {
+        return RouteChangedEventPublisher.solutionToEvent(solution, solution);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.plugin.websocket;
+
+import org.optaweb.vehiclerouting.domain.RoutingPlan;
+
+/**
+ * Exposes the conversion of a routing plan to its portable representation to benchmarks.
+ */
+public class BenchmarkPortableRoutingPlanFactory {
+
+    private BenchmarkPortableRoutingPlanFactory() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Convert the routing plan to a full portable routing plan the same way as when it is sent to the UI.
+     *
+     * @param routingPlan routing plan
+     * @return portable routing plan (the type is not visible outside of the websocket package)
+     */
+    public static Object fromRoutingPlan(RoutingPlan routingPlan) {
+        return PortableRoutingPlanFactory.fromRoutingPlan(routingPlan, 1);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.demo.dataset;
+
+import java.io.Reader;
+
+import org.optaweb.vehiclerouting.domain.RoutingProblem;
+
+/**
+ * Reads demo data sets for benchmarks without starting the application.
+ */
+public class BenchmarkDataSetReader {
+
+    private BenchmarkDataSetReader() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Read a routing problem in the YAML data set format.
+     *
+     * @param reader data set reader
+     * @return routing problem
+     */
+    public static RoutingProblem read(Reader reader) {
+        return new DataSetMarshaller().unmarshal(reader);
+    }
+}
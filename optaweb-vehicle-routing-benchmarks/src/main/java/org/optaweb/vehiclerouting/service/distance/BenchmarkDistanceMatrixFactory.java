@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.vehiclerouting.service.distance;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.optaweb.vehiclerouting.domain.Location;
+import org.optaweb.vehiclerouting.service.location.DistanceMatrix;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Creates distance matrices for benchmarks. The matrices are backed by an empty, non-persistent repository so every
+ * distance is calculated by the given {@link DistanceCalculator}.
+ */
+public class BenchmarkDistanceMatrixFactory {
+
+    // A composite registry without any registries only creates no-op meters.
+    private static final MeterRegistry NOOP_METER_REGISTRY = new CompositeMeterRegistry();
+
+    private BenchmarkDistanceMatrixFactory() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * Create an empty distance matrix. The distance cache is disabled so that every distance is calculated.
+     *
+     * @param distanceCalculator calculates distances when a location is added
+     * @return empty distance matrix
+     */
+    public static DistanceMatrix distanceMatrix(DistanceCalculator distanceCalculator) {
+        return new DistanceMatrixImpl(
+                distanceCalculator,
+                new NoopDistanceRepository(),
+                new DistanceCache(0, NOOP_METER_REGISTRY),
+                new RoutingExecutor(
+                        Runtime.getRuntime().availableProcessors(),
+                        1000,
+                        Duration.ofMinutes(1),
+                        NOOP_METER_REGISTRY),
+                NOOP_METER_REGISTRY);
+    }
+
+    private static class NoopDistanceRepository implements DistanceRepository {
+
+        @Override
+        public void saveDistances(List<Location> from, List<Location> to, long[][] distances) {
+            // nothing to do
+        }
+
+        @Override
+        public long[][] getDistances(List<Location> from, List<Location> to) {
+            long[][] distances = new long[from.size()][to.size()];
+            for (long[] row : distances) {
+                Arrays.fill(row, -1);
+            }
+            return distances;
+        }
+
+        @Override
+        public void deleteDistances(Location location) {
+            // nothing to do
+        }
+
+        @Override
+        public void deleteAll() {
+            // nothing to do
+        }
+    }
+}
@@ -47,6 +47,27 @@ const mockClient = {
   debug: jest.fn(),
 };
 
+const depot = { id: 1, lat: 1, lng: 1 };
+const visit1 = { id: 2, lat: 2, lng: 2 };
+const vehicle1 = { id: 1, name: 'Vehicle 1', capacity: 10 };
+const vehicle2 = { id: 2, name: 'Vehicle 2', capacity: 10 };
+
+const fullPlan = {
+  sequence: 5,
+  full: true,
+  distance: '2h',
+  vehicles: [vehicle1, vehicle2],
+  depot,
+  visits: [visit1],
+  routes: [
+    // (1, 1) -> (2, 2), (2, 2) -> (1, 1)
+    { vehicle: vehicle1, visits: [visit1], track: ['_ibE_ibE_ibE_ibE', '_seK_seK~hbE~hbE'] },
+    { vehicle: vehicle2, visits: [], track: [] },
+  ],
+};
+
+const decodedRoute1 = { vehicle: vehicle1, visits: [visit1], track: [[1, 1], [2, 2], [2, 2], [1, 1]] };
+
 describe('WebSocketClient', () => {
   const url = 'http://test.url:123/my-endpoint';
   const client = new WebSocketClient(url);
@@ -153,7 +174,6 @@ describe('WebSocketClient', () => {
 
   it('subscribeToRoute() should subscribe with callback', () => {
     const callback = jest.fn();
-    const payload = { value: 'test' };
 
     client.connect(onSuccess, onError);
     client.subscribeToRoute(callback);
@@ -161,8 +181,67 @@ describe('WebSocketClient', () => {
     expect(mockClient.subscribe.mock.calls[0][0]).toBe('/topic/route');
     expect(typeof mockClient.subscribe.mock.calls[0][1]).toBe('function');
 
-    mockClient.subscribe.mock.calls[0][1]({ body: JSON.stringify(payload) });
-    expect(callback).toHaveBeenCalledWith(payload);
+    mockClient.subscribe.mock.calls[0][1]({ body: JSON.stringify(fullPlan) });
+    expect(callback).toHaveBeenCalledWith({
+      distance: '2h',
+      vehicles: [vehicle1, vehicle2],
+      depot,
+      visits: [visit1],
+      routes: [decodedRoute1, { vehicle: vehicle2, visits: [], track: [] }],
+    });
+  });
+
+  it('subscribeToRoute() should apply diffs to the full plan', () => {
+    const callback = jest.fn();
+    const vehicle3 = { id: 3, name: 'Vehicle 3', capacity: 10 };
+    const route3 = { vehicle: vehicle3, visits: [], track: [] };
+    // (1, 1) -> (2, 2)
+    const changedRoute2 = { vehicle: vehicle2, visits: [visit1], track: ['_ibE_ibE_ibE_ibE'] };
+    const diff = {
+      ...fullPlan,
+      sequence: 6,
+      full: false,
+      distance: '1h',
+      vehicles: [vehicle2, vehicle3],
+      routes: [changedRoute2, route3],
+    };
+
+    client.connect(onSuccess, onError);
+    client.subscribeToRoute(callback);
+    const subscriptionCallback = mockClient.subscribe.mock.calls[0][1];
+    subscriptionCallback({ body: JSON.stringify(fullPlan) });
+    subscriptionCallback({ body: JSON.stringify(diff) });
+
+    expect(callback).toHaveBeenCalledTimes(2);
+    expect(callback).toHaveBeenLastCalledWith({
+      distance: '1h',
+      vehicles: [vehicle2, vehicle3],
+      depot,
+      visits: [visit1],
+      // vehicle 1 is gone
+      routes: [{ vehicle: vehicle2, visits: [visit1], track: [[1, 1], [2, 2]] }, route3],
+    });
+
+    // same diff again is ignored
+    subscriptionCallback({ body: JSON.stringify(diff) });
+    expect(callback).toHaveBeenCalledTimes(2);
+  });
+
+  it('subscribeToRoute() should subscribe again when a diff is missed', () => {
+    const callback = jest.fn();
+    const unsubscribe = jest.fn();
+    mockClient.subscribe.mockReturnValue({ id: 'route', unsubscribe });
+
+    client.connect(onSuccess, onError);
+    client.subscribeToRoute(callback);
+    const subscriptionCallback = mockClient.subscribe.mock.calls[0][1];
+    subscriptionCallback({ body: JSON.stringify(fullPlan) });
+    subscriptionCallback({ body: JSON.stringify({ ...fullPlan, sequence: 7, full: false }) });
+
+    expect(callback).toHaveBeenCalledTimes(1);
+    expect(unsubscribe).toHaveBeenCalledTimes(1);
+    expect(mockClient.subscribe).toHaveBeenCalledTimes(2);
+    expect(mockClient.subscribe.mock.calls[1][0]).toBe('/topic/route');
   });
 
   it('subscribeToErrorTopic() should subscribe with callback', () => {
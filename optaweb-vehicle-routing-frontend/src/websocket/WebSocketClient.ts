@@ -16,9 +16,44 @@
 
 import SockJS from 'sockjs-client';
 import { MessagePayload } from 'store/message/types';
-import { LatLngWithDescription, RoutingPlan } from 'store/route/types';
+import { LatLngWithDescription, Route, RouteWithTrack, RoutingPlan } from 'store/route/types';
 import { ServerInfo } from 'store/server/types';
 import { Client, Frame, over } from 'webstomp-client';
+import { decodeTrack } from './polyline';
+
+/**
+ * Route as sent to the route topic. The track has one encoded polyline per leg.
+ */
+interface RouteMessage extends Route {
+  readonly track: string[];
+}
+
+/**
+ * Routing plan as sent to the route topic. A full plan contains routes of all vehicles. A diff only contains routes
+ * that have changed since the plan with the previous sequence number. Routes of vehicles that aren't in the diff's
+ * vehicles are gone.
+ */
+interface RoutingPlanMessage extends Omit<RoutingPlan, 'routes'> {
+  readonly sequence: number;
+  readonly full: boolean;
+  readonly routes: RouteMessage[];
+}
+
+const decodeRoute = (route: RouteMessage): RouteWithTrack => ({
+  vehicle: route.vehicle,
+  visits: route.visits,
+  track: decodeTrack(route.track),
+});
+
+const mergeRoutes = (plan: RoutingPlan, vehicleIds: number[], changedRoutes: RouteWithTrack[]): RouteWithTrack[] => {
+  const previousVehicleIds = plan.routes.map((route) => route.vehicle.id);
+  return [
+    ...plan.routes
+      .filter((route) => vehicleIds.includes(route.vehicle.id))
+      .map((route) => changedRoutes.find((changedRoute) => changedRoute.vehicle.id === route.vehicle.id) || route),
+    ...changedRoutes.filter((route) => !previousVehicleIds.includes(route.vehicle.id)),
+  ];
+};
 
 export default class WebSocketClient {
   readonly socketUrl: string;
@@ -108,8 +143,39 @@ export default class WebSocketClient {
 
   subscribeToRoute(subscriptionCallback: (plan: RoutingPlan) => any): void {
     if (this.stompClient) {
-      this.stompClient.subscribe('/topic/route', (message) => {
-        const plan = JSON.parse(message.body);
+      // The first message is a full plan, the following ones are diffs. Diffs are applied to the last plan.
+      let plan: RoutingPlan | null = null;
+      let sequence = -1;
+      let droppedSequence = -1;
+      const subscription = this.stompClient.subscribe('/topic/route', (message) => {
+        const planMessage: RoutingPlanMessage = JSON.parse(message.body);
+        if (!planMessage.full && plan === null) {
+          // The diff has overtaken the full plan. Remember it in case the full plan turns out to be older.
+          droppedSequence = Math.max(droppedSequence, planMessage.sequence);
+          return;
+        }
+        if (planMessage.sequence < sequence || (!planMessage.full && planMessage.sequence === sequence)) {
+          // already applied
+          return;
+        }
+        if ((planMessage.full && planMessage.sequence < droppedSequence)
+          || (!planMessage.full && planMessage.sequence > sequence + 1)) {
+          // A diff has been missed, subscribe again to get a full plan.
+          subscription.unsubscribe();
+          this.subscribeToRoute(subscriptionCallback);
+          return;
+        }
+        const routes = planMessage.routes.map(decodeRoute);
+        plan = {
+          distance: planMessage.distance,
+          vehicles: planMessage.vehicles,
+          depot: planMessage.depot,
+          visits: planMessage.visits,
+          routes: planMessage.full || plan === null
+            ? routes
+            : mergeRoutes(plan, planMessage.vehicles.map((vehicle) => vehicle.id), routes),
+        };
+        sequence = planMessage.sequence;
         subscriptionCallback(plan);
       });
     }
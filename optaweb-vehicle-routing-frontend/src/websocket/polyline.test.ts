@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import { decodePolyline, decodeTrack } from './polyline';
+
+describe('Polyline decoding', () => {
+  it('should decode reference example', () => {
+    // https://developers.google.com/maps/documentation/utilities/polylinealgorithm
+    expect(decodePolyline('_p~iF~ps|U_ulLnnqC_mqNvxq`@')).toEqual([
+      [38.5, -120.2],
+      [40.7, -120.95],
+      [43.252, -126.453],
+    ]);
+  });
+
+  it('should decode empty polyline', () => {
+    expect(decodePolyline('')).toEqual([]);
+  });
+
+  it('should join track segments', () => {
+    expect(decodeTrack(['_ibE_ibE_ibE_ibE', '_seK_seK~hbE~hbE'])).toEqual([[1, 1], [2, 2], [2, 2], [1, 1]]);
+    expect(decodeTrack([])).toEqual([]);
+  });
+});
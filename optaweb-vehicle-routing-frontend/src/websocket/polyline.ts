@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import { LatLngTuple } from 'store/route/types';
+
+/**
+ * Decodes a polyline encoded by the
+ * [Encoded Polyline Algorithm](https://developers.google.com/maps/documentation/utilities/polylinealgorithm)
+ * with 5 decimal places precision.
+ */
+export const decodePolyline = (encoded: string): LatLngTuple[] => {
+  const points: LatLngTuple[] = [];
+  let index = 0;
+  let latitude = 0;
+  let longitude = 0;
+  const decodeValue = () => {
+    let result = 0;
+    let shift = 0;
+    let chunk: number;
+    do {
+      chunk = encoded.charCodeAt(index) - 63;
+      index += 1;
+      // eslint-disable-next-line no-bitwise
+      result |= (chunk & 0x1f) << shift;
+      shift += 5;
+    } while (chunk >= 0x20);
+    // eslint-disable-next-line no-bitwise
+    return (result & 1) ? ~(result >> 1) : (result >> 1);
+  };
+  while (index < encoded.length) {
+    latitude += decodeValue();
+    longitude += decodeValue();
+    points.push([latitude / 1e5, longitude / 1e5]);
+  }
+  return points;
+};
+
+/**
+ * Decodes track segments into a single track.
+ */
+export const decodeTrack = (segments: string[]): LatLngTuple[] => (
+  segments.reduce((track: LatLngTuple[], segment) => track.concat(decodePolyline(segment)), [])
+);